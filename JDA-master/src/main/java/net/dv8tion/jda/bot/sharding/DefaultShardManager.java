@@ -19,21 +19,27 @@ import com.neovisionaries.ws.client.WebSocketFactory;
 import gnu.trove.map.TIntObjectMap;
 import net.dv8tion.jda.bot.utils.cache.ShardCacheView;
 import net.dv8tion.jda.bot.utils.cache.impl.ShardCacheViewImpl;
+import net.dv8tion.jda.bot.utils.cache.impl.ShardedSnowflakeCacheView;
 import net.dv8tion.jda.core.AccountType;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.OnlineStatus;
+import net.dv8tion.jda.core.audio.AudioReceiveSelector;
 import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
-import net.dv8tion.jda.core.entities.Game;
-import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.*;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.hooks.EventDispatcher;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.managers.impl.PresenceImpl;
+import net.dv8tion.jda.core.requests.HeartbeatTimer;
 import net.dv8tion.jda.core.utils.Checks;
 import net.dv8tion.jda.core.utils.JDALogger;
 import net.dv8tion.jda.core.utils.MiscUtil;
 import net.dv8tion.jda.core.utils.SessionController;
 import net.dv8tion.jda.core.utils.SessionControllerAdapter;
 import net.dv8tion.jda.core.utils.cache.CacheFlag;
+import net.dv8tion.jda.core.utils.cache.MemberCachePolicy;
+import net.dv8tion.jda.core.utils.cache.SnowflakeCacheView;
+import net.dv8tion.jda.core.utils.cache.impl.AbstractCacheView;
 import net.dv8tion.jda.core.utils.tuple.Pair;
 import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
@@ -235,6 +241,83 @@ public class DefaultShardManager implements ShardManager
      */
     protected final EnumSet<CacheFlag> cacheFlags;
 
+    /**
+     * The {@link net.dv8tion.jda.core.hooks.EventDispatcher EventDispatcher} shared by all shards, or null
+     */
+    protected final EventDispatcher eventDispatcher;
+
+    /**
+     * Whether the event dispatcher should be shutdown with this manager
+     */
+    protected final boolean shutdownEventDispatcher;
+
+    /**
+     * Whether shards should keep an index of entity names
+     */
+    protected final boolean enableNameIndex;
+
+    /**
+     * Whether shards should send queued requests asynchronously
+     */
+    protected final boolean enableAsyncRequests;
+
+    /**
+     * The maximum amount of rate-limit buckets kept by each shard
+     */
+    protected final int maxRateLimitBuckets;
+
+    /**
+     * The {@link ScheduledExecutorService ScheduledExecutorService} that runs the send queues of the shards.
+     */
+    protected final ThreadPoolProvider<? extends ScheduledExecutorService> gatewayPoolProvider;
+
+    /**
+     * The {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy MemberCachePolicy} of the shards
+     */
+    protected final MemberCachePolicy memberCachePolicy;
+
+    /**
+     * The timer which schedules the heartbeats of all shards.
+     */
+    protected final HeartbeatTimer heartbeatTimer = new HeartbeatTimer("DefaultShardManager Heartbeat Timer");
+
+    /**
+     * The selector which receives the audio of all shards, or null if every voice connection uses its own receive thread.
+     */
+    protected final AudioReceiveSelector audioReceiveSelector;
+
+    /**
+     * The unified caches of all shards, they are updated by the caches of the shards and index every entity by its id.
+     */
+    protected final ShardedSnowflakeCacheView<Category> categoryCache = new ShardedSnowflakeCacheView<>(Channel::getName);
+    protected final ShardedSnowflakeCacheView<Emote> emoteCache = new ShardedSnowflakeCacheView<>(Emote::getName);
+    protected final ShardedSnowflakeCacheView<PrivateChannel> privateChannelCache = new ShardedSnowflakeCacheView<>(MessageChannel::getName);
+    protected final ShardedSnowflakeCacheView<Role> roleCache = new ShardedSnowflakeCacheView<>(Role::getName);
+    protected final ShardedSnowflakeCacheView<TextChannel> textChannelCache = new ShardedSnowflakeCacheView<>(Channel::getName);
+    protected final ShardedSnowflakeCacheView<User> userCache = new ShardedSnowflakeCacheView<>(User::getName);
+    protected final ShardedSnowflakeCacheView<VoiceChannel> voiceChannelCache = new ShardedSnowflakeCacheView<>(Channel::getName);
+    protected final ShardedSnowflakeCacheView<Guild> guildCache = new ShardedSnowflakeCacheView<Guild>(Guild::getName)
+    {
+        @Override
+        public void onWrite(AbstractCacheView<Guild> view, long id, Guild previous, Guild current)
+        {
+            super.onWrite(view, id, previous, current);
+            if (previous == current)
+                return;
+            // roles and emotes are cached by their guild
+            if (previous != null)
+            {
+                roleCache.detach((AbstractCacheView<Role>) previous.getRoleCache());
+                emoteCache.detach((AbstractCacheView<Emote>) previous.getEmoteCache());
+            }
+            if (current != null)
+            {
+                roleCache.attach((AbstractCacheView<Role>) current.getRoleCache());
+                emoteCache.attach((AbstractCacheView<Emote>) current.getEmoteCache());
+            }
+        }
+    };
+
     /**
      * Creates a new DefaultShardManager instance.
      * @param  shardsTotal
@@ -290,6 +373,22 @@ public class DefaultShardManager implements ShardManager
      *         The MDC context provider new JDA instances should use on startup
      * @param  enableCompression
      *         Whether to enable transport compression
+     * @param  eventDispatcher
+     *         The {@link net.dv8tion.jda.core.hooks.EventDispatcher EventDispatcher} or null
+     * @param  shutdownEventDispatcher
+     *         Whether the event dispatcher should be shutdown with this manager
+     * @param  enableNameIndex
+     *         Whether shards should keep an index of entity names
+     * @param  enableAsyncRequests
+     *         Whether shards should send queued requests asynchronously
+     * @param  maxRateLimitBuckets
+     *         The maximum amount of rate-limit buckets kept by each shard
+     * @param  gatewayPoolProvider
+     *         The {@link ScheduledExecutorService ScheduledExecutorService} provider for the send queues
+     * @param  audioReceiveThreads
+     *         The amount of worker threads that receive audio for all shards, or 0 to use a thread per voice connection
+     * @param  memberCachePolicy
+     *         The {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy MemberCachePolicy} of the shards
      */
     protected DefaultShardManager(final int shardsTotal, final Collection<Integer> shardIds,
                                   final SessionController controller, final List<Object> listeners,
@@ -305,7 +404,12 @@ public class DefaultShardManager implements ShardManager
                                   final boolean autoReconnect, final IntFunction<Boolean> idleProvider,
                                   final boolean retryOnTimeout, final boolean useShutdownNow,
                                   final boolean enableMDC, final IntFunction<? extends ConcurrentMap<String, String>> contextProvider,
-                                  final EnumSet<CacheFlag> cacheFlags, final boolean enableCompression)
+                                  final EnumSet<CacheFlag> cacheFlags, final boolean enableCompression,
+                                  final EventDispatcher eventDispatcher, final boolean shutdownEventDispatcher,
+                                  final boolean enableNameIndex, final boolean enableAsyncRequests,
+                                  final int maxRateLimitBuckets,
+                                  final ThreadPoolProvider<? extends ScheduledExecutorService> gatewayPoolProvider,
+                                  final int audioReceiveThreads, final MemberCachePolicy memberCachePolicy)
     {
         this.shardsTotal = shardsTotal;
         this.listeners = listeners;
@@ -338,6 +442,14 @@ public class DefaultShardManager implements ShardManager
         this.enableMDC = enableMDC;
         this.enableCompression = enableCompression;
         this.cacheFlags = cacheFlags;
+        this.eventDispatcher = eventDispatcher;
+        this.shutdownEventDispatcher = shutdownEventDispatcher;
+        this.enableNameIndex = enableNameIndex;
+        this.enableAsyncRequests = enableAsyncRequests;
+        this.maxRateLimitBuckets = maxRateLimitBuckets;
+        this.gatewayPoolProvider = gatewayPoolProvider;
+        this.memberCachePolicy = memberCachePolicy;
+        this.audioReceiveSelector = audioReceiveThreads > 0 ? new AudioReceiveSelector("DefaultShardManager Audio-Receive", audioReceiveThreads) : null;
 
         synchronized (queue)
         {
@@ -411,6 +523,54 @@ public class DefaultShardManager implements ShardManager
         return this.shards;
     }
 
+    @Override
+    public SnowflakeCacheView<Category> getCategoryCache()
+    {
+        return this.categoryCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<Emote> getEmoteCache()
+    {
+        return this.emoteCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<Guild> getGuildCache()
+    {
+        return this.guildCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<PrivateChannel> getPrivateChannelCache()
+    {
+        return this.privateChannelCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<Role> getRoleCache()
+    {
+        return this.roleCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<TextChannel> getTextChannelCache()
+    {
+        return this.textChannelCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<User> getUserCache()
+    {
+        return this.userCache;
+    }
+
+    @Override
+    public SnowflakeCacheView<VoiceChannel> getVoiceChannelCache()
+    {
+        return this.voiceChannelCache;
+    }
+
     public void login() throws LoginException
     {
         // building the first one in the current thread ensures that LoginException and IllegalArgumentException can be thrown on login
@@ -460,6 +620,7 @@ public class DefaultShardManager implements ShardManager
         final JDA jda = this.shards.getMap().remove(shardId);
         if (jda != null)
         {
+            detachCaches(jda);
             if (this.useShutdownNow)
                 jda.shutdownNow();
             else
@@ -511,6 +672,12 @@ public class DefaultShardManager implements ShardManager
                     jda.shutdown();
             }
         }
+
+        if (this.eventDispatcher != null && this.shutdownEventDispatcher)
+            this.eventDispatcher.shutdown();
+        this.heartbeatTimer.shutdown();
+        if (this.audioReceiveSelector != null)
+            this.audioReceiveSelector.shutdown();
     }
 
     @Override
@@ -519,6 +686,7 @@ public class DefaultShardManager implements ShardManager
         final JDA jda = this.shards.getMap().remove(shardId);
         if (jda != null)
         {
+            detachCaches(jda);
             if (this.useShutdownNow)
                 jda.shutdownNow();
             else
@@ -621,6 +789,32 @@ public class DefaultShardManager implements ShardManager
         }
     }
 
+    /**
+     * Adds the caches of a new shard to the unified caches, this has to happen before the shard caches any entity.
+     */
+    protected void attachCaches(JDAImpl jda)
+    {
+        this.guildCache.attach((AbstractCacheView<Guild>) jda.getGuildCache());
+        this.categoryCache.attach((AbstractCacheView<Category>) jda.getCategoryCache());
+        this.textChannelCache.attach((AbstractCacheView<TextChannel>) jda.getTextChannelCache());
+        this.voiceChannelCache.attach((AbstractCacheView<VoiceChannel>) jda.getVoiceChannelCache());
+        this.privateChannelCache.attach((AbstractCacheView<PrivateChannel>) jda.getPrivateChannelCache());
+        this.userCache.attach((AbstractCacheView<User>) jda.getUserCache());
+    }
+
+    /**
+     * Removes the entities of a shard that is shut down from the unified caches.
+     */
+    protected void detachCaches(JDA jda)
+    {
+        this.guildCache.detach((AbstractCacheView<Guild>) jda.getGuildCache());
+        this.categoryCache.detach((AbstractCacheView<Category>) jda.getCategoryCache());
+        this.textChannelCache.detach((AbstractCacheView<TextChannel>) jda.getTextChannelCache());
+        this.voiceChannelCache.detach((AbstractCacheView<VoiceChannel>) jda.getVoiceChannelCache());
+        this.privateChannelCache.detach((AbstractCacheView<PrivateChannel>) jda.getPrivateChannelCache());
+        this.userCache.detach((AbstractCacheView<User>) jda.getUserCache());
+    }
+
     protected JDAImpl buildInstance(final int shardId) throws LoginException, InterruptedException
     {
         OkHttpClient httpClient = this.httpClient;
@@ -646,12 +840,29 @@ public class DefaultShardManager implements ShardManager
             this.contextProvider == null || !this.enableMDC ? null : contextProvider.apply(shardId), this.cacheFlags);
 
         jda.asBot().setShardManager(this);
+        attachCaches(jda);
 
         if (this.eventManager != null)
             jda.setEventManager(this.eventManager);
 
+        if (this.eventDispatcher != null)
+            jda.setEventDispatcher(this.eventDispatcher, false);
+        jda.setNameIndexEnabled(this.enableNameIndex);
+        jda.setAsyncRequestsEnabled(this.enableAsyncRequests);
+        jda.setMaxRateLimitBuckets(this.maxRateLimitBuckets);
+        jda.setMemberCachePolicy(this.memberCachePolicy);
+        jda.setHeartbeatTimer(this.heartbeatTimer, false);
+        if (this.gatewayPoolProvider != null)
+        {
+            ScheduledExecutorService gatewayPool = this.gatewayPoolProvider.provide(shardId);
+            if (gatewayPool != null)
+                jda.setGatewayPool(gatewayPool, this.gatewayPoolProvider.shouldShutdownAutomatically(shardId));
+        }
+
         if (this.audioSendFactory != null)
             jda.setAudioSendFactory(this.audioSendFactory);
+        if (this.audioReceiveSelector != null)
+            jda.setAudioReceiveSelector(this.audioReceiveSelector, false);
 
         this.listeners.forEach(jda::addEventListener);
         this.listenerProviders.forEach(provider -> jda.addEventListener(provider.apply(shardId)));
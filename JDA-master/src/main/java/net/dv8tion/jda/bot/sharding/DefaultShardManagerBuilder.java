@@ -19,10 +19,12 @@ import com.neovisionaries.ws.client.WebSocketFactory;
 import net.dv8tion.jda.core.OnlineStatus;
 import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
 import net.dv8tion.jda.core.entities.Game;
+import net.dv8tion.jda.core.hooks.EventDispatcher;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.utils.Checks;
 import net.dv8tion.jda.core.utils.SessionController;
 import net.dv8tion.jda.core.utils.cache.CacheFlag;
+import net.dv8tion.jda.core.utils.cache.MemberCachePolicy;
 import okhttp3.OkHttpClient;
 
 import javax.security.auth.login.LoginException;
@@ -48,6 +50,11 @@ public class DefaultShardManagerBuilder
     protected EnumSet<CacheFlag> cacheFlags = EnumSet.allOf(CacheFlag.class);
     protected boolean enableContext = true;
     protected boolean enableBulkDeleteSplitting = true;
+    protected boolean enableNameIndex = false;
+    protected boolean enableAsyncRequests = false;
+    protected int maxRateLimitBuckets = Integer.MAX_VALUE;
+    protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
+    protected int audioReceiveThreads = 0;
     protected boolean enableShutdownHook = true;
     protected boolean enableVoice = true;
     protected boolean autoReconnect = true;
@@ -64,8 +71,11 @@ public class DefaultShardManagerBuilder
     protected IntFunction<? extends ConcurrentMap<String, String>> contextProvider = null;
     protected ThreadPoolProvider<? extends ScheduledThreadPoolExecutor> rateLimitPoolProvider = null;
     protected ThreadPoolProvider<? extends ExecutorService> callbackPoolProvider = null;
+    protected ThreadPoolProvider<? extends ScheduledExecutorService> gatewayPoolProvider = null;
     protected Collection<Integer> shards = null;
     protected IEventManager eventManager = null;
+    protected EventDispatcher eventDispatcher = null;
+    protected boolean shutdownEventDispatcher = true;
     protected OkHttpClient.Builder httpClientBuilder = null;
     protected OkHttpClient httpClient = null;
     protected WebSocketFactory wsFactory = null;
@@ -111,6 +121,29 @@ public class DefaultShardManagerBuilder
         return setEnabledCacheFlags(EnumSet.complementOf(flags));
     }
 
+    /**
+     * Sets the {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy MemberCachePolicy} which decides
+     * which members are requested during startup and how long they are cached.
+     * <br>A {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy#lazy() lazy} policy skips member chunking
+     * during startup and only caches members once they appear in events.
+     *
+     * <p>Default: <b>{@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy#ALL MemberCachePolicy.ALL}</b>
+     *
+     * @param  policy
+     *         The policy to use
+     *
+     * @throws IllegalArgumentException
+     *         If the provided policy is null
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setMemberCachePolicy(MemberCachePolicy policy)
+    {
+        Checks.notNull(policy, "MemberCachePolicy");
+        this.memberCachePolicy = policy;
+        return this;
+    }
+
     /**
      * Sets the {@link net.dv8tion.jda.core.utils.SessionController SessionController}
      * for the resulting ShardManager instance. This can be used to sync behaviour and state between shards
@@ -369,6 +402,9 @@ public class DefaultShardManagerBuilder
      * objects which handle the sending loop for audio packets.
      * <br>By default, JDA uses {@link net.dv8tion.jda.core.audio.factory.DefaultSendFactory DefaultSendFactory}.
      *
+     * <p>The {@link net.dv8tion.jda.core.audio.factory.PacedSendFactory PacedSendFactory} sends the audio of all connections
+     * from a fixed amount of threads, which scales better to many concurrent voice connections.
+     *
      * @param  factory
      *         The new {@link net.dv8tion.jda.core.audio.factory.IAudioSendFactory IAudioSendFactory} to be used
      *         when creating new {@link net.dv8tion.jda.core.audio.factory.IAudioSendSystem} objects.
@@ -381,6 +417,35 @@ public class DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the amount of worker threads used to receive audio from voice connections with an
+     * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler AudioReceiveHandler}.
+     * <br>By default every voice connection uses its own receive thread and its own thread to mix combined audio.
+     * With a positive amount all UDP sockets of all shards are watched by a single selector thread and
+     * the received audio is decoded and mixed by the provided amount of worker threads.
+     *
+     * <p><b>The UDP sockets are non-blocking in this mode</b>, a custom
+     * {@link net.dv8tion.jda.core.audio.factory.IAudioSendSystem IAudioSendSystem} has to send its packets through
+     * {@link java.net.DatagramSocket#getChannel()}. The {@link net.dv8tion.jda.core.audio.factory.DefaultSendFactory DefaultSendFactory}
+     * and {@link net.dv8tion.jda.core.audio.factory.PacedSendFactory PacedSendFactory} support this.
+     *
+     * <p>Default: <b>0 (one thread per connection)</b>
+     *
+     * @param  threads
+     *         The amount of worker threads, or 0 to use a thread per connection
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is negative
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setAudioReceiveThreads(final int threads)
+    {
+        Checks.notNegative(threads, "Threads");
+        this.audioReceiveThreads = threads;
+        return this;
+    }
+
     /**
      * Sets whether or not JDA should try to reconnect if a connection-error is encountered.
      * <br>This will use an incremental reconnect (timeouts are increased each time an attempt fails).
@@ -416,6 +481,76 @@ public class DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Whether JDA should keep an index of entity names for the name lookups of the cache views,
+     * such as {@link net.dv8tion.jda.core.JDA#getTextChannelsByName(String, boolean) getTextChannelsByName(String, boolean)}.
+     * <br>This makes these lookups constant time instead of scanning every cached entity,
+     * in exchange for some memory and a little work whenever an entity is cached or renamed.
+     *
+     * <p>Indexed are guilds, users, channels, categories, roles and emotes. Members are not indexed.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enabled
+     *         True, to index entity names
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setNameIndexEnabled(final boolean enabled)
+    {
+        this.enableNameIndex = enabled;
+        return this;
+    }
+
+    /**
+     * Whether queued REST requests should be sent asynchronously.
+     * <br>Instead of blocking a rate-limit thread until the response arrives, requests are enqueued with
+     * the OkHttp {@link okhttp3.Dispatcher Dispatcher} and the rate-limit buckets continue once the response is handled.
+     * This allows many concurrent requests with only a few threads.
+     * Requests of the same rate-limit bucket are still sent one after another.
+     *
+     * <p>The dispatcher limits how many calls run at the same time, by default only 5 per host.
+     * Configure {@link okhttp3.Dispatcher#setMaxRequestsPerHost(int)} on the http client when using this mode.
+     *
+     * <p>Requests executed with {@link net.dv8tion.jda.core.requests.RestAction#complete() RestAction.complete()} are always blocking.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enabled
+     *         True, to send queued requests asynchronously
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setAsyncRequestsEnabled(final boolean enabled)
+    {
+        this.enableAsyncRequests = enabled;
+        return this;
+    }
+
+    /**
+     * Sets the amount of rate-limit buckets that should be kept at most by each shard.
+     * <br>Each shard keeps one bucket per rate-limited route, for instance one for each channel messages are sent to.
+     * Buckets are removed once they are idle and their rate-limit has reset. When this limit is exceeded
+     * idle buckets are removed early, their rate-limit is then rediscovered with the next request.
+     * Buckets with queued requests are never removed, thus this limit can be exceeded temporarily.
+     *
+     * <p>Default: <b>{@link Integer#MAX_VALUE} (unlimited)</b>
+     *
+     * @param  maxBuckets
+     *         The maximum amount of rate-limit buckets
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is less than 1
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setMaxRateLimitBuckets(final int maxBuckets)
+    {
+        Checks.check(maxBuckets > 0, "Max buckets must be at least 1");
+        this.maxRateLimitBuckets = maxBuckets;
+        return this;
+    }
+
     /**
      * Sets the core pool size for the global JDA
      * {@link java.util.concurrent.ScheduledExecutorService ScheduledExecutorService} which is used
@@ -482,6 +617,43 @@ public class DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the {@link net.dv8tion.jda.core.hooks.EventDispatcher EventDispatcher} that should be used to
+     * hand events to the {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} off the WebSocket read threads.
+     * <br>The dispatcher is shared by all shards, events of the same guild are still handled in order.
+     *
+     * <p>The dispatcher is shutdown by {@link ShardManager#shutdown()}, use
+     * {@link #setEventDispatcher(EventDispatcher, boolean) setEventDispatcher(dispatcher, false)} to keep it alive.
+     *
+     * @param  dispatcher
+     *         The dispatcher to use, or {@code null} to handle events on the read threads
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setEventDispatcher(final EventDispatcher dispatcher)
+    {
+        return setEventDispatcher(dispatcher, true);
+    }
+
+    /**
+     * Sets the {@link net.dv8tion.jda.core.hooks.EventDispatcher EventDispatcher} that should be used to
+     * hand events to the {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} off the WebSocket read threads.
+     * <br>The dispatcher is shared by all shards, events of the same guild are still handled in order.
+     *
+     * @param  dispatcher
+     *         The dispatcher to use, or {@code null} to handle events on the read threads
+     * @param  automaticShutdown
+     *         Whether {@link ShardManager#shutdown()} should automatically shutdown this dispatcher
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setEventDispatcher(final EventDispatcher dispatcher, final boolean automaticShutdown)
+    {
+        this.eventDispatcher = dispatcher;
+        this.shutdownEventDispatcher = automaticShutdown;
+        return this;
+    }
+
     /**
      * Sets the {@link net.dv8tion.jda.core.entities.Game Game} for our session.
      * <br>This value can be changed at any time in the {@link net.dv8tion.jda.core.managers.Presence Presence} from a JDA instance.
@@ -757,6 +929,62 @@ public class DefaultShardManagerBuilder
         return this;
     }
 
+    /**
+     * Sets the {@link ScheduledExecutorService ScheduledExecutorService} that runs the
+     * send queues of the main gateway connections. By default every shard uses its own single thread.
+     * <br>Heartbeats are not affected by this, they always share one timer thread for all shards.
+     * <br>Sharing one small pool between all shards saves a thread per shard. The tasks only hold short internal locks and never wait
+     * for I/O or a busy audio queue, messages are handed to the writer thread of the socket.
+     * One or two threads are enough for most shard counts.
+     * <br><b>This automatically disables the automatic shutdown of the pool, you can enable
+     * it using {@link #setGatewayPool(ScheduledExecutorService, boolean) setGatewayPool(executor, true)}</b>
+     *
+     * @param  pool
+     *         The thread-pool to use for the gateway connections
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setGatewayPool(ScheduledExecutorService pool)
+    {
+        return setGatewayPool(pool, pool == null);
+    }
+
+    /**
+     * Sets the {@link ScheduledExecutorService ScheduledExecutorService} that runs the
+     * send queues of the main gateway connections. By default every shard uses its own single thread.
+     * <br>Heartbeats are not affected by this, they always share one timer thread for all shards.
+     * <br>Sharing one small pool between all shards saves a thread per shard. The tasks only hold short internal locks and never wait
+     * for I/O or a busy audio queue, messages are handed to the writer thread of the socket.
+     * One or two threads are enough for most shard counts.
+     *
+     * @param  pool
+     *         The thread-pool to use for the gateway connections
+     * @param  automaticShutdown
+     *         Whether {@link net.dv8tion.jda.core.JDA#shutdown()} should automatically shutdown this pool
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setGatewayPool(ScheduledExecutorService pool, boolean automaticShutdown)
+    {
+        return setGatewayPoolProvider(pool == null ? null : new ThreadPoolProviderImpl<>(pool, automaticShutdown));
+    }
+
+    /**
+     * Sets the {@link ScheduledExecutorService ScheduledExecutorService} provider that runs the
+     * send queues of the main gateway connections. By default every shard uses its own single thread.
+     * <br>Heartbeats are not affected by this, they always share one timer thread for all shards.
+     *
+     * @param  provider
+     *         The thread-pool provider to use for the gateway connections
+     *
+     * @return The DefaultShardManagerBuilder instance. Useful for chaining.
+     */
+    public DefaultShardManagerBuilder setGatewayPoolProvider(ThreadPoolProvider<? extends ScheduledExecutorService> provider)
+    {
+        this.gatewayPoolProvider = provider;
+        return this;
+    }
+
     /**
      * Sets the maximum amount of time that JDA will back off to wait when attempting to reconnect the MainWebsocket.
      * <br>Provided value must be 32 or greater.
@@ -989,7 +1217,10 @@ public class DefaultShardManagerBuilder
             this.httpClientBuilder, this.httpClient, this.rateLimitPoolProvider, this.callbackPoolProvider, this.wsFactory, this.threadFactory,
             this.maxReconnectDelay, this.corePoolSize, this.enableVoice, this.enableShutdownHook, this.enableBulkDeleteSplitting,
             this.autoReconnect, this.idleProvider, this.retryOnTimeout, this.useShutdownNow, this.enableContext,
-            this.contextProvider, this.cacheFlags, this.enableCompression);
+            this.contextProvider, this.cacheFlags, this.enableCompression,
+            this.eventDispatcher, this.shutdownEventDispatcher, this.enableNameIndex,
+            this.enableAsyncRequests, this.maxRateLimitBuckets, this.gatewayPoolProvider,
+            this.audioReceiveThreads, this.memberCachePolicy);
 
         manager.login();
 
@@ -0,0 +1,263 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.bot.utils.cache.impl;
+
+import net.dv8tion.jda.core.entities.ISnowflake;
+import net.dv8tion.jda.core.utils.Checks;
+import net.dv8tion.jda.core.utils.cache.SnowflakeCacheView;
+import net.dv8tion.jda.core.utils.cache.impl.AbstractCacheView;
+import net.dv8tion.jda.core.utils.cache.impl.StripedLongObjectMap;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Unified {@link net.dv8tion.jda.core.utils.cache.SnowflakeCacheView SnowflakeCacheView} of the caches of multiple shards,
+ * which is kept up to date by the caches themselves.
+ *
+ * <p>Every attached view reports its writes to this view, which maintains an index from the id of every element
+ * to the views that contain it. Lookups by id and {@link #size()} do not depend on the amount of shards.
+ * <br>Elements which are cached by multiple shards, like {@link net.dv8tion.jda.core.entities.User Users},
+ * are only contained once.
+ *
+ * @param <T> The element type
+ */
+public class ShardedSnowflakeCacheView<T extends ISnowflake> implements SnowflakeCacheView<T>, AbstractCacheView.WriteListener<T>
+{
+    protected static final int LOCK_COUNT = 64;
+
+    protected final StripedLongObjectMap<Route<T>> routes = new StripedLongObjectMap<>();
+    protected final Object[] locks = new Object[LOCK_COUNT];
+    protected final Function<T, String> nameMapper;
+
+    public ShardedSnowflakeCacheView(Function<T, String> nameMapper)
+    {
+        this.nameMapper = nameMapper;
+        for (int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+    }
+
+    /**
+     * Adds the elements of the provided view to this view and keeps track of its changes.
+     *
+     * @param view
+     *        The view of a shard
+     */
+    public void attach(AbstractCacheView<T> view)
+    {
+        view.setWriteListener(this);
+        view.getMap().forEachEntry((id, element) ->
+        {
+            onWrite(view, id, null, element);
+            return true;
+        });
+    }
+
+    /**
+     * Removes the elements of the provided view from this view, unless they are contained by another attached view.
+     *
+     * @param view
+     *        The previously attached view
+     */
+    public void detach(AbstractCacheView<T> view)
+    {
+        if (view.getWriteListener() == this)
+            view.setWriteListener(null);
+        view.getMap().forEachEntry((id, element) ->
+        {
+            onWrite(view, id, element, null);
+            return true;
+        });
+    }
+
+    @Override
+    public void onWrite(AbstractCacheView<T> view, long id, T previous, T current)
+    {
+        synchronized (locks[(int) (id ^ (id >>> 32)) & (LOCK_COUNT - 1)])
+        {
+            final Route<T> route = routes.get(id);
+            final Route<T> updated;
+            if (current != null)
+                updated = route == null ? new Route<>(view, current) : route.with(view, current);
+            else
+                updated = route == null ? null : route.without(view);
+
+            if (updated == route)
+                return;
+            if (updated == null)
+                routes.remove(id);
+            else
+                routes.put(id, updated);
+        }
+    }
+
+    @Override
+    public T getElementById(long id)
+    {
+        final Route<T> route = routes.get(id);
+        return route == null ? null : route.getElement();
+    }
+
+    @Override
+    public long size()
+    {
+        return routes.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return routes.isEmpty();
+    }
+
+    @Override
+    public List<T> asList()
+    {
+        List<T> list = new ArrayList<>(routes.size());
+        routes.forEachValue(route ->
+        {
+            list.add(route.getElement());
+            return true;
+        });
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public Set<T> asSet()
+    {
+        Set<T> set = new HashSet<>(routes.size());
+        routes.forEachValue(route ->
+        {
+            set.add(route.getElement());
+            return true;
+        });
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public List<T> getElementsByName(String name, boolean ignoreCase)
+    {
+        Checks.notEmpty(name, "Name");
+        if (nameMapper == null) // no getName method available
+            throw new UnsupportedOperationException("The contained elements are not assigned with names.");
+
+        List<T> list = new ArrayList<>();
+        routes.forEachValue(route ->
+        {
+            T element = route.getElement();
+            String elementName = nameMapper.apply(element);
+            if (elementName != null && (ignoreCase ? elementName.equalsIgnoreCase(name) : elementName.equals(name)))
+                list.add(element);
+            return true;
+        });
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public Stream<T> stream()
+    {
+        return asList().stream();
+    }
+
+    @Override
+    public Stream<T> parallelStream()
+    {
+        return asList().parallelStream();
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<T> iterator()
+    {
+        return asList().iterator();
+    }
+
+    /**
+     * The views containing one id and their elements, replaced on every change.
+     * <br>Elements are stored per view, so a view can be removed without accessing the other views.
+     */
+    protected static final class Route<T>
+    {
+        protected final Object[] views;
+        protected final Object[] elements;
+
+        protected Route(AbstractCacheView<T> view, T element)
+        {
+            this(new Object[] { view }, new Object[] { element });
+        }
+
+        protected Route(Object[] views, Object[] elements)
+        {
+            this.views = views;
+            this.elements = elements;
+        }
+
+        @SuppressWarnings("unchecked")
+        protected T getElement()
+        {
+            return (T) elements[0];
+        }
+
+        protected Route<T> with(AbstractCacheView<T> view, T element)
+        {
+            final int index = indexOf(view);
+            if (index < 0)
+            {
+                Object[] views = Arrays.copyOf(this.views, this.views.length + 1);
+                Object[] elements = Arrays.copyOf(this.elements, this.elements.length + 1);
+                views[views.length - 1] = view;
+                elements[elements.length - 1] = element;
+                return new Route<>(views, elements);
+            }
+            if (elements[index] == element)
+                return this;
+            Object[] elements = this.elements.clone();
+            elements[index] = element;
+            return new Route<>(views, elements);
+        }
+
+        protected Route<T> without(AbstractCacheView<T> view)
+        {
+            final int index = indexOf(view);
+            if (index < 0)
+                return this;
+            if (views.length == 1)
+                return null;
+            return new Route<>(remove(views, index), remove(elements, index));
+        }
+
+        protected int indexOf(AbstractCacheView<T> view)
+        {
+            for (int i = 0; i < views.length; i++)
+            {
+                if (views[i] == view)
+                    return i;
+            }
+            return -1;
+        }
+
+        private static Object[] remove(Object[] array, int index)
+        {
+            Object[] copy = new Object[array.length - 1];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 1, copy, index, copy.length - index);
+            return copy;
+        }
+    }
+}
@@ -20,16 +20,19 @@ import net.dv8tion.jda.annotations.DeprecatedSince;
 import net.dv8tion.jda.annotations.Incubating;
 import net.dv8tion.jda.annotations.ReplaceWith;
 import net.dv8tion.jda.core.JDA.Status;
+import net.dv8tion.jda.core.audio.AudioReceiveSelector;
 import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
 import net.dv8tion.jda.core.entities.Game;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.exceptions.AccountTypeException;
+import net.dv8tion.jda.core.hooks.EventDispatcher;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.managers.impl.PresenceImpl;
 import net.dv8tion.jda.core.utils.Checks;
 import net.dv8tion.jda.core.utils.SessionController;
 import net.dv8tion.jda.core.utils.SessionControllerAdapter;
 import net.dv8tion.jda.core.utils.cache.CacheFlag;
+import net.dv8tion.jda.core.utils.cache.MemberCachePolicy;
 import okhttp3.OkHttpClient;
 
 import javax.security.auth.login.LoginException;
@@ -66,6 +69,8 @@ public class JDABuilder
     protected WebSocketFactory wsFactory = null;
     protected String token = null;
     protected IEventManager eventManager = null;
+    protected EventDispatcher eventDispatcher = null;
+    protected boolean shutdownEventDispatcher = true;
     protected IAudioSendFactory audioSendFactory = null;
     protected JDA.ShardInfo shardInfo = null;
     protected Game game = null;
@@ -76,6 +81,11 @@ public class JDABuilder
     protected boolean enableVoice = true;
     protected boolean enableShutdownHook = true;
     protected boolean enableBulkDeleteSplitting = true;
+    protected boolean enableNameIndex = false;
+    protected boolean enableAsyncRequests = false;
+    protected int maxRateLimitBuckets = Integer.MAX_VALUE;
+    protected MemberCachePolicy memberCachePolicy = MemberCachePolicy.ALL;
+    protected int audioReceiveThreads = 0;
     protected boolean autoReconnect = true;
     protected boolean idle = false;
     protected boolean requestTimeoutRetry = true;
@@ -165,6 +175,29 @@ public class JDABuilder
         return setEnabledCacheFlags(EnumSet.complementOf(flags));
     }
 
+    /**
+     * Sets the {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy MemberCachePolicy} which decides
+     * which members are requested during startup and how long they are cached.
+     * <br>A {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy#lazy() lazy} policy skips member chunking
+     * during startup and only caches members once they appear in events.
+     *
+     * <p>Default: <b>{@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy#ALL MemberCachePolicy.ALL}</b>
+     *
+     * @param  policy
+     *         The policy to use
+     *
+     * @throws IllegalArgumentException
+     *         If the provided policy is null
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setMemberCachePolicy(MemberCachePolicy policy)
+    {
+        Checks.notNull(policy, "MemberCachePolicy");
+        this.memberCachePolicy = policy;
+        return this;
+    }
+
     /**
      * Sets the {@link org.slf4j.MDC MDC} mappings to use in JDA.
      * <br>If sharding is enabled JDA will automatically add a {@code jda.shard} context with the format {@code [SHARD_ID / TOTAL]}
@@ -445,6 +478,76 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Whether JDA should keep an index of entity names for the name lookups of the cache views,
+     * such as {@link net.dv8tion.jda.core.JDA#getTextChannelsByName(String, boolean) getTextChannelsByName(String, boolean)}.
+     * <br>This makes these lookups constant time instead of scanning every cached entity,
+     * in exchange for some memory and a little work whenever an entity is cached or renamed.
+     *
+     * <p>Indexed are guilds, users, channels, categories, roles and emotes. Members are not indexed.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enabled
+     *         True, to index entity names
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setNameIndexEnabled(boolean enabled)
+    {
+        this.enableNameIndex = enabled;
+        return this;
+    }
+
+    /**
+     * Whether queued REST requests should be sent asynchronously.
+     * <br>Instead of blocking a rate-limit thread until the response arrives, requests are enqueued with
+     * the OkHttp {@link okhttp3.Dispatcher Dispatcher} and the rate-limit buckets continue once the response is handled.
+     * This allows many concurrent requests with only a few threads.
+     * Requests of the same rate-limit bucket are still sent one after another.
+     *
+     * <p>The dispatcher limits how many calls run at the same time, by default only 5 per host.
+     * Configure {@link okhttp3.Dispatcher#setMaxRequestsPerHost(int)} on the http client when using this mode.
+     *
+     * <p>Requests executed with {@link net.dv8tion.jda.core.requests.RestAction#complete() RestAction.complete()} are always blocking.
+     *
+     * <p>Default: <b>false (disabled)</b>
+     *
+     * @param  enabled
+     *         True, to send queued requests asynchronously
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setAsyncRequestsEnabled(boolean enabled)
+    {
+        this.enableAsyncRequests = enabled;
+        return this;
+    }
+
+    /**
+     * Sets the amount of rate-limit buckets that should be kept at most.
+     * <br>JDA keeps one bucket per rate-limited route, for instance one for each channel messages are sent to.
+     * Buckets are removed once they are idle and their rate-limit has reset. When this limit is exceeded
+     * idle buckets are removed early, their rate-limit is then rediscovered with the next request.
+     * Buckets with queued requests are never removed, thus this limit can be exceeded temporarily.
+     *
+     * <p>Default: <b>{@link Integer#MAX_VALUE} (unlimited)</b>
+     *
+     * @param  maxBuckets
+     *         The maximum amount of rate-limit buckets
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is less than 1
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setMaxRateLimitBuckets(int maxBuckets)
+    {
+        Checks.check(maxBuckets > 0, "Max buckets must be at least 1");
+        this.maxRateLimitBuckets = maxBuckets;
+        return this;
+    }
+
     /**
      * Enables/Disables the use of a Shutdown hook to clean up JDA.
      * <br>When the Java program closes shutdown hooks are run. This is used as a last-second cleanup
@@ -504,11 +607,53 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the {@link net.dv8tion.jda.core.hooks.EventDispatcher EventDispatcher} that should be used to
+     * hand events to the {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} off the WebSocket read thread.
+     * <br>By default events are handled on the read thread, which means a slow listener delays heartbeats
+     * and all following events.
+     *
+     * <p>The dispatcher is shutdown by {@link net.dv8tion.jda.core.JDA#shutdown()}, use
+     * {@link #setEventDispatcher(EventDispatcher, boolean) setEventDispatcher(dispatcher, false)} to keep it alive.
+     *
+     * @param  dispatcher
+     *         The dispatcher to use, or {@code null} to handle events on the read thread
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setEventDispatcher(EventDispatcher dispatcher)
+    {
+        return setEventDispatcher(dispatcher, true);
+    }
+
+    /**
+     * Sets the {@link net.dv8tion.jda.core.hooks.EventDispatcher EventDispatcher} that should be used to
+     * hand events to the {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager} off the WebSocket read thread.
+     * <br>By default events are handled on the read thread, which means a slow listener delays heartbeats
+     * and all following events.
+     *
+     * @param  dispatcher
+     *         The dispatcher to use, or {@code null} to handle events on the read thread
+     * @param  automaticShutdown
+     *         Whether {@link net.dv8tion.jda.core.JDA#shutdown()} should automatically shutdown this dispatcher
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setEventDispatcher(EventDispatcher dispatcher, boolean automaticShutdown)
+    {
+        this.eventDispatcher = dispatcher;
+        this.shutdownEventDispatcher = automaticShutdown;
+        return this;
+    }
+
     /**
      * Changes the factory used to create {@link net.dv8tion.jda.core.audio.factory.IAudioSendSystem IAudioSendSystem}
      * objects which handle the sending loop for audio packets.
      * <br>By default, JDA uses {@link net.dv8tion.jda.core.audio.factory.DefaultSendFactory DefaultSendFactory}.
      *
+     * <p>The {@link net.dv8tion.jda.core.audio.factory.PacedSendFactory PacedSendFactory} sends the audio of all connections
+     * from a fixed amount of threads, which scales better to many concurrent voice connections.
+     *
      * @param  factory
      *         The new {@link net.dv8tion.jda.core.audio.factory.IAudioSendFactory IAudioSendFactory} to be used
      *         when creating new {@link net.dv8tion.jda.core.audio.factory.IAudioSendSystem} objects.
@@ -521,6 +666,35 @@ public class JDABuilder
         return this;
     }
 
+    /**
+     * Sets the amount of worker threads used to receive audio from voice connections with an
+     * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler AudioReceiveHandler}.
+     * <br>By default every voice connection uses its own receive thread and its own thread to mix combined audio.
+     * With a positive amount all UDP sockets of this JDA instance are watched by a single selector thread and
+     * the received audio is decoded and mixed by the provided amount of worker threads.
+     *
+     * <p><b>The UDP sockets are non-blocking in this mode</b>, a custom
+     * {@link net.dv8tion.jda.core.audio.factory.IAudioSendSystem IAudioSendSystem} has to send its packets through
+     * {@link java.net.DatagramSocket#getChannel()}. The {@link net.dv8tion.jda.core.audio.factory.DefaultSendFactory DefaultSendFactory}
+     * and {@link net.dv8tion.jda.core.audio.factory.PacedSendFactory PacedSendFactory} support this.
+     *
+     * <p>Default: <b>0 (one thread per connection)</b>
+     *
+     * @param  threads
+     *         The amount of worker threads, or 0 to use a thread per connection
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is negative
+     *
+     * @return The JDABuilder instance. Useful for chaining.
+     */
+    public JDABuilder setAudioReceiveThreads(int threads)
+    {
+        Checks.notNegative(threads, "Threads");
+        this.audioReceiveThreads = threads;
+        return this;
+    }
+
     /**
      * Sets whether or not we should mark our session as afk
      * <br>This value can be changed at any time in the {@link net.dv8tion.jda.core.managers.Presence Presence} from a JDA instance.
@@ -855,8 +1029,17 @@ public class JDABuilder
         if (eventManager != null)
             jda.setEventManager(eventManager);
 
+        if (eventDispatcher != null)
+            jda.setEventDispatcher(eventDispatcher, shutdownEventDispatcher);
+        jda.setNameIndexEnabled(enableNameIndex);
+        jda.setAsyncRequestsEnabled(enableAsyncRequests);
+        jda.setMaxRateLimitBuckets(maxRateLimitBuckets);
+        jda.setMemberCachePolicy(memberCachePolicy);
+
         if (audioSendFactory != null)
             jda.setAudioSendFactory(audioSendFactory);
+        if (audioReceiveThreads > 0)
+            jda.setAudioReceiveSelector(new AudioReceiveSelector(jda.getIdentifierString() + " Audio-Receive", audioReceiveThreads), true);
 
         listeners.forEach(jda::addEventListener);
         jda.setStatus(JDA.Status.INITIALIZED);  //This is already set by JDA internally, but this is to make sure the listeners catch it.
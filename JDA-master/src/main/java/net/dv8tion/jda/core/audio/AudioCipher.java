@@ -0,0 +1,81 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Authenticated encryption of voice packets with the secret key of one connection.
+ * <br>Instances are created by {@link AudioEncryption#createCipher(byte[])}.
+ *
+ * <p>Both operations work in place. A sealed message is the {@value #MAC_LENGTH} byte MAC followed by the ciphertext,
+ * which is the layout of a secretbox without its leading zero bytes.
+ * Implementations keep per-packet state and are not thread-safe, every thread needs its own instance.
+ */
+interface AudioCipher
+{
+    int MAC_LENGTH = 16;
+    int NONCE_LENGTH = 24;
+
+    /**
+     * Encrypts the message at {@code offset + MAC_LENGTH} and writes its MAC to {@code offset}.
+     *
+     * @param  data
+     *         The array holding the message
+     * @param  offset
+     *         The index of the MAC
+     * @param  length
+     *         The length of the message, without the MAC
+     * @param  nonce
+     *         The {@value #NONCE_LENGTH} byte nonce
+     */
+    void seal(byte[] data, int offset, int length, byte[] nonce);
+
+    /**
+     * Verifies the MAC at {@code offset} and decrypts the ciphertext behind it.
+     *
+     * @param  data
+     *         The array holding the sealed message
+     * @param  offset
+     *         The index of the MAC
+     * @param  length
+     *         The length of the ciphertext, without the MAC
+     * @param  nonce
+     *         The {@value #NONCE_LENGTH} byte nonce
+     *
+     * @return False, if the MAC did not match. The ciphertext is not modified in that case.
+     */
+    boolean open(byte[] data, int offset, int length, byte[] nonce);
+
+    /**
+     * Same as {@link #seal(byte[], int, int, byte[])} for the backing array of a heap buffer.
+     * <br>The offset is relative to the start of the buffer, its position and limit are not used.
+     */
+    default void seal(ByteBuffer buffer, int offset, int length, byte[] nonce)
+    {
+        seal(buffer.array(), buffer.arrayOffset() + offset, length, nonce);
+    }
+
+    /**
+     * Same as {@link #open(byte[], int, int, byte[])} for the backing array of a heap buffer.
+     * <br>The offset is relative to the start of the buffer, its position and limit are not used.
+     */
+    default boolean open(ByteBuffer buffer, int offset, int length, byte[] nonce)
+    {
+        return open(buffer.array(), buffer.arrayOffset() + offset, length, nonce);
+    }
+}
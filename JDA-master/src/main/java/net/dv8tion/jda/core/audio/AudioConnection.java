@@ -19,6 +19,7 @@ package net.dv8tion.jda.core.audio;
 import com.iwebpp.crypto.TweetNaclFast;
 import com.neovisionaries.ws.client.WebSocket;
 import com.sun.jna.ptr.PointerByReference;
+import gnu.trove.TCollections;
 import gnu.trove.map.TIntLongMap;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntLongHashMap;
@@ -39,11 +40,13 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import tomp2p.opuswrapper.Opus;
 
+import java.io.IOException;
 import java.net.*;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -58,23 +61,32 @@ public class AudioConnection
                                                         // to Left and Right mono (stereo that is the same on both sides)
     public static final long MAX_UINT_32 = 4294967295L;
 
+    private static final int MAX_CONCEALED_FRAMES = 5;       //Only conceal up to 100ms of lost audio
     private static final byte[] silenceBytes = new byte[] {(byte)0xF8, (byte)0xFF, (byte)0xFE};
     private static boolean printedError = false;
 
     protected volatile DatagramSocket udpSocket;
 
     private final TIntLongMap ssrcMap = new TIntLongHashMap();
-    private final TIntObjectMap<Decoder> opusDecoders = new TIntObjectHashMap<>();
-    private final HashMap<User, Queue<AudioData>> combinedQueue = new HashMap<>();
+    // written by the receiving thread and read by the combined executor, which releases late packets of the jitter buffers
+    private final TIntObjectMap<Decoder> opusDecoders = TCollections.synchronizedMap(new TIntObjectHashMap<>());
+    private final Map<User, Queue<AudioData>> combinedQueue = new ConcurrentHashMap<>();
+    // only used by the combined executor
+    private Decoder[] flushedDecoders = new Decoder[0];
+    private final AudioMixer combinedMixer = new AudioMixer();
     private final String threadIdentifier;
     private final AudioWebSocket webSocket;
     private final UpstreamReference<JDAImpl> api;
 
     private UpstreamReference<VoiceChannel> channel;
     private PointerByReference opusEncoder;
+    private final ShortBuffer encodeBuffer = ShortBuffer.allocate(OPUS_FRAME_SIZE * OPUS_CHANNEL_COUNT);
+    private final ByteBuffer encodedAudio = ByteBuffer.allocate(4096);
     private ScheduledExecutorService combinedAudioExecutor;
+    private ScheduledFuture<?> combinedAudioFuture;
     private IAudioSendSystem sendSystem;
     private Thread receiveThread;
+    private AudioReceiveSelector.Receiver receiver;
     private long queueTimeout;
     private boolean sentSilenceOnConnect = false;
 
@@ -171,24 +183,14 @@ public class AudioConnection
             sendSystem.shutdown();
             sendSystem = null;
         }
-        if (receiveThread != null)
-        {
-            receiveThread.interrupt();
-            receiveThread = null;
-        }
-        if (combinedAudioExecutor != null)
-        {
-            combinedAudioExecutor.shutdownNow();
-            combinedAudioExecutor = null;
-        }
+        stopReceiving();
         if (opusEncoder != null)
         {
             Opus.INSTANCE.opus_encoder_destroy(opusEncoder);
             opusEncoder = null;
         }
 
-        opusDecoders.valueCollection().forEach(Decoder::close);
-        opusDecoders.clear();
+        closeDecoders();
     }
 
     public WebSocket getWebSocket()
@@ -309,25 +311,42 @@ public class AudioConnection
 
     private synchronized void setupReceiveSystem()
     {
+        // the selector keeps receiveThread null, setupReceiveThread registers the socket again if it changed
         if (udpSocket != null && !udpSocket.isClosed() && receiveHandler != null && receiveThread == null)
         {
             setupReceiveThread();
         }
-        else if (receiveHandler == null && receiveThread != null)
+        else if (receiveHandler == null && (receiveThread != null || receiver != null))
+        {
+            stopReceiving();
+
+            closeDecoders();
+        }
+    }
+
+    private synchronized void stopReceiving()
+    {
+        if (receiveThread != null)
         {
             receiveThread.interrupt();
             receiveThread = null;
+        }
+        if (receiver != null)
+        {
+            receiver.cancel();
+            receiver = null;
+        }
+        stopCombinedAudio();
+    }
 
-            if (combinedAudioExecutor != null)
-            {
-                combinedAudioExecutor.shutdownNow();
-                combinedAudioExecutor = null;
-            }
-
-            opusDecoders.valueCollection().forEach(Decoder::close);
-            opusDecoders.clear();
+    private synchronized void stopCombinedAudio()
+    {
+        if (combinedAudioFuture != null)
+        {
+            combinedAudioFuture.cancel(false);
+            combinedAudioFuture = null;
         }
-        else if (receiveHandler != null && !receiveHandler.canReceiveCombined() && combinedAudioExecutor != null)
+        if (combinedAudioExecutor != null)
         {
             combinedAudioExecutor.shutdownNow();
             combinedAudioExecutor = null;
@@ -336,7 +355,25 @@ public class AudioConnection
 
     private synchronized void setupReceiveThread()
     {
-        if (receiveThread == null)
+        final AudioReceiveSelector selector = getJDA().getAudioReceiveSelector();
+        if (selector != null)
+        {
+            if (receiver == null || receiver.getSocket() != udpSocket)
+            {
+                if (receiver != null)
+                    receiver.cancel();
+                try
+                {
+                    receiver = selector.register(this, udpSocket);
+                }
+                catch (Exception e)
+                {
+                    LOG.error("Could not register UDP socket with the audio receive selector", e);
+                    receiver = null;
+                }
+            }
+        }
+        else if (receiveThread == null)
         {
             receiveThread = new Thread(AudioManagerImpl.AUDIO_THREADS, () ->
             {
@@ -349,90 +386,15 @@ public class AudioConnection
                 {
                     LOG.error("Couldn't set SO_TIMEOUT for UDP socket", e);
                 }
+                final AudioReceiveBuffer buffer = new AudioReceiveBuffer();
                 while (!udpSocket.isClosed() && !Thread.currentThread().isInterrupted())
                 {
-                    DatagramPacket receivedPacket = new DatagramPacket(new byte[1920], 1920);
                     try
                     {
-                        udpSocket.receive(receivedPacket);
-
-                        if (receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined()) && webSocket.getSecretKey() != null)
-                        {
-                            if (!couldReceive)
-                            {
-                                couldReceive = true;
-                                sendSilentPackets();
-                            }
-                            AudioPacket decryptedPacket = AudioPacket.decryptAudioPacket(webSocket.encryption, receivedPacket, webSocket.getSecretKey());
-                            if (decryptedPacket == null)
-                                continue;
-
-                            int ssrc = decryptedPacket.getSSRC();
-                            final long userId = ssrcMap.get(ssrc);
-                            Decoder decoder = opusDecoders.get(ssrc);
-                            if (userId == ssrcMap.getNoEntryValue())
-                            {
-                                byte[] audio = decryptedPacket.getEncodedAudio();
-
-                                //If the bytes are silence, then this was caused by a User joining the voice channel,
-                                // and as such, we haven't yet received information to pair the SSRC with the UserId.
-                                if (!Arrays.equals(audio, silenceBytes))
-                                    LOG.debug("Received audio data with an unknown SSRC id. Ignoring");
-
-                                continue;
-                            }
-                            if (decoder == null)
-                            {
-                                if (AudioNatives.ensureOpus())
-                                {
-                                    opusDecoders.put(ssrc, decoder = new Decoder(ssrc));
-                                }
-                                else
-                                {
-                                    LOG.error("Unable to decode audio due to missing opus binaries!");
-                                    break;
-                                }
-                            }
-                            if (!decoder.isInOrder(decryptedPacket.getSequence()))
-                            {
-                                LOG.trace("Got out-of-order audio packet. Ignoring.");
-                                continue;
-                            }
-
-                            User user = getJDA().getUserById(userId);
-                            if (user == null)
-                            {
-                                LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
-                                continue;
-                            }
-                            short[] decodedAudio = decoder.decodeFromOpus(decryptedPacket);
+                        buffer.receive(udpSocket);
 
-                            //If decodedAudio is null, then the Opus decode failed, so throw away the packet.
-                            if (decodedAudio == null)
-                            {
-                                //decoder error logged in method
-                                continue;
-                            }
-                            if (receiveHandler.canReceiveUser())
-                            {
-                                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
-                            }
-                            if (receiveHandler.canReceiveCombined())
-                            {
-                                Queue<AudioData> queue = combinedQueue.get(user);
-                                if (queue == null)
-                                {
-                                    queue = new ConcurrentLinkedQueue<>();
-                                    combinedQueue.put(user, queue);
-                                }
-                                queue.add(new AudioData(decodedAudio));
-                            }
-                        }
-                        else if (couldReceive)
-                        {
-                            couldReceive = false;
-                            sendSilentPackets();
-                        }
+                        if (!handleReceivedPacket(buffer))
+                            break;
                     }
                     catch (SocketTimeoutException e)
                     {
@@ -461,37 +423,224 @@ public class AudioConnection
             receiveThread.start();
         }
 
+        // also needed without combined audio, to release the packets that wait for a lost packet
+        setupCombinedExecutor();
+    }
+
+    /**
+     * Handles the packet that was just received into the buffer.
+     *
+     * @return False, if receiving should be stopped
+     */
+    private boolean handleReceivedPacket(AudioReceiveBuffer buffer)
+    {
+        if (receiveHandler != null && (receiveHandler.canReceiveUser() || receiveHandler.canReceiveCombined()) && webSocket.getSecretKey() != null)
+        {
+            if (!couldReceive)
+            {
+                couldReceive = true;
+                sendSilentPackets();
+            }
+            if (!buffer.decrypt(webSocket.encryption, webSocket.getSecretKey()))
+                return true;
+
+            int ssrc = buffer.getSSRC();
+            final long userId = ssrcMap.get(ssrc);
+            Decoder decoder = opusDecoders.get(ssrc);
+            if (userId == ssrcMap.getNoEntryValue())
+            {
+                //If the bytes are silence, then this was caused by a User joining the voice channel,
+                // and as such, we haven't yet received information to pair the SSRC with the UserId.
+                if (!buffer.isOpusEqual(silenceBytes))
+                    LOG.debug("Received audio data with an unknown SSRC id. Ignoring");
+
+                return true;
+            }
+            if (decoder == null)
+            {
+                if (AudioNatives.ensureOpus())
+                {
+                    opusDecoders.put(ssrc, decoder = new Decoder(ssrc));
+                }
+                else
+                {
+                    LOG.error("Unable to decode audio due to missing opus binaries!");
+                    return false;
+                }
+            }
+            User user = getJDA().getUserById(userId);
+            if (user == null)
+            {
+                LOG.warn("Received audio data with a known SSRC, but the userId associate with the SSRC is unknown to JDA!");
+                return true;
+            }
+
+            final long now = System.currentTimeMillis();
+            synchronized (decoder)
+            {
+                if (decoder.isClosed())
+                    return true;
+                if (!decoder.jitterBuffer.offer(buffer.getSequence(), buffer.getTimestamp(), buffer.getOpus(), buffer.getOpusLength(), now))
+                {
+                    LOG.trace("Got late or duplicate audio packet. Ignoring.");
+                    return true;
+                }
+                drainJitterBuffer(user, decoder, now);
+            }
+        }
+        else if (couldReceive)
+        {
+            couldReceive = false;
+            sendSilentPackets();
+        }
+        return true;
+    }
+
+    // must hold the lock of the decoder
+    private void drainJitterBuffer(User user, Decoder decoder, long now)
+    {
+        final JitterBuffer jitterBuffer = decoder.jitterBuffer;
+        while (jitterBuffer.poll(now))
+        {
+            //Let opus conceal the frames we gave up on, unless the gap is too long to make it sound natural
+            final int lost = Math.min(MAX_CONCEALED_FRAMES, decoder.getLostPackets(jitterBuffer.getSequence(), jitterBuffer.getTimestamp()));
+            for (int i = 0; i < lost; i++)
+                handleDecodedAudio(user, decoder, decoder.decodeFromOpus(null, 0));
+
+            int decodedLength = decoder.decodeFromOpus(jitterBuffer.getSequence(), jitterBuffer.getTimestamp(), jitterBuffer.getData(), jitterBuffer.getLength());
+            handleDecodedAudio(user, decoder, decodedLength);
+        }
+    }
+
+    /**
+     * Releases the packets that waited too long for a lost packet.
+     * <br>Without this, the packets behind a packet lost at the end of a sentence would wait until the user talks again.
+     */
+    private void flushJitterBuffers()
+    {
+        final Decoder[] decoders = flushedDecoders = opusDecoders.values(flushedDecoders);
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < decoders.length && decoders[i] != null; i++)
+        {
+            final Decoder decoder = decoders[i];
+            decoders[i] = null;
+            final long userId = ssrcMap.get(decoder.ssrc);
+            final User user = userId == ssrcMap.getNoEntryValue() ? null : getJDA().getUserById(userId);
+            if (user == null)
+                continue;
+            synchronized (decoder)
+            {
+                if (!decoder.isClosed() && decoder.jitterBuffer.isWaiting())
+                    drainJitterBuffer(user, decoder, now);
+            }
+        }
+    }
+
+    private void closeDecoders()
+    {
+        synchronized (opusDecoders)
+        {
+            opusDecoders.forEachValue(decoder ->
+            {
+                decoder.close();
+                return true;
+            });
+            opusDecoders.clear();
+        }
+    }
+
+    private void handleDecodedAudio(User user, Decoder decoder, int decodedLength)
+    {
+        //If decodedLength is negative, then the Opus decode failed, so throw away the packet.
+        if (decodedLength < 0)
+        {
+            //decoder error logged in method
+            return;
+        }
+        // the pcm of the decoder is reused for the next packet, only the borrowed view may share it
+        short[] decodedAudio = null;
+        if (receiveHandler.canReceiveUser())
+        {
+            if (receiveHandler.canReceiveBorrowed())
+            {
+                receiveHandler.handleUserAudio(decoder.borrowedAudio.set(user, decoder.getPCM(), decodedLength));
+            }
+            else
+            {
+                decodedAudio = Arrays.copyOf(decoder.getPCM(), decodedLength);
+                receiveHandler.handleUserAudio(new UserAudio(user, decodedAudio));
+            }
+        }
         if (receiveHandler.canReceiveCombined())
         {
-            setupCombinedExecutor();
+            if (decodedAudio == null)
+                decodedAudio = Arrays.copyOf(decoder.getPCM(), decodedLength);
+            combinedQueue.computeIfAbsent(user, (u) -> new ConcurrentLinkedQueue<>()).add(new AudioData(decodedAudio));
+        }
+    }
+
+    /**
+     * Drains the socket of the receiver, called by the workers of the {@link AudioReceiveSelector}.
+     *
+     * @return False, if receiving should be stopped
+     */
+    protected boolean receiveBatch(AudioReceiveSelector.Receiver receiver) throws IOException
+    {
+        getJDA().setContext();
+        final AudioReceiveBuffer buffer = receiver.buffer;
+        try
+        {
+            for (int i = 0; i < AudioReceiveSelector.MAX_BATCH && buffer.receive(receiver.channel); i++)
+            {
+                if (!handleReceivedPacket(buffer))
+                    return false;
+            }
+        }
+        catch (ClosedChannelException e)
+        {
+            //The connection was closed, the selector drops the socket.
+            return false;
         }
+        return true;
     }
 
     private synchronized void setupCombinedExecutor()
     {
-        if (combinedAudioExecutor == null)
+        if (combinedAudioFuture == null)
         {
-            combinedAudioExecutor = Executors.newSingleThreadScheduledExecutor((task) ->
+            final AudioReceiveSelector selector = getJDA().getAudioReceiveSelector();
+            final ScheduledExecutorService executor;
+            if (selector != null)
+            {
+                // mix on the workers of the selector instead of a thread per connection
+                executor = selector.getWorkerPool();
+            }
+            else
             {
-                final Thread t = new Thread(AudioManagerImpl.AUDIO_THREADS, task, threadIdentifier + " Combined Thread");
-                t.setDaemon(true);
-                t.setUncaughtExceptionHandler((thread, throwable) ->
+                executor = combinedAudioExecutor = Executors.newSingleThreadScheduledExecutor((task) ->
                 {
-                    LOG.error("I have no idea how, but there was an uncaught exception in the combinedAudioExecutor", throwable);
-                    JDAImpl api = getJDA();
-                    api.getEventManager().handle(new ExceptionEvent(api, throwable, true));
+                    final Thread t = new Thread(AudioManagerImpl.AUDIO_THREADS, task, threadIdentifier + " Combined Thread");
+                    t.setDaemon(true);
+                    t.setUncaughtExceptionHandler((thread, throwable) ->
+                    {
+                        LOG.error("I have no idea how, but there was an uncaught exception in the combinedAudioExecutor", throwable);
+                        JDAImpl api = getJDA();
+                        api.getEventManager().handle(new ExceptionEvent(api, throwable, true));
+                    });
+                    return t;
                 });
-                return t;
-            });
-            combinedAudioExecutor.scheduleAtFixedRate(() ->
+            }
+            combinedAudioFuture = executor.scheduleAtFixedRate(() ->
             {
                 getJDA().setContext();
                 try
                 {
-                    List<User> users = new LinkedList<>();
-                    List<short[]> audioParts = new LinkedList<>();
+                    if (receiveHandler != null)
+                        flushJitterBuffers();
                     if (receiveHandler != null && receiveHandler.canReceiveCombined())
                     {
+                        List<User> users = new ArrayList<>(combinedQueue.size());
+                        combinedMixer.clear();
                         long currentTime = System.currentTimeMillis();
                         for (Map.Entry<User, Queue<AudioData>> entry : combinedQueue.entrySet())
                         {
@@ -514,38 +663,17 @@ public class AudioConnection
                                 continue;
                             }
                             users.add(user);
-                            audioParts.add(audioData.data);
+                            combinedMixer.add(audioData.data);
                         }
 
-                        if (!audioParts.isEmpty())
+                        if (!users.isEmpty())
                         {
-                            int audioLength = audioParts.stream().mapToInt(it -> it.length).max().getAsInt();
-                            short[] mix = new short[1920];  //960 PCM samples for each channel
-                            int sample;
-                            for (int i = 0; i < audioLength; i++)
-                            {
-                                sample = 0;
-                                for (Iterator<short[]> iterator = audioParts.iterator(); iterator.hasNext(); )
-                                {
-                                    short[] audio = iterator.next();
-                                    if (i < audio.length)
-                                        sample += audio[i];
-                                    else
-                                        iterator.remove();
-                                }
-                                if (sample > Short.MAX_VALUE)
-                                    mix[i] = Short.MAX_VALUE;
-                                else if (sample < Short.MIN_VALUE)
-                                    mix[i] = Short.MIN_VALUE;
-                                else
-                                    mix[i] = (short) sample;
-                            }
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(users, mix));
+                            receiveHandler.handleCombinedAudio(new CombinedAudio(users, combinedMixer.mix()));
                         }
                         else
                         {
                             //No audio to mix, provide 20 MS of silence. (960 PCM samples for each channel)
-                            receiveHandler.handleCombinedAudio(new CombinedAudio(Collections.emptyList(), new short[1920]));
+                            receiveHandler.handleCombinedAudio(new CombinedAudio(Collections.emptyList(), new short[AudioMixer.FRAME_LENGTH]));
                         }
                     }
                 }
@@ -557,11 +685,13 @@ public class AudioConnection
         }
     }
 
-    private byte[] encodeToOpus(byte[] rawAudio)
+    // encodes into the reused encodedAudio buffer and returns the length of the encoded audio
+    private int encodeToOpus(byte[] rawAudio)
     {
-        ShortBuffer nonEncodedBuffer = ShortBuffer.allocate(rawAudio.length / 2);
-        ByteBuffer encoded = ByteBuffer.allocate(4096);
-        for (int i = 0; i < rawAudio.length; i += 2)
+        ShortBuffer nonEncodedBuffer = encodeBuffer;
+        ByteBuffer encoded = encodedAudio;
+        ((Buffer) nonEncodedBuffer).clear();
+        for (int i = 0; i + 1 < rawAudio.length && nonEncodedBuffer.hasRemaining(); i += 2)
         {
             int firstByte =  (0x000000FF & rawAudio[i]);      //Promotes to int and handles the fact that it was unsigned.
             int secondByte = (0x000000FF & rawAudio[i + 1]);  //
@@ -571,20 +701,22 @@ public class AudioConnection
 
             nonEncodedBuffer.put(toShort);
         }
+        //Pad incomplete frames with silence, opus always reads a full frame.
+        while (nonEncodedBuffer.hasRemaining())
+            nonEncodedBuffer.put((short) 0);
         ((Buffer) nonEncodedBuffer).flip();
+        ((Buffer) encoded).clear();
 
         int result = Opus.INSTANCE.opus_encode(opusEncoder, nonEncodedBuffer, OPUS_FRAME_SIZE, encoded, encoded.capacity());
         if (result <= 0)
         {
             LOG.error("Received error code from opus_encode(...): {}", result);
-            return null;
+            return -1;
         }
 
         //ENCODING STOPS HERE
 
-        byte[] audio = new byte[result];
-        encoded.get(audio);
-        return audio;
+        return result;
     }
 
     private void setSpeaking(int raw)
@@ -617,7 +749,8 @@ public class AudioConnection
         private int timestamp = 0;      //Used to sync up our packets within the same timeframe of other people talking.
         private long nonce = 0;
         private ByteBuffer buffer = ByteBuffer.allocate(512);
-        private ByteBuffer encryptionBuffer = ByteBuffer.allocate(512);
+        private AudioCipher cipher;
+        private byte[] cipherKey;
         private final byte[] nonceBuffer = new byte[TweetNaclFast.SecretBox.nonceLength];
 
         @Override
@@ -660,34 +793,51 @@ public class AudioConnection
                 cond: if (sentSilenceOnConnect && sendHandler != null && sendHandler.canProvide())
                 {
                     silenceCounter = -1;
-                    byte[] rawAudio = sendHandler.provide20MsAudio();
-                    if (rawAudio == null || rawAudio.length == 0)
+                    AudioSendHandler handler = sendHandler;
+                    if (handler instanceof OpusFrameBuffer)
                     {
-                        if (speaking && changeTalking)
-                            setSpeaking(0);
+                        //Encrypt the pre-encoded frame directly from the ring buffer
+                        OpusFrameBuffer frames = (OpusFrameBuffer) handler;
+                        int slot = frames.peek();
+                        if (slot < 0)
+                            break cond;
+                        nextPacket = getPacketData(frames.getFrame(slot), frames.getFrameLength(slot));
+                        frames.release();
                     }
                     else
                     {
-                        if (!sendHandler.isOpus())
+                        byte[] rawAudio = handler.provide20MsAudio();
+                        if (rawAudio == null || rawAudio.length == 0)
                         {
-                            rawAudio = encodeAudio(rawAudio);
-                            if (rawAudio == null)
-                                break cond;
+                            if (speaking && changeTalking)
+                                setSpeaking(0);
+                            break cond;
                         }
 
-                        nextPacket = getPacketData(rawAudio);
-                        if (!speaking)
-                            setSpeaking(speakingMode);
-
-                        if (seq + 1 > Character.MAX_VALUE)
-                            seq = 0;
+                        if (handler.isOpus())
+                        {
+                            nextPacket = getPacketData(rawAudio, rawAudio.length);
+                        }
                         else
-                            seq++;
+                        {
+                            int length = encodeAudio(rawAudio);
+                            if (length <= 0)
+                                break cond;
+                            nextPacket = getPacketData(encodedAudio.array(), length);
+                        }
                     }
+
+                    if (!speaking)
+                        setSpeaking(speakingMode);
+
+                    if (seq + 1 > Character.MAX_VALUE)
+                        seq = 0;
+                    else
+                        seq++;
                 }
                 else if (silenceCounter > -1)
                 {
-                    nextPacket = getPacketData(silenceBytes);
+                    nextPacket = getPacketData(silenceBytes, silenceBytes.length);
                     if (seq + 1 > Character.MAX_VALUE)
                         seq = 0;
                     else
@@ -715,7 +865,7 @@ public class AudioConnection
             return nextPacket;
         }
 
-        private byte[] encodeAudio(byte[] rawAudio)
+        private int encodeAudio(byte[] rawAudio)
         {
             if (opusEncoder == null)
             {
@@ -724,14 +874,14 @@ public class AudioConnection
                     if (!printedError)
                         LOG.error("Unable to process PCM audio without opus binaries!");
                     printedError = true;
-                    return null;
+                    return -1;
                 }
                 IntBuffer error = IntBuffer.allocate(1);
                 opusEncoder = Opus.INSTANCE.opus_encoder_create(OPUS_SAMPLE_RATE, OPUS_CHANNEL_COUNT, Opus.OPUS_APPLICATION_AUDIO, error);
                 if (error.get() != Opus.OPUS_OK && opusEncoder == null)
                 {
                     LOG.error("Received error status from opus_encoder_create(...): {}", error.get());
-                    return null;
+                    return -1;
                 }
             }
             return encodeToOpus(rawAudio);
@@ -745,10 +895,8 @@ public class AudioConnection
             return new DatagramPacket(data, offset, position - offset, webSocket.getAddress());
         }
 
-        private ByteBuffer getPacketData(byte[] rawAudio)
+        private ByteBuffer getPacketData(byte[] audio, int length)
         {
-            ensureEncryptionBuffer(rawAudio);
-            AudioPacket packet = new AudioPacket(encryptionBuffer, seq, timestamp, webSocket.getSSRC(), rawAudio);
             int nlen;
             switch (webSocket.encryption)
             {
@@ -769,16 +917,20 @@ public class AudioConnection
                 default:
                     throw new IllegalStateException("Encryption mode [" + webSocket.encryption + "] is not supported!");
             }
-            return buffer = packet.asEncryptedPacket(buffer, webSocket.getSecretKey(), nonceBuffer, nlen);
+            return buffer = AudioPacket.asEncryptedPacket(buffer, seq, timestamp, webSocket.getSSRC(), audio, 0, length,
+                                                          getCipher(), nonceBuffer, nlen);
         }
 
-        private void ensureEncryptionBuffer(byte[] data)
+        private AudioCipher getCipher()
         {
-            ((Buffer) encryptionBuffer).clear();
-            int currentCapacity = encryptionBuffer.remaining();
-            int requiredCapacity = AudioPacket.RTP_HEADER_BYTE_LENGTH + data.length;
-            if (currentCapacity < requiredCapacity)
-                encryptionBuffer = ByteBuffer.allocate(requiredCapacity);
+            //The key schedule is kept until we receive a new key
+            byte[] secretKey = webSocket.getSecretKey();
+            if (cipher == null || cipherKey != secretKey)
+            {
+                cipher = webSocket.encryption.createCipher(secretKey);
+                cipherKey = secretKey;
+            }
+            return cipher;
         }
 
         private void loadNextNonce(long nonce)
@@ -38,6 +38,20 @@ public enum AudioEncryption
         return key;
     }
 
+    /**
+     * Creates the cipher which encrypts and decrypts the packets of a connection using this mode.
+     *
+     * @param  secretKey
+     *         The secret key of the connection
+     *
+     * @return The cipher, this is not thread-safe
+     */
+    AudioCipher createCipher(byte[] secretKey)
+    {
+        // all modes use xsalsa20 with poly1305, they only differ in how the nonce is transmitted
+        return new XSalsa20Poly1305(secretKey);
+    }
+
     public static AudioEncryption getPreferredMode(JSONArray array)
     {
         AudioEncryption encryption = null;
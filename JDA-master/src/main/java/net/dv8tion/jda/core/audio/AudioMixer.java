@@ -0,0 +1,65 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import java.util.Arrays;
+
+/**
+ * Mixes 20 milliseconds of PCM audio from multiple users.
+ *
+ * <p>All samples are summed into an {@code int} accumulator without any branches, so the loops can be vectorized by the JIT,
+ * and the result is clamped to 16 bit once at the end.
+ * This is not thread-safe.
+ */
+class AudioMixer
+{
+    // 960 PCM samples for each channel
+    public static final int FRAME_LENGTH = AudioConnection.OPUS_FRAME_SIZE * AudioConnection.OPUS_CHANNEL_COUNT;
+
+    protected final int[] accumulator = new int[FRAME_LENGTH];
+    protected int length = 0;
+
+    public void clear()
+    {
+        Arrays.fill(accumulator, 0, length, 0);
+        length = 0;
+    }
+
+    public void add(short[] audio)
+    {
+        final int[] acc = accumulator;
+        final int n = Math.min(audio.length, acc.length);
+        for (int i = 0; i < n; i++)
+            acc[i] += audio[i];
+        length = Math.max(length, n);
+    }
+
+    /**
+     * Clamps the sum of all added audio into a new frame.
+     *
+     * @return The mixed frame, samples after the longest added audio are silent
+     */
+    public short[] mix()
+    {
+        final int[] acc = accumulator;
+        final short[] mix = new short[FRAME_LENGTH];
+        final int n = length;
+        for (int i = 0; i < n; i++)
+            mix[i] = (short) Math.min(Short.MAX_VALUE, Math.max(Short.MIN_VALUE, acc[i]));
+        return mix;
+    }
+}
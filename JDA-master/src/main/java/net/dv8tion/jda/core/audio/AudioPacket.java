@@ -76,17 +76,8 @@ public class AudioPacket
         this.timestamp = buffer.getInt(TIMESTAMP_INDEX);
         this.ssrc = buffer.getInt(SSRC_INDEX);
 
-        final byte profile = buffer.get(0);
         final byte[] data = buffer.array();
-        final boolean hasExtension = (profile & 0x10) != 0; // extension bit is at 000X
-        final byte cc = (byte) (profile & 0x0f);            // CSRC count - we ignore this for now
-        final int csrcLength = cc * 4;                      // defines count of 4-byte words
-        // it seems as if extensions only exist without a csrc list being present
-        final short extension = hasExtension ? getShort(data, RTP_HEADER_BYTE_LENGTH + csrcLength) : 0;
-
-        int offset = RTP_HEADER_BYTE_LENGTH + csrcLength;
-        if (hasExtension && extension == RTP_DISCORD_EXTENSION)
-            offset = getPayloadOffset(data, csrcLength);
+        final int offset = getPayloadOffset(data, 0, data.length);
 
         this.encodedAudio = new byte[data.length - offset];
         System.arraycopy(data, offset, this.encodedAudio, 0, this.encodedAudio.length);
@@ -106,22 +97,42 @@ public class AudioPacket
         this.rawPacket = generateRawPacket(buffer, seq, timestamp, ssrc, encodedAudio);
     }
 
-    private int getPayloadOffset(byte[] data, int csrcLength)
+    /**
+     * Computes the offset of the payload in the RTP packet that starts at {@code start}.
+     *
+     * @param  data
+     *         The array which holds the packet
+     * @param  start
+     *         The index of the first byte of the RTP header
+     * @param  end
+     *         The index after the last byte of the packet
+     *
+     * @return The offset of the payload, relative to {@code start}
+     */
+    static int getPayloadOffset(byte[] data, int start, int end)
     {
+        final byte profile = data[start];
+        final boolean hasExtension = (profile & 0x10) != 0; // extension bit is at 000X
+        final byte cc = (byte) (profile & 0x0f);            // CSRC count - we ignore this for now
+        final int csrcLength = cc * 4;                      // defines count of 4-byte words
+        final int headerEnd = start + RTP_HEADER_BYTE_LENGTH + csrcLength;
+        // it seems as if extensions only exist without a csrc list being present
+        if (!hasExtension || headerEnd + 4 > end || getShort(data, headerEnd) != RTP_DISCORD_EXTENSION)
+            return Math.min(end - start, RTP_HEADER_BYTE_LENGTH + csrcLength);
+
         // headerLength defines number of 4-byte words in the extension
-        final short headerLength = getShort(data, RTP_HEADER_BYTE_LENGTH + 2 + csrcLength);
-        int i = RTP_HEADER_BYTE_LENGTH // RTP header = 12 bytes
+        final short headerLength = getShort(data, headerEnd + 2);
+        int i = headerEnd              // RTP header = 12 bytes + length of CSRC list (this seems to be always 0 when an extension exists)
                 + 4                    // header which defines a profile and length each 2-bytes = 4 bytes
-                + csrcLength           // length of CSRC list (this seems to be always 0 when an extension exists)
                 + headerLength * 4;    // number of 4-byte words in extension = len * 4 bytes
 
         // strip excess 0 bytes
-        while (data[i] == 0)
+        while (i < end && data[i] == 0)
             i++;
-        return i;
+        return Math.min(i, end) - start;
     }
 
-    private short getShort(byte[] arr, int offset)
+    private static short getShort(byte[] arr, int offset)
     {
         return (short) ((arr[offset] & 0xff) << 8 | arr[offset + 1] & 0xff);
     }
@@ -196,6 +207,55 @@ public class AudioPacket
         return buffer;
     }
 
+    /**
+     * Encrypts the encoded audio into an RTP packet without allocating any intermediate arrays.
+     * <br>The audio is copied into the buffer and encrypted in place by the cipher.
+     *
+     * @param  buffer
+     *         The buffer to write the packet into, a larger buffer is allocated if it is too small
+     * @param  audio
+     *         The array holding the encoded audio
+     * @param  offset
+     *         The index of the first byte of the encoded audio
+     * @param  length
+     *         The length of the encoded audio
+     * @param  cipher
+     *         The cipher of the connection
+     * @param  nonce
+     *         The 24 byte nonce, if {@code nlen} is 0 the RTP header is written into it
+     * @param  nlen
+     *         The amount of nonce bytes to append to the packet
+     *
+     * @return The buffer holding the packet, positioned after the last byte
+     */
+    static ByteBuffer asEncryptedPacket(ByteBuffer buffer, char seq, int timestamp, int ssrc, byte[] audio, int offset, int length,
+                                        AudioCipher cipher, byte[] nonce, int nlen)
+    {
+        ((Buffer) buffer).clear();
+        int capacity = RTP_HEADER_BYTE_LENGTH + AudioCipher.MAC_LENGTH + length + nlen;
+        if (capacity > buffer.remaining())
+            buffer = ByteBuffer.allocate(capacity);
+        buffer.put(RTP_VERSION_PAD_EXTEND);
+        buffer.put(RTP_PAYLOAD_TYPE);
+        buffer.putChar(seq);
+        buffer.putInt(timestamp);
+        buffer.putInt(ssrc);
+
+        if (nlen == 0)
+        {
+            // the header is the nonce
+            System.arraycopy(buffer.array(), buffer.arrayOffset(), nonce, 0, RTP_HEADER_BYTE_LENGTH);
+            Arrays.fill(nonce, RTP_HEADER_BYTE_LENGTH, nonce.length, (byte) 0);
+        }
+
+        final int macIndex = buffer.position();
+        ((Buffer) buffer).position(macIndex + AudioCipher.MAC_LENGTH);
+        buffer.put(audio, offset, length);
+        cipher.seal(buffer, macIndex, length, nonce);
+        buffer.put(nonce, 0, nlen);
+        return buffer;
+    }
+
     public static AudioPacket decryptAudioPacket(AudioEncryption encryption, DatagramPacket packet, byte[] secretKey)
     {
         TweetNaclFast.SecretBox boxer = new TweetNaclFast.SecretBox(secretKey);
@@ -0,0 +1,198 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Reusable buffers for receiving the audio of an {@link AudioConnection}.
+ *
+ * <p>Every datagram is received into the same buffer and decrypted in place by a cipher which is kept
+ * until the secret key changes, the opus payload
+ * is then available through {@link #getOpus()} until the next datagram is received.
+ * This is not thread-safe and must only be used by one thread at a time.
+ */
+class AudioReceiveBuffer
+{
+    public static final int MAX_PACKET_SIZE = 1920;
+
+    protected final byte[] data = new byte[MAX_PACKET_SIZE];
+    protected final DatagramPacket packet = new DatagramPacket(data, data.length);
+    protected final ByteBuffer wrapped = ByteBuffer.wrap(data);
+    protected final byte[] nonce = new byte[AudioCipher.NONCE_LENGTH];
+    protected final byte[] opus = new byte[MAX_PACKET_SIZE];
+    protected AudioCipher cipher;
+    protected byte[] cipherKey;
+
+    protected char seq;
+    protected int timestamp;
+    protected int ssrc;
+    protected int opusLength;
+
+    public void receive(DatagramSocket socket) throws IOException
+    {
+        // the length is shrunk to the size of the last datagram
+        packet.setLength(data.length);
+        socket.receive(packet);
+    }
+
+    /**
+     * Receives the next datagram from a non-blocking channel.
+     *
+     * @param  channel
+     *         The channel to receive from
+     *
+     * @throws IOException
+     *         If the channel fails to receive
+     *
+     * @return True, if a datagram was received
+     */
+    public boolean receive(DatagramChannel channel) throws IOException
+    {
+        ((Buffer) wrapped).clear();
+        if (channel.receive(wrapped) == null)
+            return false;
+        packet.setLength(wrapped.position());
+        return true;
+    }
+
+    /**
+     * Decrypts the last received datagram and copies the opus payload into {@link #getOpus()}.
+     *
+     * @param  encryption
+     *         The encryption mode of the connection
+     * @param  secretKey
+     *         The secret key of the connection
+     *
+     * @return True, if the packet was decrypted successfully
+     */
+    public boolean decrypt(AudioEncryption encryption, byte[] secretKey)
+    {
+        final int length = packet.getLength();
+        if (length < AudioPacket.RTP_HEADER_BYTE_LENGTH)
+            return false;
+
+        int nonceLength;
+        switch (encryption)
+        {
+            case XSALSA20_POLY1305:
+                nonceLength = 0;
+                System.arraycopy(data, 0, nonce, 0, AudioPacket.RTP_HEADER_BYTE_LENGTH);
+                Arrays.fill(nonce, AudioPacket.RTP_HEADER_BYTE_LENGTH, nonce.length, (byte) 0);
+                break;
+            case XSALSA20_POLY1305_SUFFIX:
+                nonceLength = nonce.length;
+                if (length < nonceLength)
+                    return false;
+                System.arraycopy(data, length - nonceLength, nonce, 0, nonceLength);
+                break;
+            case XSALSA20_POLY1305_LITE:
+                nonceLength = 4;
+                if (length < nonceLength)
+                    return false;
+                System.arraycopy(data, length - nonceLength, nonce, 0, nonceLength);
+                Arrays.fill(nonce, nonceLength, nonce.length, (byte) 0);
+                break;
+            default:
+                AudioConnection.LOG.debug("Failed to decrypt audio packet, unsupported encryption mode!");
+                return false;
+        }
+
+        final int offset = AudioPacket.getPayloadOffset(data, 0, length);
+        final int encryptedLength = length - nonceLength - offset;
+        if (encryptedLength < AudioCipher.MAC_LENGTH)
+            return false;
+
+        if (cipher == null || cipherKey != secretKey)
+        {
+            cipher = encryption.createCipher(secretKey);
+            cipherKey = secretKey;
+        }
+        final int decryptedLength = encryptedLength - AudioCipher.MAC_LENGTH;
+        if (!cipher.open(data, offset, decryptedLength, nonce))
+        {
+            AudioConnection.LOG.trace("Failed to decrypt audio packet");
+            return false;
+        }
+
+        seq = (char) ((data[AudioPacket.SEQ_INDEX] & 0xff) << 8 | data[AudioPacket.SEQ_INDEX + 1] & 0xff);
+        timestamp = getInt(data, AudioPacket.TIMESTAMP_INDEX);
+        ssrc = getInt(data, AudioPacket.SSRC_INDEX);
+
+        // put the header in front of the plaintext, over the MAC, so the payload offset is computed on the decrypted packet
+        final int start = offset + AudioCipher.MAC_LENGTH - AudioPacket.RTP_HEADER_BYTE_LENGTH;
+        final int end = offset + encryptedLength;
+        System.arraycopy(data, 0, data, start, AudioPacket.RTP_HEADER_BYTE_LENGTH);
+        final int payload = start + AudioPacket.getPayloadOffset(data, start, end);
+        opusLength = Math.max(0, end - payload);
+        System.arraycopy(data, payload, opus, 0, opusLength);
+        return true;
+    }
+
+    public char getSequence()
+    {
+        return seq;
+    }
+
+    public int getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public int getSSRC()
+    {
+        return ssrc;
+    }
+
+    /**
+     * The decrypted opus payload of the last packet, only the first {@link #getOpusLength()} bytes are valid.
+     *
+     * @return The reused opus buffer
+     */
+    public byte[] getOpus()
+    {
+        return opus;
+    }
+
+    public int getOpusLength()
+    {
+        return opusLength;
+    }
+
+    public boolean isOpusEqual(byte[] other)
+    {
+        if (other.length != opusLength)
+            return false;
+        for (int i = 0; i < opusLength; i++)
+        {
+            if (opus[i] != other[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static int getInt(byte[] arr, int offset)
+    {
+        return (arr[offset] & 0xff) << 24 | (arr[offset + 1] & 0xff) << 16 | (arr[offset + 2] & 0xff) << 8 | arr[offset + 3] & 0xff;
+    }
+}
@@ -43,6 +43,23 @@ public interface AudioReceiveHandler
      */
     boolean canReceiveUser();
 
+    /**
+     * If this method returns true, the {@link net.dv8tion.jda.core.audio.UserAudio UserAudio} provided to
+     * {@link #handleUserAudio(UserAudio)} is borrowed from JDA instead of being allocated for every packet.
+     * <br>The receive thread reuses the object and its audio data for the next packet of the same user, so it is
+     * <b>only valid until {@link #handleUserAudio(UserAudio)} returns</b>. Read it with
+     * {@link net.dv8tion.jda.core.audio.UserAudio#getAudioData(byte[], int, double) UserAudio.getAudioData(byte[], int, double)}
+     * or keep a {@link net.dv8tion.jda.core.audio.UserAudio#copy() copy}.
+     *
+     * <p>This is recommended when receiving from many users, as it avoids allocating 50 arrays per second per speaking user.
+     *
+     * @return If true, JDA provides borrowed user audio, defaults to false
+     */
+    default boolean canReceiveBorrowed()
+    {
+        return false;
+    }
+
     /**
      * If {@link #canReceiveCombined()} returns true, JDA will provide a {@link net.dv8tion.jda.core.audio.CombinedAudio CombinedAudio}
      * object to this method <b>every 20 milliseconds</b>. The data provided by CombinedAudio is all audio that occurred
@@ -79,6 +96,8 @@ public interface AudioReceiveHandler
      * If you are wanting to do audio recording, please consider {@link #handleCombinedAudio(CombinedAudio)} as it was created
      * just for that reason.
      * <p>
+     * If {@link #canReceiveBorrowed()} returns true, the provided object must not be used after this method returns.
+     * <p>
      * Output audio format: 48KHz 16bit stereo signed BigEndian PCM
      * <br>and is defined by: {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#OUTPUT_FORMAT AudioRecieveHandler.OUTPUT_FORMAT}
      *
@@ -0,0 +1,283 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import net.dv8tion.jda.core.managers.impl.AudioManagerImpl;
+import net.dv8tion.jda.core.utils.Checks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramSocket;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Receives the audio of any number of voice connections with a single {@link java.nio.channels.Selector Selector} thread.
+ *
+ * <p>When a UDP socket becomes readable its connection is handed to a fixed size worker pool, which drains the socket and
+ * decrypts/decodes the packets. A connection is never processed by two workers at once, and it is not selected again
+ * until its worker is done, so a slow handler only delays its own connection.
+ * <br>The workers also mix the combined audio of the connections.
+ *
+ * <p>The UDP sockets of the connections have to be backed by a {@link java.nio.channels.DatagramChannel DatagramChannel}
+ * in non-blocking mode, which means packets must be sent through {@link java.net.DatagramSocket#getChannel()}.
+ */
+public class AudioReceiveSelector
+{
+    // packets drained per connection before other connections get a chance
+    public static final int MAX_BATCH = 64;
+
+    protected final Selector selector;
+    protected final ScheduledThreadPoolExecutor workers;
+    protected final Thread selectorThread;
+    protected final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    protected volatile boolean shutdown = false;
+
+    public AudioReceiveSelector(String name, int workers)
+    {
+        Checks.check(workers > 0, "Worker count must be positive");
+        try
+        {
+            this.selector = Selector.open();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not open selector for audio receive", e);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger(1);
+        this.workers = new ScheduledThreadPoolExecutor(workers, (r) ->
+        {
+            Thread t = new Thread(AudioManagerImpl.AUDIO_THREADS, r, name + " Worker " + threadCount.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.selectorThread = new Thread(AudioManagerImpl.AUDIO_THREADS, this::run, name + " Selector");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+    }
+
+    /**
+     * The worker pool which decodes the received audio, this is also used to mix combined audio.
+     *
+     * @return The worker pool
+     */
+    public ScheduledExecutorService getWorkerPool()
+    {
+        return workers;
+    }
+
+    public int getRegisteredCount()
+    {
+        return selector.keys().size();
+    }
+
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    public void shutdown()
+    {
+        shutdown = true;
+        workers.shutdown();
+        selector.wakeup();
+    }
+
+    protected Receiver register(AudioConnection connection, DatagramSocket socket) throws IOException
+    {
+        if (shutdown)
+            throw new RejectedExecutionException("AudioReceiveSelector has been shutdown");
+        DatagramChannel channel = socket.getChannel();
+        if (channel == null)
+            throw new IllegalStateException("UDP socket is not backed by a DatagramChannel");
+        channel.configureBlocking(false);
+        Receiver receiver = new Receiver(connection, socket, channel);
+        // registering blocks while the selector thread is selecting, so it is done by the selector thread
+        runOnSelector(receiver::register);
+        return receiver;
+    }
+
+    protected void runOnSelector(Runnable task)
+    {
+        pending.add(task);
+        selector.wakeup();
+    }
+
+    protected void run()
+    {
+        try
+        {
+            while (!shutdown)
+            {
+                selector.select();
+
+                Runnable task;
+                while ((task = pending.poll()) != null)
+                {
+                    try
+                    {
+                        task.run();
+                    }
+                    catch (Throwable t)
+                    {
+                        AudioConnection.LOG.error("Uncaught exception in audio receive selector task", t);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    Receiver receiver = (Receiver) key.attachment();
+                    try
+                    {
+                        // stop selecting this socket until the worker drained it
+                        key.interestOps(0);
+                    }
+                    catch (CancelledKeyException e)
+                    {
+                        // cancelled by another thread since the validity check
+                        continue;
+                    }
+                    try
+                    {
+                        workers.execute(receiver);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        // shutdown, the loop ends with the next iteration
+                        key.cancel();
+                    }
+                }
+            }
+        }
+        catch (IOException | ClosedSelectorException e)
+        {
+            AudioConnection.LOG.error("Audio receive selector failed", e);
+        }
+        catch (Throwable t)
+        {
+            AudioConnection.LOG.error("Uncaught exception in audio receive selector", t);
+        }
+        finally
+        {
+            if (!shutdown)
+            {
+                // no connection can receive audio anymore, reject new connections instead of silently ignoring them
+                AudioConnection.LOG.error("Audio receive selector stopped, audio is no longer received");
+                shutdown = true;
+            }
+            try
+            {
+                selector.close();
+            }
+            catch (IOException ignored) {}
+        }
+    }
+
+    protected class Receiver implements Runnable
+    {
+        protected final AudioConnection connection;
+        protected final DatagramSocket socket;
+        protected final DatagramChannel channel;
+        protected final AudioReceiveBuffer buffer = new AudioReceiveBuffer();
+        protected volatile SelectionKey key;
+        protected volatile boolean cancelled = false;
+
+        protected Receiver(AudioConnection connection, DatagramSocket socket, DatagramChannel channel)
+        {
+            this.connection = connection;
+            this.socket = socket;
+            this.channel = channel;
+        }
+
+        public DatagramSocket getSocket()
+        {
+            return socket;
+        }
+
+        public void cancel()
+        {
+            cancelled = true;
+            SelectionKey key = this.key;
+            if (key != null)
+                key.cancel();
+        }
+
+        protected void register()
+        {
+            if (cancelled || !channel.isOpen())
+                return;
+            try
+            {
+                key = channel.register(selector, SelectionKey.OP_READ, this);
+            }
+            catch (IOException e)
+            {
+                AudioConnection.LOG.error("Could not register UDP socket for audio receive", e);
+            }
+        }
+
+        protected void resume()
+        {
+            SelectionKey key = this.key;
+            try
+            {
+                if (!cancelled && key != null && key.isValid())
+                    key.interestOps(SelectionKey.OP_READ);
+            }
+            catch (CancelledKeyException ignored)
+            {
+                // cancelled by another thread since the validity check
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                if (!cancelled && !connection.receiveBatch(this))
+                    cancel();
+            }
+            catch (Throwable t)
+            {
+                AudioConnection.LOG.error("There was some random exception while handling udp packets", t);
+            }
+            finally
+            {
+                if (!cancelled)
+                    runOnSelector(this::resume);
+            }
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.slf4j.Logger;
 import java.io.IOException;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
@@ -544,7 +545,11 @@ class AudioWebSocket extends WebSocketAdapter
         //This is called UDP hole punching.
         try
         {
-            audioConnection.udpSocket = new DatagramSocket();   //Use UDP, not TCP.
+            //Use UDP, not TCP. The receive selector needs a socket that is backed by a channel.
+            if (getJDA().getAudioReceiveSelector() != null)
+                audioConnection.udpSocket = DatagramChannel.open().socket();
+            else
+                audioConnection.udpSocket = new DatagramSocket();
 
             //Create a byte array of length 70 containing our ssrc.
             ByteBuffer buffer = ByteBuffer.allocate(70);    //70 taken from https://github.com/Rapptz/discord.py/blob/async/discord/voice_client.py#L208
@@ -605,8 +610,9 @@ class AudioWebSocket extends WebSocketAdapter
 
     private void stopKeepAlive()
     {
+        //Don't interrupt, that would close the socket if it is backed by a channel
         if (keepAliveHandle != null)
-            keepAliveHandle.cancel(true);
+            keepAliveHandle.cancel(false);
         keepAliveHandle = null;
     }
 
@@ -623,8 +629,17 @@ class AudioWebSocket extends WebSocketAdapter
             {
                 try
                 {
-                    DatagramPacket keepAlivePacket = new DatagramPacket(UDP_KEEP_ALIVE, UDP_KEEP_ALIVE.length, address);
-                    audioConnection.udpSocket.send(keepAlivePacket);
+                    DatagramSocket udpSocket = audioConnection.udpSocket;
+                    //Sockets of the receive selector are non-blocking and can only send through their channel
+                    if (udpSocket.getChannel() != null)
+                    {
+                        udpSocket.getChannel().send(ByteBuffer.wrap(UDP_KEEP_ALIVE), address);
+                    }
+                    else
+                    {
+                        DatagramPacket keepAlivePacket = new DatagramPacket(UDP_KEEP_ALIVE, UDP_KEEP_ALIVE.length, address);
+                        udpSocket.send(keepAlivePacket);
+                    }
                 }
                 catch (NoRouteToHostException e)
                 {
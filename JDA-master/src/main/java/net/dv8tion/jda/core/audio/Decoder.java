@@ -19,8 +19,10 @@ package net.dv8tion.jda.core.audio;
 import com.sun.jna.ptr.PointerByReference;
 import tomp2p.opuswrapper.Opus;
 
+import java.nio.Buffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.Arrays;
 
 /**
  * Class that wraps functionality around the Opus decoder.
@@ -32,6 +34,12 @@ public class Decoder
     protected int lastTimestamp;
     protected PointerByReference opusDecoder;
 
+    // reused for every packet of this ssrc, see decodeFromOpus(byte[], int)
+    protected final short[] pcm = new short[AudioConnection.OPUS_FRAME_SIZE * AudioConnection.OPUS_CHANNEL_COUNT];
+    protected final ShortBuffer pcmBuffer = ShortBuffer.wrap(pcm);
+    protected final UserAudio borrowedAudio = new UserAudio();
+    protected final JitterBuffer jitterBuffer = new JitterBuffer();
+
     protected Decoder(int ssrc)
     {
         this.ssrc = ssrc;
@@ -51,40 +59,93 @@ public class Decoder
 
     protected boolean wasPacketLost(char newSeq)
     {
-        return newSeq > lastSeq + 1;
+        // distance in the 16 bit sequence space, so this also works when the sequence wraps around
+        final int distance = (short) (newSeq - lastSeq);
+        return lastSeq != (char) -1 && distance > 1;
+    }
+
+    /**
+     * The amount of frames that were lost before the provided packet and should be concealed.
+     *
+     * @param  newSeq
+     *         The sequence of the next packet
+     * @param  newTimestamp
+     *         The RTP timestamp of the next packet
+     *
+     * @return The amount of lost frames, or {@code 0} if the gap was silence
+     */
+    protected int getLostPackets(char newSeq, int newTimestamp)
+    {
+        if (!wasPacketLost(newSeq))
+            return 0;
+        final int lost = (short) (newSeq - lastSeq) - 1;
+        // the timestamp advances by one frame per packet, a larger jump means the user stopped talking in between
+        if (newTimestamp - lastTimestamp > (lost + 1) * AudioConnection.OPUS_FRAME_SIZE)
+            return 0;
+        return lost;
     }
 
     protected short[] decodeFromOpus(AudioPacket decryptedPacket)
+    {
+        int length;
+        if (decryptedPacket == null)
+        {
+            length = decodeFromOpus(null, 0);
+        }
+        else
+        {
+            byte[] encodedAudio = decryptedPacket.getEncodedAudio();
+            length = decodeFromOpus(decryptedPacket.getSequence(), decryptedPacket.getTimestamp(), encodedAudio, encodedAudio.length);
+        }
+        return length < 0 ? null : Arrays.copyOf(pcm, length);
+    }
+
+    protected int decodeFromOpus(char seq, int timestamp, byte[] encodedAudio, int length)
+    {
+        this.lastSeq = seq;
+        this.lastTimestamp = timestamp;
+        return decodeFromOpus(encodedAudio, length);
+    }
+
+    /**
+     * Decodes the opus frame into {@link #getPCM()}, which is overridden by the next call.
+     *
+     * @param  encodedAudio
+     *         The opus frame, or null to signal packet loss
+     * @param  length
+     *         The length of the opus frame
+     *
+     * @return The amount of decoded shorts, or {@code -1} if decoding failed
+     */
+    protected int decodeFromOpus(byte[] encodedAudio, int length)
     {
         int result;
-        ShortBuffer decoded = ShortBuffer.allocate(4096);
-        if (decryptedPacket == null)    //Flag for packet-loss
+        ((Buffer) pcmBuffer).clear();
+        if (encodedAudio == null)    //Flag for packet-loss
         {
-            result = Opus.INSTANCE.opus_decode(opusDecoder, null, 0, decoded, AudioConnection.OPUS_FRAME_SIZE, 0);
+            result = Opus.INSTANCE.opus_decode(opusDecoder, null, 0, pcmBuffer, AudioConnection.OPUS_FRAME_SIZE, 0);
             lastSeq = (char) -1;
             lastTimestamp = -1;
         }
         else
         {
-            this.lastSeq = decryptedPacket.getSequence();
-            this.lastTimestamp = decryptedPacket.getTimestamp();
-
-            byte[] encodedAudio = decryptedPacket.getEncodedAudio();
-
-            result = Opus.INSTANCE.opus_decode(opusDecoder, encodedAudio, encodedAudio.length, decoded,
+            result = Opus.INSTANCE.opus_decode(opusDecoder, encodedAudio, length, pcmBuffer,
                     AudioConnection.OPUS_FRAME_SIZE, 0);
         }
 
-        //If we get a result that is less than 0, then there was an error. Return null as a signifier.
+        //If we get a result that is less than 0, then there was an error. Return -1 as a signifier.
         if (result < 0)
         {
             handleDecodeError(result);
-            return null;
+            return -1;
         }
 
-        short[] audio = new short[result * 2];
-        decoded.get(audio);
-        return audio;
+        return result * AudioConnection.OPUS_CHANNEL_COUNT;
+    }
+
+    protected short[] getPCM()
+    {
+        return pcm;
     }
 
     private void handleDecodeError(int result)
@@ -119,6 +180,11 @@ public class Decoder
         AudioConnection.LOG.debug("{}", b);
     }
 
+    protected synchronized boolean isClosed()
+    {
+        return opusDecoder == null;
+    }
+
     protected synchronized void close()
     {
         if (opusDecoder != null)
@@ -0,0 +1,196 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+/**
+ * Reorders the encoded audio packets of one SSRC by their RTP sequence.
+ *
+ * <p>Packets are released in order. If a packet is missing, the packets behind it are held back until the oldest of them
+ * waited {@value #MAX_DELAY} milliseconds, then the missing packet is given up on and the decoder conceals the gap.
+ * Packets that arrive after their sequence was released or skipped are dropped.
+ * <br>Since the end of a sentence is not followed by more packets, {@link #poll(long)} also has to be called periodically
+ * to release the packets behind a gap in time.
+ *
+ * <p>Released packets stay valid until the next call to {@link #offer(char, int, byte[], int, long)}.
+ * This is not thread-safe, the callers synchronize on the {@link Decoder} owning it.
+ */
+class JitterBuffer
+{
+    public static final int CAPACITY = 8;
+    /** The time in milliseconds packets wait for a missing packet before it is given up on */
+    public static final long MAX_DELAY = 60;
+
+    protected static final int MASK = CAPACITY - 1;
+
+    protected final byte[][] data = new byte[CAPACITY][AudioReceiveBuffer.MAX_PACKET_SIZE];
+    protected final int[] lengths = new int[CAPACITY];
+    protected final int[] timestamps = new int[CAPACITY];
+    protected final long[] arrivals = new long[CAPACITY];
+    protected final char[] sequences = new char[CAPACITY];
+    protected final boolean[] present = new boolean[CAPACITY];
+    protected int buffered = 0;
+    protected boolean started = false;
+    protected char nextSeq;
+    protected char newestSeq;
+
+    // a packet too far ahead to fit, it is moved into the ring once everything before it was released
+    protected final byte[] jumpData = new byte[AudioReceiveBuffer.MAX_PACKET_SIZE];
+    protected int jumpLength;
+    protected int jumpTimestamp;
+    protected long jumpArrival;
+    protected char jumpSeq;
+    protected boolean jumped = false;
+
+    protected int current = -1;
+
+    /**
+     * Adds a packet to this buffer, the packet is copied.
+     *
+     * @param  now
+     *         The current time in milliseconds, used to decide how long the packet waited
+     *
+     * @return False, if the packet was late or a duplicate and has been dropped
+     */
+    public boolean offer(char seq, int timestamp, byte[] opus, int length, long now)
+    {
+        current = -1;
+        if (!started)
+        {
+            started = true;
+            nextSeq = newestSeq = seq;
+        }
+
+        final int distance = (short) (seq - nextSeq);
+        if (distance < 0)
+            return false;
+        if (distance >= CAPACITY)
+        {
+            // the user probably started talking again after we lost the end of the last sentence
+            System.arraycopy(opus, 0, jumpData, 0, length);
+            jumpLength = length;
+            jumpTimestamp = timestamp;
+            jumpArrival = now;
+            jumpSeq = seq;
+            jumped = true;
+            return true;
+        }
+
+        final int slot = seq & MASK;
+        if (present[slot])
+            return false;
+        store(slot, seq, timestamp, opus, length, now);
+        return true;
+    }
+
+    /**
+     * Releases the next packet if it is available, or if it was waited for long enough.
+     * <br>The released packet can be accessed with {@link #getSequence()}, {@link #getTimestamp()},
+     * {@link #getData()} and {@link #getLength()}.
+     *
+     * @param  now
+     *         The current time in milliseconds
+     *
+     * @return True, if a packet was released
+     */
+    public boolean poll(long now)
+    {
+        current = -1;
+        while (buffered > 0 || jumped)
+        {
+            final int slot = nextSeq & MASK;
+            if (present[slot])
+            {
+                present[slot] = false;
+                buffered--;
+                nextSeq++;
+                current = slot;
+                return true;
+            }
+
+            if (jumped && buffered == 0)
+            {
+                jumped = false;
+                nextSeq = newestSeq = jumpSeq;
+                store(jumpSeq & MASK, jumpSeq, jumpTimestamp, jumpData, jumpLength, jumpArrival);
+            }
+            else if (jumped || now - getOldestArrival() >= MAX_DELAY)
+            {
+                // give up on the missing packet
+                nextSeq++;
+            }
+            else
+            {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether packets are held back, because a packet before them is missing.
+     *
+     * @return True, if {@link #poll(long)} has to be called again later
+     */
+    public boolean isWaiting()
+    {
+        return buffered > 0 || jumped;
+    }
+
+    public char getSequence()
+    {
+        return sequences[current];
+    }
+
+    public int getTimestamp()
+    {
+        return timestamps[current];
+    }
+
+    public byte[] getData()
+    {
+        return data[current];
+    }
+
+    public int getLength()
+    {
+        return lengths[current];
+    }
+
+    protected long getOldestArrival()
+    {
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < CAPACITY; i++)
+        {
+            if (present[i] && arrivals[i] < oldest)
+                oldest = arrivals[i];
+        }
+        return oldest;
+    }
+
+    protected void store(int slot, char seq, int timestamp, byte[] opus, int length, long arrival)
+    {
+        System.arraycopy(opus, 0, data[slot], 0, length);
+        lengths[slot] = length;
+        timestamps[slot] = timestamp;
+        arrivals[slot] = arrival;
+        sequences[slot] = seq;
+        present[slot] = true;
+        buffered++;
+        if ((short) (seq - newestSeq) > 0)
+            newestSeq = seq;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import net.dv8tion.jda.core.utils.Checks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link net.dv8tion.jda.core.audio.AudioSendHandler AudioSendHandler} which sends pre-encoded opus frames
+ * from a fixed size lock-free ring buffer.
+ *
+ * <p>This allows a producer to encode audio ahead of time, on its own thread, and push whole batches of frames
+ * with {@link #offer(byte[][])}. The send system of the {@link net.dv8tion.jda.core.audio.AudioConnection AudioConnection}
+ * then encrypts the frames directly from the ring buffer, without copying them or calling back into the producer.
+ * <br>Frames are only ever written by a single producer, the offer methods must not be called by multiple threads at once.
+ *
+ * <p>This buffer should only be set as send handler of one {@link net.dv8tion.jda.core.managers.AudioManager AudioManager} at a time.
+ *
+ * <h2>Example</h2>
+ * <pre><code>
+ * OpusFrameBuffer frames = new OpusFrameBuffer(50); // 1 second
+ * guild.getAudioManager().setSendingHandler(frames);
+ * // on the encoding thread
+ * int accepted = frames.offer(encodedFrames);
+ * </code></pre>
+ */
+public class OpusFrameBuffer implements AudioSendHandler
+{
+    /** The maximum size of a single opus frame */
+    public static final int MAX_FRAME_SIZE = 1275;
+    /** The default capacity, 1 second of audio */
+    public static final int DEFAULT_CAPACITY = 50;
+    /** The maximum capacity, about 10 seconds of audio. Every slot reserves {@value #MAX_FRAME_SIZE} bytes */
+    public static final int MAX_CAPACITY = 512;
+
+    // a frame is late if it is sent more than half a frame after the previous one
+    protected static final long LATE_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(AudioConnection.OPUS_FRAME_TIME_AMOUNT * 3 / 2);
+
+    protected final byte[][] frames;
+    protected final int[] lengths;
+    protected final int mask;
+    // the next frame to send, only written by the consumer
+    protected final AtomicLong head = new AtomicLong();
+    // the next free slot, only written by the producer
+    protected final AtomicLong tail = new AtomicLong();
+
+    // only written by the consumer
+    protected volatile long sentFrames = 0;
+    protected volatile long underruns = 0;
+    protected volatile long lateFrames = 0;
+    protected long lastSent = 0;
+    protected boolean streaming = false;
+
+    /**
+     * Creates a new buffer which holds up to {@value #DEFAULT_CAPACITY} frames.
+     */
+    public OpusFrameBuffer()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param  capacity
+     *         The minimum amount of frames this buffer can hold, this is rounded up to the next power of two
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the capacity is not positive or larger than {@value #MAX_CAPACITY}
+     */
+    public OpusFrameBuffer(int capacity)
+    {
+        Checks.check(capacity > 0 && capacity <= MAX_CAPACITY, "Capacity must be between 1 and %d", MAX_CAPACITY);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.frames = new byte[size][MAX_FRAME_SIZE];
+        this.lengths = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Copies one opus frame into this buffer.
+     *
+     * @param  frame
+     *         The opus frame
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the frame is null or larger than {@value #MAX_FRAME_SIZE} bytes
+     *
+     * @return True, if the frame was added. False if the buffer is full.
+     */
+    public boolean offer(byte[] frame)
+    {
+        Checks.notNull(frame, "Frame");
+        return offer(frame, 0, frame.length);
+    }
+
+    /**
+     * Copies one opus frame into this buffer.
+     *
+     * @param  frame
+     *         The array holding the opus frame
+     * @param  offset
+     *         The index of the first byte of the frame
+     * @param  length
+     *         The length of the frame
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the frame is null, the range is out of bounds or the length is larger than {@value #MAX_FRAME_SIZE}
+     *
+     * @return True, if the frame was added. False if the buffer is full.
+     */
+    public boolean offer(byte[] frame, int offset, int length)
+    {
+        checkFrame(frame, offset, length);
+        final long t = tail.get();
+        if (t - head.get() > mask)
+            return false;
+        put(t, frame, offset, length);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Copies as many of the provided opus frames into this buffer as fit.
+     * <br>The frames become visible to the send system at once, after all of them were copied.
+     *
+     * @param  batch
+     *         The opus frames, in order
+     *
+     * @throws java.lang.IllegalArgumentException
+     *         If the batch or one of its frames is null or a frame is larger than {@value #MAX_FRAME_SIZE} bytes
+     *
+     * @return The amount of frames that were added, starting with the first frame of the batch
+     */
+    public int offer(byte[][] batch)
+    {
+        Checks.notNull(batch, "Batch");
+        for (byte[] frame : batch)
+        {
+            Checks.notNull(frame, "Frame");
+            checkFrame(frame, 0, frame.length);
+        }
+
+        final long t = tail.get();
+        final int count = (int) Math.min(batch.length, mask + 1 - (t - head.get()));
+        for (int i = 0; i < count; i++)
+            put(t + i, batch[i], 0, batch[i].length);
+        if (count > 0)
+            tail.lazySet(t + count);
+        return count;
+    }
+
+    /**
+     * The amount of frames currently waiting to be sent.
+     *
+     * @return The amount of buffered frames
+     */
+    public int size()
+    {
+        // read head first, so the difference is never negative
+        final long h = head.get();
+        return (int) (tail.get() - h);
+    }
+
+    /**
+     * The amount of frames that can be added before this buffer is full.
+     *
+     * @return The remaining capacity
+     */
+    public int remainingCapacity()
+    {
+        return getCapacity() - size();
+    }
+
+    public int getCapacity()
+    {
+        return mask + 1;
+    }
+
+    /**
+     * The amount of frames that have been taken from this buffer to be sent.
+     *
+     * @return The amount of sent frames
+     */
+    public long getSentFrames()
+    {
+        return sentFrames;
+    }
+
+    /**
+     * The amount of times this buffer ran empty while frames were being sent.
+     * <br>This includes the end of every stream.
+     *
+     * @return The amount of underruns
+     */
+    public long getUnderruns()
+    {
+        return underruns;
+    }
+
+    /**
+     * The amount of frames that were sent more than half a frame later than expected,
+     * which means the send system could not keep up.
+     *
+     * @return The amount of late frames
+     */
+    public long getLateFrames()
+    {
+        return lateFrames;
+    }
+
+    @Override
+    public boolean canProvide()
+    {
+        if (head.get() != tail.get())
+            return true;
+        if (streaming)
+        {
+            streaming = false;
+            underruns++;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the next frame from this buffer.
+     * <br>The {@link net.dv8tion.jda.core.audio.AudioConnection AudioConnection} does not use this,
+     * it reads the frames from the buffer directly.
+     *
+     * @return A copy of the next frame, or null if this buffer is empty
+     */
+    @Override
+    public byte[] provide20MsAudio()
+    {
+        final int slot = peek();
+        if (slot < 0)
+            return null;
+        byte[] frame = new byte[lengths[slot]];
+        System.arraycopy(frames[slot], 0, frame, 0, frame.length);
+        release();
+        return frame;
+    }
+
+    @Override
+    public boolean isOpus()
+    {
+        return true;
+    }
+
+    /**
+     * The slot of the next frame, its data is valid until {@link #release()} is called.
+     *
+     * @return The slot, or -1 if this buffer is empty
+     */
+    int peek()
+    {
+        final long h = head.get();
+        return h == tail.get() ? -1 : (int) (h & mask);
+    }
+
+    byte[] getFrame(int slot)
+    {
+        return frames[slot];
+    }
+
+    int getFrameLength(int slot)
+    {
+        return lengths[slot];
+    }
+
+    /**
+     * Frees the slot of the next frame after it was sent.
+     */
+    void release()
+    {
+        final long now = System.nanoTime();
+        if (streaming && now - lastSent > LATE_THRESHOLD)
+            lateFrames++;
+        lastSent = now;
+        streaming = true;
+        sentFrames++;
+        head.lazySet(head.get() + 1);
+    }
+
+    protected void put(long index, byte[] frame, int offset, int length)
+    {
+        final int slot = (int) (index & mask);
+        System.arraycopy(frame, offset, frames[slot], 0, length);
+        lengths[slot] = length;
+    }
+
+    protected void checkFrame(byte[] frame, int offset, int length)
+    {
+        Checks.notNull(frame, "Frame");
+        Checks.check(offset >= 0 && length >= 0 && offset + length <= frame.length, "Frame range is out of bounds");
+        Checks.check(length <= MAX_FRAME_SIZE, "Frame may not be larger than %d bytes", MAX_FRAME_SIZE);
+    }
+}
@@ -18,18 +18,43 @@ package net.dv8tion.jda.core.audio;
 
 import net.dv8tion.jda.core.entities.User;
 
+import java.util.Arrays;
+
 /**
  * Represents a packet of User specific audio.
+ *
+ * <p>If the {@link net.dv8tion.jda.core.audio.AudioReceiveHandler AudioReceiveHandler} opted into
+ * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#canReceiveBorrowed() borrowed audio} this is a reused view
+ * which is only valid until {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#handleUserAudio(UserAudio) handleUserAudio(UserAudio)} returns.
+ * Use {@link #copy()} to keep the audio beyond that.
  */
 public class UserAudio
 {
     protected User user;
     protected short[] audioData;
+    protected int length;
+    protected final boolean borrowed;
 
     public UserAudio(User user, short[] audioData)
     {
         this.user = user;
         this.audioData = audioData;
+        this.length = audioData.length;
+        this.borrowed = false;
+    }
+
+    // borrowed view, updated by the receive thread with set(User, short[], int)
+    UserAudio()
+    {
+        this.borrowed = true;
+    }
+
+    UserAudio set(User user, short[] audioData, int length)
+    {
+        this.user = user;
+        this.audioData = audioData;
+        this.length = length;
+        return this;
     }
 
     /**
@@ -56,10 +81,36 @@ public class UserAudio
      */
     public byte[] getAudioData(double volume)
     {
+        byte[] audio = new byte[getAudioDataLength()];
+        getAudioData(audio, 0, volume);
+        return audio;
+    }
+
+    /**
+     * Writes 20 Milliseconds of audio data in 48KHz 16bit stereo signed BigEndian PCM into the provided buffer.
+     * <br>Unlike {@link #getAudioData(double)} this does not allocate, which makes it the preferred way to read
+     * {@link #isBorrowed() borrowed} audio.
+     *
+     * @param  buffer
+     *         The buffer to write to, which needs at least {@link #getAudioDataLength()} bytes after the offset
+     * @param  offset
+     *         The index in the buffer to start writing at
+     * @param  volume
+     *         Value used to modify the "volume" of the returned audio data. 1.0 is normal volume.
+     *
+     * @throws IndexOutOfBoundsException
+     *         If the buffer is too small
+     *
+     * @return The amount of bytes written
+     */
+    public int getAudioData(byte[] buffer, int offset, double volume)
+    {
+        final int bytes = getAudioDataLength();
+        if (offset < 0 || offset + bytes > buffer.length)
+            throw new IndexOutOfBoundsException("Buffer of size " + buffer.length + " can't hold " + bytes + " bytes at offset " + offset);
         short s;
-        int byteIndex = 0;
-        byte[] audio = new byte[audioData.length * 2];
-        for (int i = 0; i < audioData.length; i++)
+        int byteIndex = offset;
+        for (int i = 0; i < length; i++)
         {
             s = audioData[i];
             if (volume != 1.0)
@@ -67,10 +118,43 @@ public class UserAudio
 
             byte leftByte = (byte) ((0x000000FF) & (s >> 8));
             byte rightByte =  (byte) (0x000000FF & s);
-            audio[byteIndex] = leftByte;
-            audio[byteIndex + 1] = rightByte;
+            buffer[byteIndex] = leftByte;
+            buffer[byteIndex + 1] = rightByte;
             byteIndex += 2;
         }
-        return audio;
+        return bytes;
+    }
+
+    /**
+     * The amount of bytes returned by {@link #getAudioData(double)}.
+     *
+     * @return The length of the PCM data in bytes
+     */
+    public int getAudioDataLength()
+    {
+        return length * 2;
+    }
+
+    /**
+     * Whether this is a reused view that is only valid for the duration of
+     * {@link net.dv8tion.jda.core.audio.AudioReceiveHandler#handleUserAudio(UserAudio) handleUserAudio(UserAudio)}.
+     *
+     * @return True, if this audio is borrowed
+     *
+     * @see    net.dv8tion.jda.core.audio.AudioReceiveHandler#canReceiveBorrowed()
+     */
+    public boolean isBorrowed()
+    {
+        return borrowed;
+    }
+
+    /**
+     * Creates a copy of this audio which owns its data and can be kept after the handler returns.
+     *
+     * @return A copy of this UserAudio that is not {@link #isBorrowed() borrowed}
+     */
+    public UserAudio copy()
+    {
+        return new UserAudio(user, Arrays.copyOf(audioData, length));
     }
 }
@@ -0,0 +1,333 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+/**
+ * XSalsa20 with Poly1305, this produces the same output as the secretbox of NaCl/TweetNaclFast.
+ *
+ * <p>The key is converted into the Salsa20 input words once. Every packet then derives its subkey with HSalsa20,
+ * xors the keystream word by word into the message and computes the MAC with 26 bit limbs,
+ * all on preallocated state without any allocations.
+ */
+final class XSalsa20Poly1305 implements AudioCipher
+{
+    // "expand 32-byte k"
+    private static final int SIGMA_0 = 0x61707865;
+    private static final int SIGMA_1 = 0x3320646e;
+    private static final int SIGMA_2 = 0x79622d32;
+    private static final int SIGMA_3 = 0x6b206574;
+    private static final int LIMB_MASK = 0x3ffffff;
+
+    // constants and key, the nonce words are filled in for every packet
+    private final int[] keyState = new int[16];
+    private final int[] state = new int[16];
+    private final int[] block = new int[16];
+    private final byte[] lastBlock = new byte[16];
+
+    // poly1305 state
+    private int r0, r1, r2, r3, r4;
+    private int pad0, pad1, pad2, pad3;
+    private int h0, h1, h2, h3, h4;
+
+    XSalsa20Poly1305(byte[] secretKey)
+    {
+        if (secretKey == null || secretKey.length != 32)
+            throw new IllegalArgumentException("Secret key must be 32 bytes");
+        keyState[0] = SIGMA_0;
+        keyState[5] = SIGMA_1;
+        keyState[10] = SIGMA_2;
+        keyState[15] = SIGMA_3;
+        for (int i = 0; i < 4; i++)
+        {
+            keyState[1 + i] = load(secretKey, i * 4);
+            keyState[11 + i] = load(secretKey, 16 + i * 4);
+        }
+    }
+
+    @Override
+    public void seal(byte[] data, int offset, int length, byte[] nonce)
+    {
+        final int start = offset + MAC_LENGTH;
+        initStream(nonce);
+        xorStream(data, start, length);
+        mac(data, start, length);
+        store(data, offset, h0);
+        store(data, offset + 4, h1);
+        store(data, offset + 8, h2);
+        store(data, offset + 12, h3);
+    }
+
+    @Override
+    public boolean open(byte[] data, int offset, int length, byte[] nonce)
+    {
+        final int start = offset + MAC_LENGTH;
+        initStream(nonce);
+        mac(data, start, length);
+        // compare in constant time
+        final int diff = (h0 ^ load(data, offset)) | (h1 ^ load(data, offset + 4))
+                       | (h2 ^ load(data, offset + 8)) | (h3 ^ load(data, offset + 12));
+        if (diff != 0)
+            return false;
+        xorStream(data, start, length);
+        return true;
+    }
+
+    /**
+     * Derives the subkey from the first 16 bytes of the nonce and computes the first keystream block,
+     * its first 32 bytes are the poly1305 key.
+     */
+    private void initStream(byte[] nonce)
+    {
+        final int[] s = state;
+        final int[] b = block;
+        System.arraycopy(keyState, 0, s, 0, 16);
+        s[6] = load(nonce, 0);
+        s[7] = load(nonce, 4);
+        s[8] = load(nonce, 8);
+        s[9] = load(nonce, 12);
+        salsa20(s, b, false);
+
+        // hsalsa20 output is the diagonal and the input words
+        final int k0 = b[0], k1 = b[5], k2 = b[10], k3 = b[15], k4 = b[6], k5 = b[7], k6 = b[8], k7 = b[9];
+        s[1] = k0;
+        s[2] = k1;
+        s[3] = k2;
+        s[4] = k3;
+        s[11] = k4;
+        s[12] = k5;
+        s[13] = k6;
+        s[14] = k7;
+        s[6] = load(nonce, 16);
+        s[7] = load(nonce, 20);
+        s[8] = 0;
+        s[9] = 0;
+        salsa20(s, b, true);
+
+        // the first block is overwritten by the keystream, so the poly1305 key is clamped right away
+        final int t0 = b[0], t1 = b[1], t2 = b[2], t3 = b[3];
+        r0 = t0 & 0x3ffffff;
+        r1 = ((t0 >>> 26) | (t1 << 6)) & 0x3ffff03;
+        r2 = ((t1 >>> 20) | (t2 << 12)) & 0x3ffc0ff;
+        r3 = ((t2 >>> 14) | (t3 << 18)) & 0x3f03fff;
+        r4 = (t3 >>> 8) & 0x00fffff;
+        pad0 = b[4];
+        pad1 = b[5];
+        pad2 = b[6];
+        pad3 = b[7];
+    }
+
+    /**
+     * Xors the keystream into the message, starting at byte 32 of the first block.
+     */
+    private void xorStream(byte[] data, int pos, int length)
+    {
+        final int[] s = state;
+        final int[] b = block;
+        final int end = pos + length;
+        int word = 8;
+        while (pos < end)
+        {
+            if (word == 16)
+            {
+                if (++s[8] == 0)
+                    s[9]++;
+                salsa20(s, b, true);
+                word = 0;
+            }
+            final int k = b[word++];
+            if (end - pos >= 4)
+            {
+                data[pos]     ^= (byte) k;
+                data[pos + 1] ^= (byte) (k >>> 8);
+                data[pos + 2] ^= (byte) (k >>> 16);
+                data[pos + 3] ^= (byte) (k >>> 24);
+                pos += 4;
+            }
+            else
+            {
+                for (int shift = 0; pos < end; shift += 8)
+                    data[pos++] ^= (byte) (k >>> shift);
+            }
+        }
+    }
+
+    /**
+     * Computes the poly1305 MAC of the ciphertext into h0 to h3.
+     */
+    private void mac(byte[] data, int pos, int length)
+    {
+        h0 = h1 = h2 = h3 = h4 = 0;
+
+        final int end = pos + length;
+        for (; end - pos >= 16; pos += 16)
+            macBlock(data, pos, 1 << 24);
+        if (pos < end)
+        {
+            final byte[] last = lastBlock;
+            final int remaining = end - pos;
+            System.arraycopy(data, pos, last, 0, remaining);
+            last[remaining] = 1;
+            for (int i = remaining + 1; i < 16; i++)
+                last[i] = 0;
+            macBlock(last, 0, 0);
+        }
+        macFinish();
+    }
+
+    private void macBlock(byte[] data, int pos, int hibit)
+    {
+        final int t0 = load(data, pos), t1 = load(data, pos + 4), t2 = load(data, pos + 8), t3 = load(data, pos + 12);
+        final long h0 = this.h0 + (t0 & LIMB_MASK);
+        final long h1 = this.h1 + (((t0 >>> 26) | (t1 << 6)) & LIMB_MASK);
+        final long h2 = this.h2 + (((t1 >>> 20) | (t2 << 12)) & LIMB_MASK);
+        final long h3 = this.h3 + (((t2 >>> 14) | (t3 << 18)) & LIMB_MASK);
+        final long h4 = this.h4 + ((t3 >>> 8) | hibit);
+
+        final long r0 = this.r0, r1 = this.r1, r2 = this.r2, r3 = this.r3, r4 = this.r4;
+        final long s1 = r1 * 5, s2 = r2 * 5, s3 = r3 * 5, s4 = r4 * 5;
+
+        final long d0 = h0 * r0 + h1 * s4 + h2 * s3 + h3 * s2 + h4 * s1;
+        long d1 = h0 * r1 + h1 * r0 + h2 * s4 + h3 * s3 + h4 * s2;
+        long d2 = h0 * r2 + h1 * r1 + h2 * r0 + h3 * s4 + h4 * s3;
+        long d3 = h0 * r3 + h1 * r2 + h2 * r1 + h3 * r0 + h4 * s4;
+        long d4 = h0 * r4 + h1 * r3 + h2 * r2 + h3 * r1 + h4 * r0;
+
+        d1 += d0 >>> 26;
+        d2 += d1 >>> 26;
+        d3 += d2 >>> 26;
+        d4 += d3 >>> 26;
+        long c = d4 >>> 26;
+        long n0 = (d0 & LIMB_MASK) + c * 5;
+        this.h0 = (int) (n0 & LIMB_MASK);
+        this.h1 = (int) ((d1 & LIMB_MASK) + (n0 >>> 26));
+        this.h2 = (int) (d2 & LIMB_MASK);
+        this.h3 = (int) (d3 & LIMB_MASK);
+        this.h4 = (int) (d4 & LIMB_MASK);
+    }
+
+    private void macFinish()
+    {
+        int h0 = this.h0, h1 = this.h1, h2 = this.h2, h3 = this.h3, h4 = this.h4;
+
+        // fully carry h
+        int c = h1 >>> 26; h1 &= LIMB_MASK;
+        h2 += c; c = h2 >>> 26; h2 &= LIMB_MASK;
+        h3 += c; c = h3 >>> 26; h3 &= LIMB_MASK;
+        h4 += c; c = h4 >>> 26; h4 &= LIMB_MASK;
+        h0 += c * 5; c = h0 >>> 26; h0 &= LIMB_MASK;
+        h1 += c;
+
+        // compute h + -p
+        int g0 = h0 + 5; c = g0 >>> 26; g0 &= LIMB_MASK;
+        int g1 = h1 + c; c = g1 >>> 26; g1 &= LIMB_MASK;
+        int g2 = h2 + c; c = g2 >>> 26; g2 &= LIMB_MASK;
+        int g3 = h3 + c; c = g3 >>> 26; g3 &= LIMB_MASK;
+        int g4 = h4 + c - (1 << 26);
+
+        // select h if h < p, or h + -p if h >= p
+        int mask = (g4 >>> 31) - 1;
+        h0 = (h0 & ~mask) | (g0 & mask);
+        h1 = (h1 & ~mask) | (g1 & mask);
+        h2 = (h2 & ~mask) | (g2 & mask);
+        h3 = (h3 & ~mask) | (g3 & mask);
+        h4 = (h4 & ~mask) | (g4 & mask);
+
+        // h = h % 2^128
+        h0 = h0 | (h1 << 26);
+        h1 = (h1 >>> 6) | (h2 << 20);
+        h2 = (h2 >>> 12) | (h3 << 14);
+        h3 = (h3 >>> 18) | (h4 << 8);
+
+        // mac = (h + pad) % 2^128
+        long f = (h0 & 0xffffffffL) + (pad0 & 0xffffffffL);
+        this.h0 = (int) f;
+        f = (h1 & 0xffffffffL) + (pad1 & 0xffffffffL) + (f >>> 32);
+        this.h1 = (int) f;
+        f = (h2 & 0xffffffffL) + (pad2 & 0xffffffffL) + (f >>> 32);
+        this.h2 = (int) f;
+        f = (h3 & 0xffffffffL) + (pad3 & 0xffffffffL) + (f >>> 32);
+        this.h3 = (int) f;
+    }
+
+    /**
+     * 20 rounds of the salsa20 core, with {@code addInput} this is a salsa20 block, otherwise the hsalsa20 core.
+     */
+    private static void salsa20(int[] in, int[] out, boolean addInput)
+    {
+        int x0 = in[0], x1 = in[1], x2 = in[2], x3 = in[3], x4 = in[4], x5 = in[5], x6 = in[6], x7 = in[7],
+            x8 = in[8], x9 = in[9], x10 = in[10], x11 = in[11], x12 = in[12], x13 = in[13], x14 = in[14], x15 = in[15];
+
+        for (int i = 0; i < 10; i++)
+        {
+            // columns
+            x4  ^= Integer.rotateLeft(x0  + x12,  7);
+            x8  ^= Integer.rotateLeft(x4  + x0,   9);
+            x12 ^= Integer.rotateLeft(x8  + x4,  13);
+            x0  ^= Integer.rotateLeft(x12 + x8,  18);
+            x9  ^= Integer.rotateLeft(x5  + x1,   7);
+            x13 ^= Integer.rotateLeft(x9  + x5,   9);
+            x1  ^= Integer.rotateLeft(x13 + x9,  13);
+            x5  ^= Integer.rotateLeft(x1  + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6,   7);
+            x2  ^= Integer.rotateLeft(x14 + x10,  9);
+            x6  ^= Integer.rotateLeft(x2  + x14, 13);
+            x10 ^= Integer.rotateLeft(x6  + x2,  18);
+            x3  ^= Integer.rotateLeft(x15 + x11,  7);
+            x7  ^= Integer.rotateLeft(x3  + x15,  9);
+            x11 ^= Integer.rotateLeft(x7  + x3,  13);
+            x15 ^= Integer.rotateLeft(x11 + x7,  18);
+            // rows
+            x1  ^= Integer.rotateLeft(x0  + x3,   7);
+            x2  ^= Integer.rotateLeft(x1  + x0,   9);
+            x3  ^= Integer.rotateLeft(x2  + x1,  13);
+            x0  ^= Integer.rotateLeft(x3  + x2,  18);
+            x6  ^= Integer.rotateLeft(x5  + x4,   7);
+            x7  ^= Integer.rotateLeft(x6  + x5,   9);
+            x4  ^= Integer.rotateLeft(x7  + x6,  13);
+            x5  ^= Integer.rotateLeft(x4  + x7,  18);
+            x11 ^= Integer.rotateLeft(x10 + x9,   7);
+            x8  ^= Integer.rotateLeft(x11 + x10,  9);
+            x9  ^= Integer.rotateLeft(x8  + x11, 13);
+            x10 ^= Integer.rotateLeft(x9  + x8,  18);
+            x12 ^= Integer.rotateLeft(x15 + x14,  7);
+            x13 ^= Integer.rotateLeft(x12 + x15,  9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+
+        if (addInput)
+        {
+            x0 += in[0]; x1 += in[1]; x2 += in[2]; x3 += in[3]; x4 += in[4]; x5 += in[5]; x6 += in[6]; x7 += in[7];
+            x8 += in[8]; x9 += in[9]; x10 += in[10]; x11 += in[11]; x12 += in[12]; x13 += in[13]; x14 += in[14]; x15 += in[15];
+        }
+        out[0] = x0; out[1] = x1; out[2] = x2; out[3] = x3; out[4] = x4; out[5] = x5; out[6] = x6; out[7] = x7;
+        out[8] = x8; out[9] = x9; out[10] = x10; out[11] = x11; out[12] = x12; out[13] = x13; out[14] = x14; out[15] = x15;
+    }
+
+    private static int load(byte[] arr, int offset)
+    {
+        return arr[offset] & 0xff | (arr[offset + 1] & 0xff) << 8 | (arr[offset + 2] & 0xff) << 16 | arr[offset + 3] << 24;
+    }
+
+    private static void store(byte[] arr, int offset, int value)
+    {
+        arr[offset]     = (byte) value;
+        arr[offset + 1] = (byte) (value >>> 8);
+        arr[offset + 2] = (byte) (value >>> 16);
+        arr[offset + 3] = (byte) (value >>> 24);
+    }
+}
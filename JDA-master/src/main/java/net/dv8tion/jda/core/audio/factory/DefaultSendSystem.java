@@ -26,6 +26,9 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.NoRouteToHostException;
 import java.net.SocketException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.concurrent.ConcurrentMap;
 
 import static net.dv8tion.jda.core.audio.AudioConnection.OPUS_FRAME_TIME_AMOUNT;
@@ -38,6 +41,7 @@ public class DefaultSendSystem implements IAudioSendSystem
 {
     private final IPacketProvider packetProvider;
     private Thread sendThread;
+    private volatile boolean running;
     private ConcurrentMap<String, String> contextMap;
 
     public DefaultSendSystem(IPacketProvider packetProvider)
@@ -55,23 +59,39 @@ public class DefaultSendSystem implements IAudioSendSystem
     public void start()
     {
         final DatagramSocket udpSocket = packetProvider.getUdpSocket();
+        final DatagramChannel channel = udpSocket.getChannel();
 
+        running = true;
         sendThread = new Thread(AudioManagerImpl.AUDIO_THREADS, () ->
         {
             if (contextMap != null)
                 MDC.setContextMap(contextMap);
             long lastFrameSent = System.currentTimeMillis();
-            while (!udpSocket.isClosed() && !sendThread.isInterrupted())
+            while (running && !udpSocket.isClosed() && !sendThread.isInterrupted())
             {
                 boolean sentPacket = true;
                 try
                 {
                     boolean changeTalking = (System.currentTimeMillis() - lastFrameSent) > OPUS_FRAME_TIME_AMOUNT;
-                    DatagramPacket packet = packetProvider.getNextPacket(changeTalking);
+                    if (channel != null)
+                    {
+                        //Sockets of the audio receive selector are non-blocking and can only send through their channel
+                        ByteBuffer buffer = packetProvider.getNextPacketRaw(changeTalking);
+                        sentPacket = buffer != null;
+                        if (sentPacket)
+                        {
+                            ((Buffer) buffer).flip();
+                            channel.send(buffer, packetProvider.getSocketAddress());
+                        }
+                    }
+                    else
+                    {
+                        DatagramPacket packet = packetProvider.getNextPacket(changeTalking);
 
-                    sentPacket = packet != null;
-                    if (sentPacket)
-                        udpSocket.send(packet);
+                        sentPacket = packet != null;
+                        if (sentPacket)
+                            udpSocket.send(packet);
+                    }
                 }
                 catch (NoRouteToHostException e)
                 {
@@ -128,7 +148,10 @@ public class DefaultSendSystem implements IAudioSendSystem
     @Override
     public void shutdown()
     {
-        if (sendThread != null)
+        running = false;
+        //Interrupting a thread that uses a channel closes the channel, the loop ends after the current frame instead
+        DatagramSocket udpSocket = packetProvider.getUdpSocket();
+        if (sendThread != null && (udpSocket == null || udpSocket.getChannel() == null))
             sendThread.interrupt();
     }
 }
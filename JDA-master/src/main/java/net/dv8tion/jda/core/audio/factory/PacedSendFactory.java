@@ -0,0 +1,231 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio.factory;
+
+import net.dv8tion.jda.core.managers.impl.AudioManagerImpl;
+import net.dv8tion.jda.core.utils.Checks;
+import net.dv8tion.jda.core.utils.JDALogger;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static net.dv8tion.jda.core.audio.AudioConnection.OPUS_FRAME_TIME_AMOUNT;
+
+/**
+ * {@link net.dv8tion.jda.core.audio.factory.IAudioSendFactory IAudioSendFactory} which sends the audio of all connections
+ * from a fixed amount of pacing threads, instead of one thread per connection like the
+ * {@link net.dv8tion.jda.core.audio.factory.DefaultSendFactory DefaultSendFactory}.
+ *
+ * <p>Every pacing thread polls all of its connections once per 20 millisecond frame.
+ * Frames are scheduled on an absolute clock, so the send rate does not drift when polling or sending takes longer than expected.
+ * If a thread falls behind by more than {@value #MAX_CATCH_UP} frames it skips the missed frames instead of sending a burst.
+ * <br>Each connection records how late its packets are sent, see {@link PacedSendSystem#getAverageJitter(TimeUnit)}.
+ *
+ * <p>One factory should be shared by all JDA instances, for example with
+ * {@link net.dv8tion.jda.core.JDABuilder#setAudioSendFactory(IAudioSendFactory) JDABuilder.setAudioSendFactory(IAudioSendFactory)}.
+ * The pacing threads are daemon threads that are started with the first connection and stopped by {@link #shutdown()}.
+ */
+public class PacedSendFactory implements IAudioSendFactory
+{
+    public static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(OPUS_FRAME_TIME_AMOUNT);
+    public static final int MAX_CATCH_UP = 3;
+
+    // parking is only accurate to about a millisecond, the rest of the wait is spent yielding
+    protected static final long SPIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    protected final Pacer[] pacers;
+    protected volatile boolean shutdown = false;
+
+    /**
+     * Creates a factory with a single pacing thread.
+     */
+    public PacedSendFactory()
+    {
+        this(1);
+    }
+
+    /**
+     * Creates a factory with the provided amount of pacing threads.
+     * <br>Connections are assigned to the thread with the fewest connections.
+     *
+     * @param  threads
+     *         The amount of pacing threads
+     *
+     * @throws IllegalArgumentException
+     *         If the amount of threads is not positive
+     */
+    public PacedSendFactory(int threads)
+    {
+        Checks.check(threads > 0, "Thread count must be positive");
+        pacers = new Pacer[threads];
+        for (int i = 0; i < threads; i++)
+            pacers[i] = new Pacer("PacedSendFactory Pacer " + i);
+    }
+
+    @Override
+    public IAudioSendSystem createSendSystem(IPacketProvider packetProvider)
+    {
+        return new PacedSendSystem(this, packetProvider);
+    }
+
+    /**
+     * All send systems which are currently sending.
+     *
+     * @return Immutable list of the active send systems
+     */
+    public List<PacedSendSystem> getSendSystems()
+    {
+        List<PacedSendSystem> systems = new ArrayList<>();
+        for (Pacer pacer : pacers)
+            systems.addAll(pacer.systems);
+        return Collections.unmodifiableList(systems);
+    }
+
+    public int getThreadCount()
+    {
+        return pacers.length;
+    }
+
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    /**
+     * Stops all pacing threads. Connections that still use this factory stop sending audio.
+     */
+    public synchronized void shutdown()
+    {
+        shutdown = true;
+        for (Pacer pacer : pacers)
+            pacer.shutdown();
+    }
+
+    protected synchronized Pacer register(PacedSendSystem system)
+    {
+        if (shutdown)
+            throw new IllegalStateException("PacedSendFactory has been shutdown");
+        Pacer target = pacers[0];
+        for (Pacer pacer : pacers)
+        {
+            if (pacer.systems.size() < target.systems.size())
+                target = pacer;
+        }
+        target.add(system);
+        return target;
+    }
+
+    protected static class Pacer implements Runnable
+    {
+        protected final List<PacedSendSystem> systems = new CopyOnWriteArrayList<>();
+        protected final String name;
+        protected Thread thread;
+        protected volatile boolean shutdown = false;
+
+        protected Pacer(String name)
+        {
+            this.name = name;
+        }
+
+        protected synchronized void add(PacedSendSystem system)
+        {
+            systems.add(system);
+            if (thread == null)
+            {
+                thread = new Thread(AudioManagerImpl.AUDIO_THREADS, this, name);
+                thread.setDaemon(true);
+                thread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
+                thread.start();
+            }
+            else
+            {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        protected void remove(PacedSendSystem system)
+        {
+            systems.remove(system);
+        }
+
+        protected synchronized void shutdown()
+        {
+            shutdown = true;
+            if (thread != null)
+                LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run()
+        {
+            Map<String, String> appliedContext = null;
+            long nextFrame = System.nanoTime();
+            while (!shutdown)
+            {
+                if (systems.isEmpty())
+                {
+                    LockSupport.park(this);
+                    nextFrame = System.nanoTime();
+                    continue;
+                }
+
+                long now = waitUntil(nextFrame);
+                if (now - nextFrame > MAX_CATCH_UP * FRAME_NANOS)
+                {
+                    JDALogger.getLog(PacedSendFactory.class).debug("{} is behind by {} ms, skipping frames",
+                        name, TimeUnit.NANOSECONDS.toMillis(now - nextFrame));
+                    nextFrame = now;
+                }
+
+                for (PacedSendSystem system : systems)
+                {
+                    // only touch the MDC when the connection belongs to a different JDA instance than the last one
+                    if (system.contextMap != appliedContext)
+                    {
+                        appliedContext = system.contextMap;
+                        if (appliedContext != null)
+                            MDC.setContextMap(appliedContext);
+                        else
+                            MDC.clear();
+                    }
+                    system.sendFrame(nextFrame);
+                }
+                nextFrame += FRAME_NANOS;
+            }
+        }
+
+        protected long waitUntil(long deadline)
+        {
+            long now;
+            while (!shutdown && (now = System.nanoTime()) < deadline)
+            {
+                long remaining = deadline - now;
+                if (remaining > SPIN_NANOS)
+                    LockSupport.parkNanos(this, remaining - SPIN_NANOS);
+                else
+                    Thread.yield();
+            }
+            return System.nanoTime();
+        }
+    }
+}
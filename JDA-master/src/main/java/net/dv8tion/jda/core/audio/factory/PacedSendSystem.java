@@ -0,0 +1,188 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio.factory;
+
+import net.dv8tion.jda.core.audio.AudioConnection;
+
+import javax.annotation.CheckForNull;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link net.dv8tion.jda.core.audio.factory.IAudioSendSystem IAudioSendSystem} of a {@link PacedSendFactory}.
+ * <br>This does not own a thread, the packets are polled and sent by one of the pacing threads of the factory.
+ *
+ * <p>If the UDP socket of the connection is backed by a {@link java.nio.channels.DatagramChannel DatagramChannel}
+ * the packets are sent through the channel, otherwise a single {@link java.net.DatagramPacket DatagramPacket} is reused.
+ */
+public class PacedSendSystem implements IAudioSendSystem
+{
+    protected final PacedSendFactory factory;
+    protected final IPacketProvider packetProvider;
+    protected final DatagramPacket packet = new DatagramPacket(new byte[0], 0);
+    protected volatile ConcurrentMap<String, String> contextMap;
+    protected PacedSendFactory.Pacer pacer;
+
+    // only written by the pacing thread
+    protected volatile long sentPackets = 0;
+    protected volatile long droppedPackets = 0;
+    protected volatile long totalJitter = 0;
+    protected volatile long maxJitter = 0;
+
+    public PacedSendSystem(PacedSendFactory factory, IPacketProvider packetProvider)
+    {
+        this.factory = factory;
+        this.packetProvider = packetProvider;
+    }
+
+    @Override
+    public void setContextMap(@CheckForNull ConcurrentMap<String, String> contextMap)
+    {
+        this.contextMap = contextMap;
+    }
+
+    @Override
+    public synchronized void start()
+    {
+        if (pacer == null)
+            pacer = factory.register(this);
+    }
+
+    @Override
+    public synchronized void shutdown()
+    {
+        if (pacer != null)
+        {
+            pacer.remove(this);
+            pacer = null;
+        }
+    }
+
+    public IPacketProvider getPacketProvider()
+    {
+        return packetProvider;
+    }
+
+    /**
+     * The amount of packets sent by this system.
+     *
+     * @return The amount of sent packets
+     */
+    public long getSentPackets()
+    {
+        return sentPackets;
+    }
+
+    /**
+     * The amount of packets which could not be sent because the socket buffer was full.
+     *
+     * @return The amount of dropped packets
+     */
+    public long getDroppedPackets()
+    {
+        return droppedPackets;
+    }
+
+    /**
+     * The average delay between the scheduled time of a frame and the time its packet was sent.
+     *
+     * @param  unit
+     *         The time unit of the returned value
+     *
+     * @return The average jitter, or {@code 0} if no packets were sent
+     */
+    public long getAverageJitter(TimeUnit unit)
+    {
+        long sent = sentPackets;
+        return sent == 0 ? 0 : unit.convert(totalJitter / sent, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The largest delay between the scheduled time of a frame and the time its packet was sent.
+     *
+     * @param  unit
+     *         The time unit of the returned value
+     *
+     * @return The maximum jitter
+     */
+    public long getMaxJitter(TimeUnit unit)
+    {
+        return unit.convert(maxJitter, TimeUnit.NANOSECONDS);
+    }
+
+    protected void sendFrame(long deadline)
+    {
+        final DatagramSocket udpSocket = packetProvider.getUdpSocket();
+        if (udpSocket == null || udpSocket.isClosed())
+        {
+            // same as the thread of the DefaultSendSystem, which stops with the socket
+            shutdown();
+            return;
+        }
+
+        try
+        {
+            ByteBuffer buffer = packetProvider.getNextPacketRaw(true);
+            if (buffer == null)
+                return;
+
+            InetSocketAddress address = packetProvider.getSocketAddress();
+            DatagramChannel channel = udpSocket.getChannel();
+            if (channel != null)
+            {
+                ((Buffer) buffer).flip();
+                if (channel.send(buffer, address) == 0)
+                {
+                    droppedPackets++;
+                    return;
+                }
+            }
+            else
+            {
+                packet.setData(buffer.array(), buffer.arrayOffset(), buffer.position());
+                packet.setSocketAddress(address);
+                udpSocket.send(packet);
+            }
+
+            long jitter = Math.max(0, System.nanoTime() - deadline);
+            totalJitter += jitter;
+            if (jitter > maxJitter)
+                maxJitter = jitter;
+            sentPackets++;
+        }
+        catch (NoRouteToHostException e)
+        {
+            packetProvider.onConnectionLost();
+        }
+        catch (SocketException e)
+        {
+            //Most likely the socket has been closed due to the audio connection be closed. Next frame will remove this system.
+        }
+        catch (Exception e)
+        {
+            AudioConnection.LOG.error("Error while sending udp audio data", e);
+        }
+    }
+}
@@ -106,6 +106,8 @@ public interface Channel extends ISnowflake
      * The {@link PermissionOverride} relating to the specified {@link net.dv8tion.jda.core.entities.Member Member}.
      * If there is no {@link net.dv8tion.jda.core.entities.PermissionOverride PermissionOverride} for this {@link net.dv8tion.jda.core.entities.Channel Channel}
      * relating to the provided {@link net.dv8tion.jda.core.entities.Member Member}, then this returns {@code null}.
+     * <br>If {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled,
+     * this also returns {@code null} for existing overrides of members other than the self member.
      *
      * @param  member
      *         The {@link net.dv8tion.jda.core.entities.Member Member} whose
@@ -144,6 +146,8 @@ public interface Channel extends ISnowflake
     /**
      * Gets all of the {@link net.dv8tion.jda.core.entities.Member Member} {@link net.dv8tion.jda.core.entities.PermissionOverride PermissionOverrides}
      * that are part of this {@link net.dv8tion.jda.core.entities.Channel Channel}.
+     * <br>Only contains the override of the self member if
+     * {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled.
      *
      * @return Possibly-empty list of all {@link net.dv8tion.jda.core.entities.PermissionOverride PermissionOverrides}
      *         for {@link net.dv8tion.jda.core.entities.Member Member}
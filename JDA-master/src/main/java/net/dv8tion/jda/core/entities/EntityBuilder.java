@@ -143,7 +143,7 @@ public class EntityBuilder
         }
     }
 
-    public GuildImpl createGuild(long guildId, JSONObject guildJson, TLongObjectMap<JSONObject> members)
+    public GuildImpl createGuild(long guildId, JSONObject guildJson, TLongObjectMap<MemberData> members)
     {
         final GuildImpl guildObj = new GuildImpl(getJDA(), guildId);
         final String name = guildJson.optString("name", "");
@@ -198,11 +198,18 @@ public class EntityBuilder
                 guildObj.setPublicRole(role);
         }
 
-        for (JSONObject memberJson : members.valueCollection())
-            createMember(guildObj, memberJson);
+        for (MemberData memberData : members.valueCollection())
+            createMember(guildObj, memberData);
 
+        if (guildObj.getSelfMember() == null && getJDA().getMemberLoader().isLazy())
+            getJDA().getMemberLoader().request(guildId, getJDA().getSelfUser().getIdLong());
         if (guildObj.getOwner() == null)
-            LOG.warn("Finished setup for guild with a null owner. GuildId: {} OwnerId: {}", guildId, guildJson.opt("owner_id"));
+        {
+            if (getJDA().getMemberLoader().isLazy())
+                getJDA().getMemberLoader().request(guildId, ownerId);
+            else
+                LOG.warn("Finished setup for guild with a null owner. GuildId: {} OwnerId: {}", guildId, guildJson.opt("owner_id"));
+        }
 
         for (int i = 0; i < channelArray.length(); i++)
         {
@@ -216,7 +223,8 @@ public class EntityBuilder
         guildObj.setAfkChannel(guildObj.getVoiceChannelById(afkChannelId))
                 .setSystemChannel(guildObj.getTextChannelById(systemChannelId));
 
-        for (int i = 0; i < presencesArray.length(); i++)
+        final boolean cachePresences = getJDA().isCacheFlagSet(CacheFlag.GAME) || getJDA().isCacheFlagSet(CacheFlag.ONLINE_STATUS);
+        for (int i = 0; cachePresences && i < presencesArray.length(); i++)
         {
             JSONObject presence = presencesArray.getJSONObject(i);
             final long userId = presence.getJSONObject("user").getLong("id");
@@ -229,6 +237,7 @@ public class EntityBuilder
         }
 
         getJDA().getGuildMap().put(guildId, guildObj);
+        getJDA().getMemberLoader().checkEviction(guildObj);
         return guildObj;
     }
 
@@ -257,7 +266,7 @@ public class EntityBuilder
         {
             JSONObject voiceStateJson = voiceStates.getJSONObject(i);
             final long userId = voiceStateJson.getLong("user_id");
-            Member member = guildObj.getMembersMap().get(userId);
+            MemberImpl member = (MemberImpl) guildObj.getMembersMap().get(userId);
             if (member == null)
             {
                 LOG.error("Received a VoiceState for a unknown Member! GuildId: "
@@ -265,7 +274,7 @@ public class EntityBuilder
                 continue;
             }
 
-            GuildVoiceStateImpl voiceState = (GuildVoiceStateImpl) member.getVoiceState();
+            GuildVoiceStateImpl voiceState = member.getOrCreateVoiceState();
             if (voiceState == null)
                 continue;
             final long channelId = voiceStateJson.getLong("channel_id");
@@ -285,6 +294,7 @@ public class EntityBuilder
                       .setSuppressed(Helpers.optBoolean(voiceStateJson, "suppress"))
                       .setSessionId(voiceStateJson.optString("session_id"))
                       .setConnectedChannel(voiceChannel);
+            member.releaseVoiceState();
         }
     }
 
@@ -292,7 +302,12 @@ public class EntityBuilder
     public UserImpl createUser(JSONObject user)     { return createUser(user, false, true); }
     private UserImpl createUser(JSONObject user, boolean fake, boolean modifyCache)
     {
-        final long id = user.getLong("id");
+        return createUser(user.getLong("id"), user.getString("username"), user.get("discriminator").toString(),
+            user.optString("avatar", null), Helpers.optBoolean(user, "bot"), fake, modifyCache);
+    }
+
+    private UserImpl createUser(long id, String name, String discriminator, String avatarId, boolean bot, boolean fake, boolean modifyCache)
+    {
         UserImpl userObj;
 
         userObj = (UserImpl) getJDA().getUserMap().get(id);
@@ -329,19 +344,25 @@ public class EntityBuilder
         }
 
         userObj
-            .setName(user.getString("username"))
-            .setDiscriminator(user.get("discriminator").toString())
-            .setAvatarId(user.optString("avatar", null))
-            .setBot(Helpers.optBoolean(user, "bot"));
+            .setName(name)
+            .setDiscriminator(discriminator)
+            .setAvatarId(avatarId)
+            .setBot(bot);
         if (!fake && modifyCache)
             getJDA().getEventCache().playbackCache(EventCache.Type.USER, id);
         return userObj;
     }
 
     public Member createMember(GuildImpl guild, JSONObject memberJson)
+    {
+        return createMember(guild, MemberData.fromJson(memberJson));
+    }
+
+    public Member createMember(GuildImpl guild, MemberData memberData)
     {
         boolean playbackCache = false;
-        User user = createUser(memberJson.getJSONObject("user"));
+        User user = createUser(memberData.getUserId(), memberData.getUsername(), memberData.getDiscriminator(),
+            memberData.getAvatarId(), memberData.isBot(), false, true);
         MemberImpl member = (MemberImpl) guild.getMember(user);
         if (member == null)
         {
@@ -352,23 +373,26 @@ public class EntityBuilder
                 LOG.trace("Found owner of guild with id {}", guild.getId());
                 guild.setOwner(member);
             }
+            PresenceData presence = guild.consumeCachedPresence(user.getIdLong());
+            if (presence != null)
+                applyPresence(member, presence);
         }
 
-        GuildVoiceStateImpl state = (GuildVoiceStateImpl) member.getVoiceState();
+        final boolean guildMuted = memberData.isGuildMuted();
+        final boolean guildDeafened = memberData.isGuildDeafened();
+        GuildVoiceStateImpl state = guildMuted || guildDeafened ? member.getOrCreateVoiceState() : member.getCachedVoiceState();
         if (state != null)
         {
-            state.setGuildMuted(memberJson.getBoolean("mute"))
-                 .setGuildDeafened(memberJson.getBoolean("deaf"));
+            state.setGuildMuted(guildMuted)
+                 .setGuildDeafened(guildDeafened);
+            member.releaseVoiceState();
         }
 
-        TemporalAccessor joinedAt = DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(memberJson.getString("joined_at"));
-        member.setJoinDate(Instant.from(joinedAt).toEpochMilli())
-              .setNickname(memberJson.optString("nick", null));
+        member.setJoinDate(memberData.getJoinDate())
+              .setNickname(memberData.getNickname());
 
-        JSONArray rolesJson = memberJson.getJSONArray("roles");
-        for (int k = 0; k < rolesJson.length(); k++)
+        for (long roleId : memberData.getRoles())
         {
-            final long roleId = rolesJson.getLong(k);
             Role r = guild.getRolesMap().get(roleId);
             if (r == null)
             {
@@ -377,12 +401,16 @@ public class EntityBuilder
             }
             else
             {
-                member.getRoleSet().add(r);
+                member.addRole(roleId);
             }
         }
 
+        getJDA().getMemberLoader().touch(member);
         if (playbackCache)
         {
+            // the guild is not yet cached during setup, it is checked once all members are added
+            if (getJDA().getGuildMap().get(guild.getIdLong()) == guild)
+                getJDA().getMemberLoader().checkEviction(guild);
             long hashId = guild.getIdLong() ^ user.getIdLong();
             getJDA().getEventCache().playbackCache(EventCache.Type.MEMBER, hashId);
         }
@@ -394,57 +422,81 @@ public class EntityBuilder
     {
         if (memberOrFriend == null)
             throw new NullPointerException("Provided memberOrFriend was null!");
-        boolean cacheGame = getJDA().isCacheFlagSet(CacheFlag.GAME);
+        String userId;
+        if (memberOrFriend instanceof Member)
+            userId = ((Member) memberOrFriend).getUser().getId();
+        else if (memberOrFriend instanceof Friend)
+            userId = ((Friend) memberOrFriend).getUser().getId();
+        else
+            userId = "unknown";
+        PresenceData presence = createPresenceData(userId, presenceJson);
+
+        if (memberOrFriend instanceof Member)
+        {
+            applyPresence((MemberImpl) memberOrFriend, presence);
+        }
+        else if (memberOrFriend instanceof Friend)
+        {
+            FriendImpl friend = (FriendImpl) memberOrFriend;
+            if (presence.getOnlineStatus() != null)
+                friend.setOnlineStatus(presence.getOnlineStatus());
+            if (presence.hasGame())
+                friend.setGame(presence.getGame());
+
+            OffsetDateTime lastModified = OffsetDateTime.ofInstant(
+                    Instant.ofEpochMilli(presenceJson.getLong("last_modified")),
+                    TimeZone.getTimeZone("GMT").toZoneId());
+
+            friend.setOnlineStatusModifiedTime(lastModified);
+        }
+        else
+            throw new IllegalArgumentException("An object was provided to EntityBuilder#createPresence that wasn't a Member or Friend. JSON: " + presenceJson);
+    }
 
-        JSONObject gameJson = !cacheGame || presenceJson.isNull("game") ? null : presenceJson.getJSONObject("game");
-        OnlineStatus onlineStatus = OnlineStatus.fromKey(presenceJson.getString("status"));
+    /**
+     * Parses the parts of a presence which are enabled by the cache flags.
+     *
+     * @param  userId
+     *         The id of the user, used for logging
+     * @param  presenceJson
+     *         The presence
+     *
+     * @return The parsed presence
+     */
+    public PresenceData createPresenceData(Object userId, JSONObject presenceJson)
+    {
+        final boolean cacheGame = getJDA().isCacheFlagSet(CacheFlag.GAME);
+        final boolean cacheStatus = getJDA().isCacheFlagSet(CacheFlag.ONLINE_STATUS);
+
+        JSONObject gameJson = !cacheGame || presenceJson.isNull("game") ? null : presenceJson.optJSONObject("game");
+        OnlineStatus onlineStatus = cacheStatus ? OnlineStatus.fromKey(presenceJson.getString("status")) : null;
         Game game = null;
         boolean parsedGame = false;
 
-        if (cacheGame && gameJson != null && !gameJson.isNull("name"))
+        if (cacheGame)
         {
             try
             {
-                game = createGame(gameJson);
+                game = gameJson == null || gameJson.isNull("name") ? null : createGame(gameJson);
                 parsedGame = true;
             }
             catch (Exception ex)
             {
-                String userId;
-                if (memberOrFriend instanceof Member)
-                    userId = ((Member) memberOrFriend).getUser().getId();
-                else if (memberOrFriend instanceof Friend)
-                    userId = ((Friend) memberOrFriend).getUser().getId();
-                else
-                    userId = "unknown";
                 if (LOG.isDebugEnabled())
                     LOG.warn("Encountered exception trying to parse a presence! UserId: {} JSON: {}", userId, gameJson, ex);
                 else
                     LOG.warn("Encountered exception trying to parse a presence! UserId: {} Message: {} Enable debug for details", userId, ex.getMessage());
             }
         }
-        if (memberOrFriend instanceof Member)
-        {
-            MemberImpl member = (MemberImpl) memberOrFriend;
-            member.setOnlineStatus(onlineStatus);
-            if (cacheGame && parsedGame)
-                member.setGame(game);
-        }
-        else if (memberOrFriend instanceof Friend)
-        {
-            FriendImpl friend = (FriendImpl) memberOrFriend;
-            friend.setOnlineStatus(onlineStatus);
-            if (cacheGame && parsedGame)
-                friend.setGame(game);
-
-            OffsetDateTime lastModified = OffsetDateTime.ofInstant(
-                    Instant.ofEpochMilli(presenceJson.getLong("last_modified")),
-                    TimeZone.getTimeZone("GMT").toZoneId());
+        return new PresenceData(onlineStatus, game, parsedGame);
+    }
 
-            friend.setOnlineStatusModifiedTime(lastModified);
-        }
-        else
-            throw new IllegalArgumentException("An object was provided to EntityBuilder#createPresence that wasn't a Member or Friend. JSON: " + presenceJson);
+    public void applyPresence(MemberImpl member, PresenceData presence)
+    {
+        if (presence.getOnlineStatus() != null)
+            member.setOnlineStatus(presence.getOnlineStatus());
+        if (presence.hasGame())
+            member.setGame(presence.getGame());
     }
 
     public static Game createGame(JSONObject gameJson)
@@ -686,11 +738,16 @@ public class EntityBuilder
 
     public void createOverridesPass(AbstractChannelImpl<?> channel, JSONArray overrides)
     {
+        final boolean cacheMemberOverrides = getJDA().isCacheFlagSet(CacheFlag.MEMBER_OVERRIDES);
+        final long selfId = getJDA().getSelfUser().getIdLong();
         for (int i = 0; i < overrides.length(); i++)
         {
+            JSONObject override = overrides.getJSONObject(i);
+            if (!cacheMemberOverrides && override.getString("type").equals("member") && override.getLong("id") != selfId)
+                continue;
             try
             {
-                createPermissionOverride(overrides.getJSONObject(i), channel);
+                createPermissionOverride(override, channel);
             }
             catch (NoSuchElementException e)
             {
@@ -798,8 +855,16 @@ public class EntityBuilder
                 }
                 break;
             case TEXT:
-                Guild guild = ((TextChannel) chan).getGuild();
+                GuildImpl guild = (GuildImpl) ((TextChannel) chan).getGuild();
                 Member member = guild.getMemberById(authorId);
+                if (exceptionOnMissingUser) // MESSAGE_CREATE
+                {
+                    // guild messages include the member of the author, which is not cached when loading lazily
+                    if (member == null && !fromWebhook && jsonObject.has("member") && getJDA().getMemberLoader().isLazy())
+                        member = createMember(guild, jsonObject.getJSONObject("member").put("user", author));
+                    else
+                        getJDA().getMemberLoader().touch(member);
+                }
                 user = member != null ? member.getUser() : null;
                 if (user == null)
                 {
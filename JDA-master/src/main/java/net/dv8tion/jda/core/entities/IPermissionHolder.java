@@ -68,6 +68,8 @@ public interface IPermissionHolder
 
     /**
      * Checks whether or not this PermissionHolder has the given {@link net.dv8tion.jda.core.Permission Permissions} in the specified Channel.
+     * <br>For members other than the self member this ignores their member overrides while
+     * {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled.
      *
      * @param  channel
      *         The {@link net.dv8tion.jda.core.entities.Channel Channel} in which to check.
@@ -83,6 +85,8 @@ public interface IPermissionHolder
     /**
      * Checks whether or not this PermissionHolder has the {@link net.dv8tion.jda.core.Permission Permissions} in the provided
      * {@code Collection<Permission>} in the specified Channel.
+     * <br>Like {@link #hasPermission(Channel, Permission...)} this is inaccurate for other members while
+     * {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled.
      *
      * @param  channel
      *         The {@link net.dv8tion.jda.core.entities.Channel Channel} in which to check.
@@ -68,6 +68,11 @@ public interface Member extends IMentionable, IPermissionHolder
      *
      * <p>This can be used to get the Member's VoiceChannel using {@link GuildVoiceState#getChannel()}.
      *
+     * <p>A voice state is only kept while the Member is connected to a voice channel or guild muted/deafened.
+     * For other Members every call returns a new disconnected voice state, which is not updated when the Member joins
+     * a voice channel. Call this method again instead of holding on to the returned instance,
+     * and do not rely on the identity of voice states.
+     *
      * @return {@link net.dv8tion.jda.core.entities.GuildVoiceState GuildVoiceState}
      */
     GuildVoiceState getVoiceState();
@@ -38,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -275,7 +276,11 @@ public abstract class AbstractChannelImpl<T extends AbstractChannelImpl<T>> impl
     @SuppressWarnings("unchecked")
     public T setName(String name)
     {
-        this.name = name;
+        if (!Objects.equals(this.name, name))
+        {
+            this.name = name;
+            getGuild().updateChannelName(getType(), id);
+        }
         return (T) this;
     }
 
@@ -289,7 +294,11 @@ public abstract class AbstractChannelImpl<T extends AbstractChannelImpl<T>> impl
     @SuppressWarnings("unchecked")
     public T setPosition(int rawPosition)
     {
-        this.rawPosition = rawPosition;
+        if (this.rawPosition != rawPosition)
+        {
+            this.rawPosition = rawPosition;
+            getGuild().invalidateChannelOrder(getType());
+        }
         return (T) this;
     }
 
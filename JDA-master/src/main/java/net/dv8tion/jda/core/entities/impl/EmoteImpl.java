@@ -190,7 +190,12 @@ public class EmoteImpl implements ListedEmote
 
     public EmoteImpl setName(String name)
     {
-        this.name = name;
+        if (!Objects.equals(this.name, name))
+        {
+            this.name = name;
+            if (guild != null)
+                guild.get().updateEmoteName(id);
+        }
         return this;
     }
 
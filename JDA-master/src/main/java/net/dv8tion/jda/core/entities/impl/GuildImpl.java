@@ -58,6 +58,9 @@ import java.util.stream.Collectors;
 
 public class GuildImpl implements Guild
 {
+    /** The maximum amount of presences held for members that are not cached yet */
+    public static final int MAX_CACHED_PRESENCES = 1000;
+
     private final long id;
     private final UpstreamReference<JDAImpl> api;
 
@@ -68,7 +71,9 @@ public class GuildImpl implements Guild
     private final SnowflakeCacheViewImpl<Emote> emoteCache = new SnowflakeCacheViewImpl<>(Emote.class, Emote::getName);
     private final MemberCacheViewImpl memberCache = new MemberCacheViewImpl();
 
-    private final TLongObjectMap<JSONObject> cachedPresences = MiscUtil.newLongMap();
+    // presences of members that are not cached yet, applied once the member is created
+    private final TLongObjectMap<PresenceData> cachedPresences = MiscUtil.newLongMap();
+    private volatile int droppedPresences = 0;
 
     private final ReentrantLock mngLock = new ReentrantLock();
     private volatile GuildManager manager;
@@ -96,6 +101,14 @@ public class GuildImpl implements Guild
     {
         this.id = id;
         this.api = new UpstreamReference<>(api);
+        if (api.isNameIndexEnabled())
+        {
+            categoryCache.setNameIndexEnabled(true);
+            voiceChannelCache.setNameIndexEnabled(true);
+            textChannelCache.setNameIndexEnabled(true);
+            roleCache.setNameIndexEnabled(true);
+            emoteCache.setNameIndexEnabled(true);
+        }
     }
 
     @Override
@@ -721,7 +734,11 @@ public class GuildImpl implements Guild
 
     public GuildImpl setName(String name)
     {
-        this.name = name;
+        if (!Objects.equals(this.name, name))
+        {
+            this.name = name;
+            getJDA().updateGuildName(id);
+        }
         return this;
     }
 
@@ -836,11 +853,98 @@ public class GuildImpl implements Guild
         return emoteCache.getMap();
     }
 
-    public TLongObjectMap<JSONObject> getCachedPresenceMap()
+    public TLongObjectMap<PresenceData> getCachedPresenceMap()
     {
         return cachedPresences;
     }
 
+    /**
+     * Holds the presence of a member that is not cached yet, until it is created.
+     * <br>Once {@link #MAX_CACHED_PRESENCES} presences are held, new presences are dropped and counted.
+     *
+     * @param  userId
+     *         The id of the user
+     * @param  presence
+     *         The presence
+     *
+     * @return False, if the presence was dropped
+     */
+    public boolean cachePresence(long userId, PresenceData presence)
+    {
+        synchronized (cachedPresences)
+        {
+            if (cachedPresences.size() >= MAX_CACHED_PRESENCES && !cachedPresences.containsKey(userId))
+            {
+                droppedPresences++;
+                return false;
+            }
+            cachedPresences.put(userId, presence);
+            return true;
+        }
+    }
+
+    public PresenceData consumeCachedPresence(long userId)
+    {
+        return cachedPresences.isEmpty() ? null : cachedPresences.remove(userId);
+    }
+
+    public int getDroppedPresenceCount()
+    {
+        return droppedPresences;
+    }
+
+    // -- Sorted cache maintenance --
+
+    public void invalidateChannelOrder(ChannelType type)
+    {
+        switch (type)
+        {
+            case TEXT:
+                textChannelCache.invalidate();
+                break;
+            case VOICE:
+                voiceChannelCache.invalidate();
+                break;
+            case CATEGORY:
+                categoryCache.invalidate();
+                break;
+        }
+    }
+
+    public void invalidateRoleOrder()
+    {
+        roleCache.invalidate();
+    }
+
+    // -- Name index maintenance --
+
+    public void updateChannelName(ChannelType type, long channelId)
+    {
+        switch (type)
+        {
+            case TEXT:
+                textChannelCache.updateName(channelId);
+                break;
+            case VOICE:
+                voiceChannelCache.updateName(channelId);
+                break;
+            case CATEGORY:
+                categoryCache.updateName(channelId);
+                break;
+        }
+        getJDA().updateChannelName(type, channelId);
+    }
+
+    public void updateRoleName(long roleId)
+    {
+        roleCache.updateName(roleId);
+    }
+
+    public void updateEmoteName(long emoteId)
+    {
+        emoteCache.updateName(emoteId);
+    }
+
 
     // -- Object overrides --
 
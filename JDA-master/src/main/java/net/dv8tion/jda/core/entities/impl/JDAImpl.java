@@ -24,6 +24,7 @@ import net.dv8tion.jda.bot.entities.impl.JDABotImpl;
 import net.dv8tion.jda.client.entities.impl.JDAClientImpl;
 import net.dv8tion.jda.core.AccountType;
 import net.dv8tion.jda.core.JDA;
+import net.dv8tion.jda.core.audio.AudioReceiveSelector;
 import net.dv8tion.jda.core.audio.KeepAliveThreadFactory;
 import net.dv8tion.jda.core.audio.factory.DefaultSendFactory;
 import net.dv8tion.jda.core.audio.factory.IAudioSendFactory;
@@ -33,6 +34,9 @@ import net.dv8tion.jda.core.exceptions.AccountTypeException;
 import net.dv8tion.jda.core.exceptions.RateLimitedException;
 import net.dv8tion.jda.core.handle.EventCache;
 import net.dv8tion.jda.core.handle.GuildSetupController;
+import net.dv8tion.jda.core.handle.MemberLoader;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.hooks.EventDispatcher;
 import net.dv8tion.jda.core.hooks.IEventManager;
 import net.dv8tion.jda.core.hooks.InterfacedEventManager;
 import net.dv8tion.jda.core.managers.AudioManager;
@@ -43,6 +47,7 @@ import net.dv8tion.jda.core.requests.restaction.GuildAction;
 import net.dv8tion.jda.core.utils.*;
 import net.dv8tion.jda.core.utils.cache.CacheFlag;
 import net.dv8tion.jda.core.utils.cache.CacheView;
+import net.dv8tion.jda.core.utils.cache.MemberCachePolicy;
 import net.dv8tion.jda.core.utils.cache.SnowflakeCacheView;
 import net.dv8tion.jda.core.utils.cache.UpstreamReference;
 import net.dv8tion.jda.core.utils.cache.impl.AbstractCacheView;
@@ -67,6 +72,12 @@ public class JDAImpl implements JDA
     protected final ExecutorService callbackPool;
     protected final boolean shutdownRateLimitPool;
     protected final boolean shutdownCallbackPool;
+    protected ScheduledExecutorService gatewayPool;
+    protected boolean shutdownGatewayPool;
+    protected HeartbeatTimer heartbeatTimer;
+    protected boolean shutdownHeartbeatTimer;
+    protected AudioReceiveSelector audioReceiveSelector;
+    protected boolean shutdownAudioReceiveSelector;
 
     protected final SnowflakeCacheViewImpl<User> userCache = new SnowflakeCacheViewImpl<>(User.class, User::getName);
     protected final SnowflakeCacheViewImpl<Guild> guildCache = new SnowflakeCacheViewImpl<>(Guild.class, Guild::getName);
@@ -91,15 +102,21 @@ public class JDAImpl implements JDA
     protected final Thread shutdownHook;
     protected final EntityBuilder entityBuilder = new EntityBuilder(this);
     protected final EventCache eventCache = new EventCache();
+    protected final LatencyHistogram heartbeatLatency = new LatencyHistogram();
     protected final Object akapLock = new Object();
+    protected final Object gatewayPoolLock = new Object();
     protected final EnumSet<CacheFlag> cacheFlags;
 
     protected final SessionController sessionController;
     protected final GuildSetupController guildSetupController;
+    protected final MemberLoader memberLoader;
 
     protected UpstreamReference<WebSocketClient> client;
     protected Requester requester;
     protected IEventManager eventManager = new InterfacedEventManager();
+    protected final IEventManager dispatchingEventManager = new DispatchingEventManager();
+    protected EventDispatcher eventDispatcher;
+    protected boolean shutdownEventDispatcher;
     protected IAudioSendFactory audioSendFactory = new DefaultSendFactory();
     protected ScheduledThreadPoolExecutor audioKeepAlivePool;
     protected Status status = Status.INITIALIZING;
@@ -148,6 +165,7 @@ public class JDAImpl implements JDA
         this.jdaClient = accountType == AccountType.CLIENT ? new JDAClientImpl(this) : null;
         this.jdaBot = accountType == AccountType.BOT ? new JDABotImpl(this) : null;
         this.guildSetupController = new GuildSetupController(this);
+        this.memberLoader = new MemberLoader(this);
         this.cacheFlags = cacheFlags;
     }
 
@@ -174,6 +192,11 @@ public class JDAImpl implements JDA
         return guildSetupController;
     }
 
+    public MemberLoader getMemberLoader()
+    {
+        return memberLoader;
+    }
+
     public int login(String gatewayUrl, ShardInfo shardInfo, boolean compression, boolean validateToken) throws LoginException
     {
         this.gatewayUrl = gatewayUrl;
@@ -245,7 +268,7 @@ public class JDAImpl implements JDA
             Status oldStatus = this.status;
             this.status = status;
 
-            eventManager.handle(new StatusChangeEvent(this, status, oldStatus));
+            getEventManager().handle(new StatusChangeEvent(this, status, oldStatus));
         }
     }
 
@@ -587,6 +610,20 @@ public class JDAImpl implements JDA
         }
         if (shutdownCallbackPool)
             getCallbackPool().shutdown();
+        synchronized (gatewayPoolLock)
+        {
+            if (shutdownGatewayPool && gatewayPool != null)
+                gatewayPool.shutdown();
+            if (shutdownHeartbeatTimer && heartbeatTimer != null)
+                heartbeatTimer.shutdown();
+        }
+        if (shutdownEventDispatcher && eventDispatcher != null)
+            eventDispatcher.shutdown();
+        synchronized (akapLock)
+        {
+            if (shutdownAudioReceiveSelector && audioReceiveSelector != null)
+                audioReceiveSelector.shutdown();
+        }
 
         if (shutdownHook != null)
         {
@@ -749,9 +786,82 @@ public class JDAImpl implements JDA
         return requester;
     }
 
+    /**
+     * The event manager used to fire events.
+     * <br>If an {@link EventDispatcher} is configured this queues events on the dispatcher
+     * instead of handling them on the current thread.
+     *
+     * @return The IEventManager
+     */
     public IEventManager getEventManager()
     {
-        return eventManager;
+        return eventDispatcher == null ? eventManager : dispatchingEventManager;
+    }
+
+    public void setEventDispatcher(EventDispatcher eventDispatcher, boolean automaticShutdown)
+    {
+        this.eventDispatcher = eventDispatcher;
+        this.shutdownEventDispatcher = automaticShutdown;
+    }
+
+    public EventDispatcher getEventDispatcher()
+    {
+        return eventDispatcher;
+    }
+
+    public void setAsyncRequestsEnabled(boolean enabled)
+    {
+        requester.setAsync(enabled);
+    }
+
+    public void setMaxRateLimitBuckets(int maxBuckets)
+    {
+        requester.getRateLimiter().setMaxBuckets(maxBuckets);
+    }
+
+    public void setMemberCachePolicy(MemberCachePolicy policy)
+    {
+        memberLoader.setPolicy(policy);
+    }
+
+    public void setNameIndexEnabled(boolean enabled)
+    {
+        userCache.setNameIndexEnabled(enabled);
+        guildCache.setNameIndexEnabled(enabled);
+        categories.setNameIndexEnabled(enabled);
+        textChannelCache.setNameIndexEnabled(enabled);
+        voiceChannelCache.setNameIndexEnabled(enabled);
+    }
+
+    public boolean isNameIndexEnabled()
+    {
+        return guildCache.isNameIndexEnabled();
+    }
+
+    public void updateUserName(long userId)
+    {
+        userCache.updateName(userId);
+    }
+
+    public void updateGuildName(long guildId)
+    {
+        guildCache.updateName(guildId);
+    }
+
+    public void updateChannelName(ChannelType type, long channelId)
+    {
+        switch (type)
+        {
+            case TEXT:
+                textChannelCache.updateName(channelId);
+                break;
+            case VOICE:
+                voiceChannelCache.updateName(channelId);
+                break;
+            case CATEGORY:
+                categories.updateName(channelId);
+                break;
+        }
     }
 
     public WebSocketFactory getWebSocketFactory()
@@ -852,6 +962,28 @@ public class JDAImpl implements JDA
         return akap;
     }
 
+    /**
+     * The selector which receives the audio of all voice connections, or null if every connection uses its own receive thread.
+     *
+     * @return Possibly-null audio receive selector
+     */
+    public AudioReceiveSelector getAudioReceiveSelector()
+    {
+        synchronized (akapLock)
+        {
+            return audioReceiveSelector;
+        }
+    }
+
+    public void setAudioReceiveSelector(AudioReceiveSelector selector, boolean automaticShutdown)
+    {
+        synchronized (akapLock)
+        {
+            this.audioReceiveSelector = selector;
+            this.shutdownAudioReceiveSelector = automaticShutdown;
+        }
+    }
+
     public String getGatewayUrl()
     {
         return gatewayUrl;
@@ -872,6 +1004,120 @@ public class JDAImpl implements JDA
         return callbackPool;
     }
 
+    /**
+     * The pool which runs the send queue of the main gateway.
+     * <br>If no pool was set a single-threaded pool is created for this instance.
+     *
+     * @return The gateway pool
+     */
+    public ScheduledExecutorService getGatewayPool()
+    {
+        synchronized (gatewayPoolLock)
+        {
+            if (gatewayPool == null)
+            {
+                ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, new GatewayThreadFactory());
+                // pending sends are pointless once the connection is gone
+                pool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                gatewayPool = pool;
+                shutdownGatewayPool = true;
+            }
+            return gatewayPool;
+        }
+    }
+
+    public void setGatewayPool(ScheduledExecutorService pool, boolean automaticShutdown)
+    {
+        synchronized (gatewayPoolLock)
+        {
+            this.gatewayPool = pool;
+            this.shutdownGatewayPool = pool == null || automaticShutdown;
+        }
+    }
+
+    /**
+     * The timer which schedules the heartbeats of the main gateway.
+     * <br>If no timer was set a timer is created for this instance.
+     *
+     * @return The heartbeat timer
+     */
+    public HeartbeatTimer getHeartbeatTimer()
+    {
+        synchronized (gatewayPoolLock)
+        {
+            if (heartbeatTimer == null)
+            {
+                heartbeatTimer = new HeartbeatTimer(getIdentifierString() + " MainWS-Heartbeat Timer");
+                shutdownHeartbeatTimer = true;
+            }
+            return heartbeatTimer;
+        }
+    }
+
+    public void setHeartbeatTimer(HeartbeatTimer timer, boolean automaticShutdown)
+    {
+        synchronized (gatewayPoolLock)
+        {
+            this.heartbeatTimer = timer;
+            this.shutdownHeartbeatTimer = timer == null || automaticShutdown;
+        }
+    }
+
+    /**
+     * Histogram of the heartbeat latencies of this session, {@link #getPing()} only holds the latest value.
+     *
+     * @return The heartbeat latency histogram
+     */
+    public LatencyHistogram getHeartbeatLatency()
+    {
+        return heartbeatLatency;
+    }
+
+    private class DispatchingEventManager implements IEventManager
+    {
+        @Override
+        public void register(Object listener)
+        {
+            eventManager.register(listener);
+        }
+
+        @Override
+        public void unregister(Object listener)
+        {
+            eventManager.unregister(listener);
+        }
+
+        @Override
+        public void handle(Event event)
+        {
+            eventDispatcher.dispatch(eventManager, event);
+        }
+
+        @Override
+        public List<Object> getRegisteredListeners()
+        {
+            return eventManager.getRegisteredListeners();
+        }
+
+        @Override
+        public boolean isInterested(Class<? extends Event> type)
+        {
+            return eventManager.isInterested(type);
+        }
+    }
+
+    private class GatewayThreadFactory implements ThreadFactory
+    {
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread t = new Thread(r, getIdentifierString() + " MainWS-Gateway Thread");
+            t.setDaemon(true);
+
+            return t;
+        }
+    }
+
     private class RateLimitThreadFactory implements ThreadFactory
     {
         final String identifier;
@@ -0,0 +1,135 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.entities.impl;
+
+import net.dv8tion.jda.core.utils.Helpers;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The fields of a member payload which are used to create a {@link MemberImpl}.
+ * <br>Used to hold members that are received before their guild is created, instead of their JSON.
+ */
+public final class MemberData
+{
+    private static final long[] EMPTY_ROLES = new long[0];
+
+    private final long userId;
+    private final String username;
+    private final String discriminator;
+    private final String avatarId;
+    private final boolean bot;
+    private final String nickname;
+    private final long joinDate;
+    private final long[] roles;
+    private final boolean guildMuted;
+    private final boolean guildDeafened;
+
+    private MemberData(long userId, String username, String discriminator, String avatarId, boolean bot,
+                       String nickname, long joinDate, long[] roles, boolean guildMuted, boolean guildDeafened)
+    {
+        this.userId = userId;
+        this.username = username;
+        this.discriminator = discriminator;
+        this.avatarId = avatarId;
+        this.bot = bot;
+        this.nickname = nickname;
+        this.joinDate = joinDate;
+        this.roles = roles;
+        this.guildMuted = guildMuted;
+        this.guildDeafened = guildDeafened;
+    }
+
+    public static MemberData fromJson(JSONObject memberJson)
+    {
+        final JSONObject user = memberJson.getJSONObject("user");
+        final JSONArray rolesJson = memberJson.getJSONArray("roles");
+        final long[] roles = rolesJson.length() == 0 ? EMPTY_ROLES : new long[rolesJson.length()];
+        for (int i = 0; i < roles.length; i++)
+            roles[i] = rolesJson.getLong(i);
+        final long joinDate = Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(memberJson.getString("joined_at"))).toEpochMilli();
+
+        return new MemberData(
+            user.getLong("id"),
+            user.getString("username"),
+            user.get("discriminator").toString(),
+            user.optString("avatar", null),
+            Helpers.optBoolean(user, "bot"),
+            memberJson.optString("nick", null),
+            joinDate, roles,
+            Helpers.optBoolean(memberJson, "mute"),
+            Helpers.optBoolean(memberJson, "deaf"));
+    }
+
+    public long getUserId()
+    {
+        return userId;
+    }
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+    public String getDiscriminator()
+    {
+        return discriminator;
+    }
+
+    public String getAvatarId()
+    {
+        return avatarId;
+    }
+
+    public boolean isBot()
+    {
+        return bot;
+    }
+
+    public String getNickname()
+    {
+        return nickname;
+    }
+
+    public long getJoinDate()
+    {
+        return joinDate;
+    }
+
+    /**
+     * The ids of the roles of this member, the array must not be modified.
+     *
+     * @return The role ids
+     */
+    public long[] getRoles()
+    {
+        return roles;
+    }
+
+    public boolean isGuildMuted()
+    {
+        return guildMuted;
+    }
+
+    public boolean isGuildDeafened()
+    {
+        return guildDeafened;
+    }
+}
@@ -16,6 +16,7 @@
 
 package net.dv8tion.jda.core.entities.impl;
 
+import gnu.trove.map.TLongObjectMap;
 import net.dv8tion.jda.core.JDA;
 import net.dv8tion.jda.core.OnlineStatus;
 import net.dv8tion.jda.core.Permission;
@@ -35,13 +36,18 @@ import java.util.*;
 public class MemberImpl implements Member
 {
     private static final ZoneOffset OFFSET = ZoneOffset.of("+00:00");
+    private static final long[] EMPTY_ROLES = new long[0];
     private final UpstreamReference<GuildImpl> guild;
     private final User user;
-    private final Set<Role> roles = new HashSet<>();
-    private final GuildVoiceState voiceState;
+    // sorted ids of the roles, replaced on every change
+    private volatile long[] roleIds = EMPTY_ROLES;
+    // only allocated while the member is in a voice channel, or guild muted/deafened
+    // assigned and released by the handlers, read by any thread
+    private volatile GuildVoiceStateImpl voiceState;
 
     private String nickname;
     private long joinDate;
+    private long lastActivity;
     private Game game;
     private OnlineStatus onlineStatus = OnlineStatus.OFFLINE;
 
@@ -49,9 +55,8 @@ public class MemberImpl implements Member
     {
         this.guild = new UpstreamReference<>(guild);
         this.user = user;
-        JDAImpl jda = (JDAImpl) getJDA();
-        boolean cacheState = jda.isCacheFlagSet(CacheFlag.VOICE_STATE) || user.equals(jda.getSelfUser());
-        this.voiceState = cacheState ? new GuildVoiceStateImpl(guild, this) : null;
+        if (isSelf())
+            this.voiceState = new GuildVoiceStateImpl(guild, this);
     }
 
     @Override
@@ -81,7 +86,11 @@ public class MemberImpl implements Member
     @Override
     public GuildVoiceState getVoiceState()
     {
-        return voiceState;
+        final GuildVoiceStateImpl state = voiceState;
+        if (state != null || !isVoiceStateCached())
+            return state;
+        // a disconnected state, which is not kept
+        return new GuildVoiceStateImpl(getGuild(), this);
     }
 
     @Override
@@ -111,10 +120,22 @@ public class MemberImpl implements Member
     @Override
     public List<Role> getRoles()
     {
-        List<Role> roleList = new ArrayList<>(roles);
-        roleList.sort(Comparator.reverseOrder());
+        final long[] ids = roleIds;
+        if (ids.length == 0)
+            return Collections.emptyList();
+
+        final TLongObjectMap<Role> rolesMap = getGuild().getRolesMap();
+        Role[] roles = new Role[ids.length];
+        int size = 0;
+        for (long id : ids)
+        {
+            Role role = rolesMap.get(id);
+            if (role != null)
+                roles[size++] = role;
+        }
+        Arrays.sort(roles, 0, size, Comparator.reverseOrder());
 
-        return Collections.unmodifiableList(roleList);
+        return Collections.unmodifiableList(Arrays.asList(roles).subList(0, size));
     }
 
     @Override
@@ -230,9 +251,107 @@ public class MemberImpl implements Member
         return this;
     }
 
+    public MemberImpl setLastActivity(long lastActivity)
+    {
+        this.lastActivity = lastActivity;
+        return this;
+    }
+
+    public long getLastActivity()
+    {
+        return lastActivity;
+    }
+
     public Set<Role> getRoleSet()
     {
-        return roles;
+        return new RoleSet();
+    }
+
+    public long[] getRoleIds()
+    {
+        return roleIds;
+    }
+
+    public boolean hasRole(long roleId)
+    {
+        return Arrays.binarySearch(roleIds, roleId) >= 0;
+    }
+
+    public boolean addRole(long roleId)
+    {
+        final long[] ids = roleIds;
+        final int index = Arrays.binarySearch(ids, roleId);
+        if (index >= 0)
+            return false;
+        final int insert = -index - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insert);
+        copy[insert] = roleId;
+        System.arraycopy(ids, insert, copy, insert + 1, ids.length - insert);
+        roleIds = copy;
+        return true;
+    }
+
+    public boolean removeRole(long roleId)
+    {
+        final long[] ids = roleIds;
+        final int index = Arrays.binarySearch(ids, roleId);
+        if (index < 0)
+            return false;
+        if (ids.length == 1)
+        {
+            roleIds = EMPTY_ROLES;
+            return true;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, index);
+        System.arraycopy(ids, index + 1, copy, index, copy.length - index);
+        roleIds = copy;
+        return true;
+    }
+
+    /**
+     * The voice state of this member, if one is kept.
+     *
+     * @return The voice state, or null if this member is neither connected to a voice channel nor guild muted or deafened
+     */
+    public GuildVoiceStateImpl getCachedVoiceState()
+    {
+        return voiceState;
+    }
+
+    /**
+     * The voice state of this member, which is kept until {@link #releaseVoiceState()} is called.
+     *
+     * @return The voice state, or null if voice states are not cached
+     */
+    public GuildVoiceStateImpl getOrCreateVoiceState()
+    {
+        GuildVoiceStateImpl state = voiceState;
+        if (state == null && isVoiceStateCached())
+            voiceState = state = new GuildVoiceStateImpl(getGuild(), this);
+        return state;
+    }
+
+    /**
+     * Drops the voice state of this member, unless it is connected to a voice channel,
+     * guild muted or deafened or the voice state of the currently logged in account.
+     */
+    public void releaseVoiceState()
+    {
+        final GuildVoiceStateImpl state = voiceState;
+        if (state != null && !state.inVoiceChannel() && !state.isGuildMuted() && !state.isGuildDeafened() && !isSelf())
+            voiceState = null;
+    }
+
+    private boolean isVoiceStateCached()
+    {
+        return ((JDAImpl) getJDA()).isCacheFlagSet(CacheFlag.VOICE_STATE) || isSelf();
+    }
+
+    private boolean isSelf()
+    {
+        return user.equals(getJDA().getSelfUser());
     }
 
     @Override
@@ -272,4 +391,98 @@ public class MemberImpl implements Member
                 .filter(c -> hasPermission(c, Permission.MESSAGE_READ))
                 .findFirst().orElse(null);
     }
+
+    /**
+     * Mutable view of the role ids of this member.
+     * <br>Ids of roles which are no longer in the guild are skipped, a deleted role is removed from the guild
+     * before its id is removed from the members.
+     */
+    private class RoleSet extends AbstractSet<Role>
+    {
+        @Override
+        public Iterator<Role> iterator()
+        {
+            final long[] ids = roleIds;
+            final TLongObjectMap<Role> rolesMap = getGuild().getRolesMap();
+            return new Iterator<Role>()
+            {
+                private int index = 0;
+                private Role next = advance();
+                private Role current = null;
+
+                private Role advance()
+                {
+                    while (index < ids.length)
+                    {
+                        Role role = rolesMap.get(ids[index++]);
+                        if (role != null)
+                            return role;
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext()
+                {
+                    return next != null;
+                }
+
+                @Override
+                public Role next()
+                {
+                    if (next == null)
+                        throw new NoSuchElementException();
+                    current = next;
+                    next = advance();
+                    return current;
+                }
+
+                @Override
+                public void remove()
+                {
+                    if (current == null)
+                        throw new IllegalStateException();
+                    removeRole(current.getIdLong());
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            final TLongObjectMap<Role> rolesMap = getGuild().getRolesMap();
+            int size = 0;
+            for (long id : roleIds)
+            {
+                if (rolesMap.containsKey(id))
+                    size++;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return o instanceof Role && hasRole(((Role) o).getIdLong());
+        }
+
+        @Override
+        public boolean add(Role role)
+        {
+            return addRole(role.getIdLong());
+        }
+
+        @Override
+        public boolean remove(Object o)
+        {
+            return o instanceof Role && removeRole(((Role) o).getIdLong());
+        }
+
+        @Override
+        public void clear()
+        {
+            roleIds = EMPTY_ROLES;
+        }
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.entities.impl;
+
+import net.dv8tion.jda.core.OnlineStatus;
+import net.dv8tion.jda.core.entities.Game;
+
+/**
+ * The parsed fields of a presence which are enabled by the {@link net.dv8tion.jda.core.utils.cache.CacheFlag CacheFlags}.
+ * <br>Used to hold presences of members that are not cached yet, instead of their JSON.
+ */
+public final class PresenceData
+{
+    private final OnlineStatus onlineStatus;
+    private final Game game;
+    private final boolean hasGame;
+
+    public PresenceData(OnlineStatus onlineStatus, Game game, boolean hasGame)
+    {
+        this.onlineStatus = onlineStatus;
+        this.game = game;
+        this.hasGame = hasGame;
+    }
+
+    /**
+     * The online status, or null if {@link net.dv8tion.jda.core.utils.cache.CacheFlag#ONLINE_STATUS ONLINE_STATUS} is disabled
+     *
+     * @return The status, or null
+     */
+    public OnlineStatus getOnlineStatus()
+    {
+        return onlineStatus;
+    }
+
+    public Game getGame()
+    {
+        return game;
+    }
+
+    /**
+     * Whether {@link #getGame()} should be applied, false if the game was not cached or could not be parsed.
+     *
+     * @return True, if the game is present
+     */
+    public boolean hasGame()
+    {
+        return hasGame;
+    }
+}
@@ -39,6 +39,7 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class RoleImpl implements Role
@@ -311,7 +312,11 @@ public class RoleImpl implements Role
 
     public RoleImpl setName(String name)
     {
-        this.name = name;
+        if (!Objects.equals(this.name, name))
+        {
+            this.name = name;
+            ((GuildImpl) getGuild()).updateRoleName(id);
+        }
         return this;
     }
 
@@ -347,7 +352,11 @@ public class RoleImpl implements Role
 
     public RoleImpl setRawPosition(int rawPosition)
     {
-        this.rawPosition = rawPosition;
+        if (this.rawPosition != rawPosition)
+        {
+            this.rawPosition = rawPosition;
+            ((GuildImpl) getGuild()).invalidateRoleOrder();
+        }
         return this;
     }
 }
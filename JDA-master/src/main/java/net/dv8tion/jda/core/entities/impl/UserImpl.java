@@ -30,6 +30,7 @@ import org.json.JSONObject;
 import java.util.FormattableFlags;
 import java.util.Formatter;
 import java.util.List;
+import java.util.Objects;
 
 public class UserImpl implements User
 {
@@ -198,7 +199,11 @@ public class UserImpl implements User
 
     public UserImpl setName(String name)
     {
-        this.name = name;
+        if (!Objects.equals(this.name, name))
+        {
+            this.name = name;
+            getJDA().updateUserName(id);
+        }
         return this;
     }
 
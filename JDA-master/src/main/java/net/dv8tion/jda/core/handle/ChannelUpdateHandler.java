@@ -32,6 +32,7 @@ import net.dv8tion.jda.core.events.channel.category.update.CategoryUpdatePositio
 import net.dv8tion.jda.core.events.channel.text.update.*;
 import net.dv8tion.jda.core.events.channel.voice.update.*;
 import net.dv8tion.jda.core.utils.Helpers;
+import net.dv8tion.jda.core.utils.cache.CacheFlag;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -330,11 +331,15 @@ public class ChannelUpdateHandler extends SocketHandler
             }
             case "member":
             {
+                if (!getJDA().isCacheFlagSet(CacheFlag.MEMBER_OVERRIDES) && id != getJDA().getSelfUser().getIdLong())
+                    return;
                 permHolder = channel.getGuild().getMemberById(id);
                 if (permHolder == null)
                 {
                     getJDA().getEventCache().cache(EventCache.Type.USER, id, responseNumber, allContent, (a, b) ->
                             handlePermissionOverride(override, channel, content, changedPermHolders, containedPermHolders));
+                    // the event is replayed once the requested member arrives
+                    getJDA().getMemberLoader().request(channel.getGuild().getIdLong(), id);
                     EventCache.LOG.debug("CHANNEL_UPDATE attempted to create or update a PermissionOverride for Member that doesn't exist in this Guild! MemberId: {} JSON: {}", id, content);
                     return;
                 }
@@ -15,122 +15,253 @@
  */
 package net.dv8tion.jda.core.handle;
 
-import gnu.trove.iterator.TLongObjectIterator;
-import gnu.trove.map.TLongObjectMap;
-import gnu.trove.map.hash.TLongObjectHashMap;
 import net.dv8tion.jda.core.utils.CacheConsumer;
+import net.dv8tion.jda.core.utils.Checks;
 import net.dv8tion.jda.core.utils.JDALogger;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Holds events which reference entities that are not cached yet, until the entity is created or the event expires.
+ *
+ * <p>Events are stored twice: in a map per {@link Type} which is used to replay the events of one entity,
+ * and in a ring buffer in the order they were cached, which is used to expire events. Since the events are cached with
+ * increasing sequence numbers, expired events are always at the start of the ring and {@link #timeout(long)} only
+ * visits the events it removes. Events which were replayed or cleared stay in the ring until they reach its start,
+ * without their payload.
+ *
+ * <p>The ring holds at most {@link #getMaxSize() max size} events, once it is full the oldest event is dropped.
+ */
 public class EventCache
 {
     public static final Logger LOG = JDALogger.getLog(EventCache.class);
     /** Sequence difference after which events will be removed from cache */
     public static final long TIMEOUT_AMOUNT = 100;
-    private final Map<Type, TLongObjectMap<List<CacheNode>>> eventCache = new HashMap<>();
+    /** The default maximum amount of events held by a cache */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final Map<Type, ConcurrentMap<Long, List<CacheNode>>> eventCache = new EnumMap<>(Type.class);
+    private final int maxSize;
+    // ring buffer of the cached events in insertion order, guarded by itself
+    private final Object ringLock = new Object();
+    private CacheNode[] ring = new CacheNode[64];
+    private int ringHead = 0;
+    private int ringSize = 0;
 
-    public synchronized void timeout(final long responseTotal)
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public EventCache()
     {
-        if (eventCache.isEmpty())
-            return;
-        AtomicInteger count = new AtomicInteger();
-        eventCache.forEach((type, map) ->
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public EventCache(int maxSize)
+    {
+        Checks.check(maxSize > 0, "Max size must be at least 1");
+        this.maxSize = maxSize;
+        for (Type type : Type.values())
+            eventCache.put(type, new ConcurrentHashMap<>());
+    }
+
+    public void timeout(final long responseTotal)
+    {
+        List<CacheNode> removed = new ArrayList<>();
+        synchronized (ringLock)
         {
-            if (map.isEmpty())
-                return;
-            TLongObjectIterator<List<CacheNode>> iterator = map.iterator();
-            while (iterator.hasNext())
+            while (ringSize > 0)
             {
-                iterator.advance();
-                long triggerId = iterator.key();
-                List<CacheNode> cache = iterator.value();
+                CacheNode node = ring[ringHead];
                 //Remove when this node is more than 100 events ago
-                cache.removeIf(node ->
+                if (!node.isDone() && responseTotal - node.responseTotal <= TIMEOUT_AMOUNT)
+                    break;
+                removeHead();
+                final String event = node.event;
+                if (node.claim())
                 {
-                    boolean remove = responseTotal - node.responseTotal > TIMEOUT_AMOUNT;
-                    if (remove)
-                    {
-                        count.incrementAndGet();
-                        LOG.trace("Removing type {}/{} from event cache with payload {}", type, triggerId, node.event);
-                    }
-                    return remove;
-                });
-                if (cache.isEmpty())
-                    iterator.remove();
+                    LOG.trace("Removing type {}/{} from event cache with payload {}", node.type, node.triggerId, event);
+                    removed.add(node);
+                }
             }
-        });
-        int amount = count.get();
+        }
+
+        removed.forEach(this::unlink);
+        int amount = removed.size();
         if (amount > 0)
+        {
+            expired.addAndGet(amount);
             LOG.debug("Removed {} events from cache that were too old to be recycled", amount);
+        }
     }
 
-    public synchronized void cache(Type type, long triggerId, long responseTotal, JSONObject event, CacheConsumer handler)
+    public void cache(Type type, long triggerId, long responseTotal, JSONObject event, CacheConsumer handler)
     {
-        TLongObjectMap<List<CacheNode>> triggerCache =
-                eventCache.computeIfAbsent(type, k -> new TLongObjectHashMap<>());
+        final CacheNode node = new CacheNode(type, triggerId, responseTotal, event, handler);
+        size.incrementAndGet();
+        eventCache.get(type).compute(triggerId, (id, items) ->
+        {
+            if (items == null)
+                items = new ArrayList<>(2);
+            items.add(node);
+            return items;
+        });
 
-        List<CacheNode> items = triggerCache.get(triggerId);
-        if (items == null)
+        CacheNode oldest = null;
+        synchronized (ringLock)
         {
-            items = new LinkedList<>();
-            triggerCache.put(triggerId, items);
+            if (ringSize == maxSize)
+                oldest = removeHead();
+            else if (ringSize == ring.length)
+                grow();
+            ring[(ringHead + ringSize++) % ring.length] = node;
         }
 
-        items.add(new CacheNode(responseTotal, event, handler));
+        if (oldest != null && oldest.claim())
+        {
+            unlink(oldest);
+            // Print warning for the first dropped event and every 1000 after
+            long amount = dropped.incrementAndGet();
+            if (amount % 1000 == 1)
+            {
+                LOG.warn("Dropped an event from the EventCache because it holds {} events. Type: {} Id: {} Dropped: {}",
+                    maxSize, oldest.type, oldest.triggerId, amount);
+            }
+        }
     }
 
-    public synchronized void playbackCache(Type type, long triggerId)
+    public void playbackCache(Type type, long triggerId)
     {
-        List<CacheNode> items;
-        try
-        {
-            items = eventCache.get(type).remove(triggerId);
-        }
-        catch (NullPointerException e)
-        {
-            //If we encounter an NPE that means something didn't exist.
+        if (size.get() == 0)
+            return;
+        List<CacheNode> items = eventCache.get(type).remove(triggerId);
+        if (items == null || items.isEmpty())
             return;
-        }
 
-        if (items != null && !items.isEmpty())
+        EventCache.LOG.debug("Replaying {} events from the EventCache for type {} with id: {}",
+            items.size(), type, triggerId);
+        for (CacheNode item : items)
         {
-            EventCache.LOG.debug("Replaying {} events from the EventCache for type {} with id: {}",
-                items.size(), type, triggerId);
-            List<CacheNode> itemsCopy = new LinkedList<>(items);
-            items.clear();
-            for (CacheNode item : itemsCopy)
-                item.execute();
+            // the event might have expired in the meantime
+            final long responseTotal = item.responseTotal;
+            final String event = item.event;
+            final CacheConsumer callback = item.callback;
+            if (item.claim())
+            {
+                replayed.incrementAndGet();
+                callback.execute(responseTotal, new JSONObject(event));
+            }
         }
     }
 
-    public synchronized int size()
+    /**
+     * The amount of events that are currently held.
+     *
+     * @return The amount of events
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    /**
+     * The maximum amount of events held, older events are dropped once it is reached.
+     *
+     * @return The maximum amount of events
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * The total amount of events that were replayed, because their entity was created.
+     *
+     * @return The amount of replayed events
+     */
+    public long getReplayedCount()
     {
-        return (int) eventCache.values().stream()
-                .mapToLong(typeMap ->
-                    typeMap.valueCollection().stream().mapToLong(List::size).sum())
-                .sum();
+        return replayed.get();
     }
 
-    public synchronized void clear()
+    /**
+     * The total amount of events that were removed by {@link #timeout(long)}.
+     *
+     * @return The amount of expired events
+     */
+    public long getExpiredCount()
     {
-        eventCache.clear();
+        return expired.get();
     }
 
-    public synchronized void clear(Type type, long id)
+    /**
+     * The total amount of events that were dropped, because the cache held {@link #getMaxSize() max size} events.
+     *
+     * @return The amount of dropped events
+     */
+    public long getDroppedCount()
     {
-        try
+        return dropped.get();
+    }
+
+    public void clear()
+    {
+        synchronized (ringLock)
         {
-            List<CacheNode> events = eventCache.get(type).remove(id);
-            LOG.debug("Clearing cache for type {} with ID {} (Size: {})", type, id, events.size());
+            for (int i = 0; i < ringSize; i++)
+                ring[(ringHead + i) % ring.length].claim();
+            ring = new CacheNode[64];
+            ringHead = 0;
+            ringSize = 0;
         }
-        catch (NullPointerException ignored) {}
+        eventCache.values().forEach(Map::clear);
+    }
+
+    public void clear(Type type, long id)
+    {
+        List<CacheNode> events = eventCache.get(type).remove(id);
+        if (events == null)
+            return;
+        LOG.debug("Clearing cache for type {} with ID {} (Size: {})", type, id, events.size());
+        events.forEach(CacheNode::claim);
+    }
+
+    private CacheNode removeHead()
+    {
+        CacheNode node = ring[ringHead];
+        ring[ringHead] = null;
+        ringHead = (ringHead + 1) % ring.length;
+        ringSize--;
+        return node;
+    }
+
+    private void grow()
+    {
+        CacheNode[] grown = new CacheNode[Math.min(ring.length * 2, maxSize)];
+        for (int i = 0; i < ringSize; i++)
+            grown[i] = ring[(ringHead + i) % ring.length];
+        ring = grown;
+        ringHead = 0;
+    }
+
+    private void unlink(CacheNode node)
+    {
+        eventCache.get(node.type).computeIfPresent(node.triggerId, (id, items) ->
+        {
+            items.remove(node);
+            return items.isEmpty() ? null : items;
+        });
     }
 
     public enum Type
@@ -140,20 +271,40 @@ public class EventCache
 
     private class CacheNode
     {
+        private final Type type;
+        private final long triggerId;
         private final long responseTotal;
-        private final JSONObject event;
-        private final CacheConsumer callback;
+        private final AtomicBoolean done = new AtomicBoolean();
+        // the JSON text, the parsed object is several times larger
+        private volatile String event;
+        private volatile CacheConsumer callback;
 
-        public CacheNode(long responseTotal, JSONObject event, CacheConsumer callback)
+        public CacheNode(Type type, long triggerId, long responseTotal, JSONObject event, CacheConsumer callback)
         {
+            this.type = type;
+            this.triggerId = triggerId;
             this.responseTotal = responseTotal;
-            this.event = event;
+            this.event = event.toString();
             this.callback = callback;
         }
 
-        void execute()
+        boolean isDone()
+        {
+            return done.get();
+        }
+
+        /**
+         * Removes this node from the cache, only the first call succeeds.
+         * <br>Releases the payload, the node might still be referenced by the ring.
+         */
+        boolean claim()
         {
-            callback.execute(responseTotal, event);
+            if (!done.compareAndSet(false, true))
+                return false;
+            size.decrementAndGet();
+            event = null;
+            callback = null;
+            return true;
         }
     }
 }
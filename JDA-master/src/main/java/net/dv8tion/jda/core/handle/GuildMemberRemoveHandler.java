@@ -61,7 +61,7 @@ public class GuildMemberRemoveHandler extends SocketHandler
             return null;
         }
 
-        GuildVoiceStateImpl voiceState = (GuildVoiceStateImpl) member.getVoiceState();
+        GuildVoiceStateImpl voiceState = member.getCachedVoiceState();
         if (voiceState != null && voiceState.inVoiceChannel())//If this user was in a VoiceChannel, fire VoiceLeaveEvent.
         {
             VoiceChannel channel = voiceState.getChannel();
@@ -58,9 +58,11 @@ public class GuildMemberUpdateHandler extends SocketHandler
         {
             long hashId = id ^ userId;
             getJDA().getEventCache().cache(EventCache.Type.MEMBER, hashId, responseNumber, allContent, this::handle);
+            getJDA().getMemberLoader().request(id, userId);
             EventCache.LOG.debug("Got GuildMember update but Member is not currently present in Guild. HASH_ID: {} JSON: {}", hashId, content);
             return null;
         }
+        getJDA().getMemberLoader().touch(member);
 
         Set<Role> currentRoles = member.getRoleSet();
         List<Role> newRoles = toRolesList(guild, content.getJSONArray("roles"));
@@ -61,7 +61,7 @@ public class GuildRoleDeleteHandler extends SocketHandler
         for (Member m : guild.getMembersMap().valueCollection())
         {
             MemberImpl member = (MemberImpl) m;
-            member.getRoleSet().remove(removedRole);
+            member.removeRole(roleId);
         }
 
         for (Emote emote : guild.getEmoteCache())
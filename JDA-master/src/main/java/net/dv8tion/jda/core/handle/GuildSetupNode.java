@@ -18,7 +18,9 @@ package net.dv8tion.jda.core.handle;
 
 import gnu.trove.iterator.TLongIterator;
 import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.TLongIntMap;
 import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongIntHashMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
@@ -27,6 +29,7 @@ import net.dv8tion.jda.core.audio.hooks.ConnectionStatus;
 import net.dv8tion.jda.core.entities.VoiceChannel;
 import net.dv8tion.jda.core.entities.impl.GuildImpl;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.entities.impl.MemberData;
 import net.dv8tion.jda.core.events.guild.GuildJoinEvent;
 import net.dv8tion.jda.core.events.guild.GuildReadyEvent;
 import net.dv8tion.jda.core.managers.AudioManager;
@@ -37,16 +40,38 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 public class GuildSetupNode
 {
+    /** The maximum amount of characters of the events that are cached until the guild is ready, exceeding it compacts the cached events */
+    public static final long MAX_CACHED_EVENT_CHARS = 8 * 1024 * 1024;
+    // events which only fire listener events, apart from the last message id of a channel they do not change the cache
+    private static final Set<String> NOTIFICATION_EVENTS = new HashSet<>(Arrays.asList(
+        "MESSAGE_CREATE", "MESSAGE_UPDATE", "MESSAGE_DELETE", "MESSAGE_DELETE_BULK",
+        "MESSAGE_REACTION_ADD", "MESSAGE_REACTION_REMOVE", "MESSAGE_REACTION_REMOVE_ALL",
+        "TYPING_START", "GUILD_BAN_ADD", "GUILD_BAN_REMOVE"));
+
     private final long id;
     private final UpstreamReference<GuildSetupController> controller;
-    private final List<JSONObject> cachedEvents = new LinkedList<>();
-    private TLongObjectMap<JSONObject> members;
+    // events are held as their JSON text, which is much smaller than the parsed objects
+    // events replaced by a newer update of the same member are set to null
+    private final List<String> cachedEvents = new ArrayList<>();
+    private long cachedEventChars = 0;
+    private int replacedEvents = 0;
+    private int droppedEvents = 0;
+    // set once the cached events exceeded their budget, see compactEvents()
+    private boolean compacted = false;
+    // index of the latest cached event per user, only used once compacted
+    private TLongIntMap cachedPresences;
+    private TLongIntMap cachedMemberUpdates;
+    private TLongObjectMap<MemberData> members;
     private TLongSet removedMembers;
     private JSONObject partialGuild;
     private int expectedMemberCount = 1;
@@ -87,6 +112,30 @@ public class GuildSetupNode
         return expectedMemberCount;
     }
 
+    public int getCachedEventCount()
+    {
+        return cachedEvents.size() - replacedEvents;
+    }
+
+    public long getCachedEventChars()
+    {
+        return cachedEventChars;
+    }
+
+    /**
+     * The amount of events that were discarded, because the cached events exceeded {@link #MAX_CACHED_EVENT_CHARS}.
+     * <br>Once that happens, events which only fire listener events (messages, reactions, typing and bans) are discarded
+     * and only the latest presence and member update of every member is kept. Presence and member updates of other
+     * members are discarded while the budget is still exceeded, those members are outdated until their next update.
+     * All other events are kept, since the cache would be inconsistent without them.
+     *
+     * @return The amount of discarded events
+     */
+    public int getDroppedEventCount()
+    {
+        return droppedEvents;
+    }
+
     public int getCurrentMemberCount()
     {
         TLongHashSet knownMembers = new TLongHashSet(members.keySet());
@@ -182,6 +231,12 @@ public class GuildSetupNode
         if (removedMembers != null)
             removedMembers.clear();
         cachedEvents.clear();
+        cachedEventChars = 0;
+        replacedEvents = 0;
+        droppedEvents = 0;
+        compacted = false;
+        cachedPresences = null;
+        cachedMemberUpdates = null;
     }
 
     void handleReady(JSONObject obj)
@@ -264,9 +319,8 @@ public class GuildSetupNode
         }
         for (Object o : arr)
         {
-            JSONObject obj = (JSONObject) o;
-            long id = obj.getJSONObject("user").getLong("id");
-            members.put(id, obj);
+            MemberData member = MemberData.fromJson((JSONObject) o);
+            members.put(member.getUserId(), member);
         }
 
         if (members.size() >= expectedMemberCount)
@@ -282,9 +336,9 @@ public class GuildSetupNode
         if (members == null || removedMembers == null)
             return;
         expectedMemberCount++;
-        long userId = member.getJSONObject("user").getLong("id");
-        members.put(userId, member);
-        removedMembers.remove(userId);
+        MemberData data = MemberData.fromJson(member);
+        members.put(data.getUserId(), data);
+        removedMembers.remove(data.getUserId());
     }
 
     void handleRemoveMember(JSONObject member)
@@ -302,11 +356,26 @@ public class GuildSetupNode
 
     void cacheEvent(JSONObject event)
     {
-        GuildSetupController.log.trace("Caching {} event during init. GuildId: {}", event.getString("t"), id);
-        cachedEvents.add(event);
+        final String type = event.getString("t");
+        GuildSetupController.log.trace("Caching {} event during init. GuildId: {}", type, id);
+        if (compacted && NOTIFICATION_EVENTS.contains(type))
+        {
+            droppedEvents++;
+            return;
+        }
+        String serialized = event.toString();
+        if (!compacted && cachedEventChars + serialized.length() > MAX_CACHED_EVENT_CHARS)
+            compactEvents();
+        if (compacted && (NOTIFICATION_EVENTS.contains(type) || !replaceMemberEvent(type, event, serialized.length())))
+        {
+            droppedEvents++;
+            return;
+        }
+        cachedEvents.add(serialized);
+        cachedEventChars += serialized.length();
         //Check if more than 2000 events cached - suspicious
         // Print warning every 1000 events
-        int cacheSize = cachedEvents.size();
+        int cacheSize = getCachedEventCount();
         if (cacheSize >= 2000 && cacheSize % 1000 == 0)
         {
             GuildSetupController.log.warn(
@@ -315,6 +384,73 @@ public class GuildSetupNode
         }
     }
 
+    /**
+     * Discards the cached events which only fire listener events and all but the latest presence and member update
+     * of every member. The remaining events are replayed in their original order.
+     * <br>This is done once per setup, afterwards the same rules are applied to every new event.
+     */
+    private void compactEvents()
+    {
+        compacted = true;
+        cachedPresences = new TLongIntHashMap(16, 0.5f, 0, -1);
+        cachedMemberUpdates = new TLongIntHashMap(16, 0.5f, 0, -1);
+        List<String> events = new ArrayList<>(cachedEvents);
+        final int size = events.size() - replacedEvents;
+        cachedEvents.clear();
+        cachedEventChars = 0;
+        replacedEvents = 0;
+        for (String serialized : events)
+        {
+            if (serialized == null)
+                continue;
+            JSONObject event = new JSONObject(serialized);
+            String type = event.getString("t");
+            // the remaining events are never more than the budget, so nothing is rejected here
+            if (NOTIFICATION_EVENTS.contains(type) || !replaceMemberEvent(type, event, serialized.length()))
+            {
+                droppedEvents++;
+                continue;
+            }
+            cachedEvents.add(serialized);
+            cachedEventChars += serialized.length();
+        }
+        GuildSetupController.log.warn(
+            "Cached events exceed {} characters during guild setup, compacted {} events to {}. GuildId: {}",
+            MAX_CACHED_EVENT_CHARS, size, getCachedEventCount(), id);
+    }
+
+    /**
+     * Replaces the cached presence or member update of the same member with the provided event,
+     * which is added at the end of the cached events by the caller.
+     *
+     * @return False, if the event is a presence or member update which exceeds the budget and has to be discarded
+     */
+    private boolean replaceMemberEvent(String type, JSONObject event, int length)
+    {
+        final TLongIntMap latest;
+        if (type.equals("PRESENCE_UPDATE"))
+            latest = cachedPresences;
+        else if (type.equals("GUILD_MEMBER_UPDATE"))
+            latest = cachedMemberUpdates;
+        else
+            return true; // all other events are required to keep the cache consistent
+        final long userId = event.getJSONObject("d").getJSONObject("user").getLong("id");
+        final int index = latest.get(userId);
+        if (index >= 0)
+        {
+            // both updates carry the complete state of the member, the older one is obsolete
+            cachedEventChars -= cachedEvents.set(index, null).length();
+            replacedEvents++;
+            droppedEvents++;
+        }
+        else if (cachedEventChars + length > MAX_CACHED_EVENT_CHARS)
+        {
+            return false;
+        }
+        latest.put(userId, cachedEvents.size());
+        return true;
+    }
+
     void cleanup()
     {
         updateStatus(GuildSetupController.Status.REMOVED);
@@ -347,7 +483,7 @@ public class GuildSetupNode
 
         if (members != null)
         {
-            for (TLongObjectIterator<JSONObject> it = members.iterator(); it.hasNext();)
+            for (TLongObjectIterator<MemberData> it = members.iterator(); it.hasNext();)
             {
                 it.advance();
                 long userId = it.key();
@@ -365,6 +501,7 @@ public class GuildSetupNode
             members.remove(it.next());
         removedMembers.clear();
         GuildImpl guild = api.getEntityBuilder().createGuild(id, partialGuild, members);
+        members.clear();
         updateAudioManagerReference(guild);
         if (join)
         {
@@ -380,8 +517,17 @@ public class GuildSetupNode
             getController().ready(id);
         }
         updateStatus(GuildSetupController.Status.READY);
-        GuildSetupController.log.debug("Finished setup for guild {} firing cached events {}", id, cachedEvents.size());
-        api.getClient().handle(cachedEvents);
+        GuildSetupController.log.debug("Finished setup for guild {} firing cached events {}", id, getCachedEventCount());
+        if (compacted)
+            GuildSetupController.log.warn("Finished setup for guild {} after discarding {} cached events", id, droppedEvents);
+        cachedEvents.removeIf(Objects::isNull);
+        api.getClient().handleSerialized(cachedEvents);
+        cachedEvents.clear();
+        cachedEventChars = 0;
+        replacedEvents = 0;
+        compacted = false;
+        cachedPresences = null;
+        cachedMemberUpdates = null;
         api.getEventCache().playbackCache(EventCache.Type.GUILD, id);
     }
 
@@ -390,8 +536,21 @@ public class GuildSetupNode
         expectedMemberCount = partialGuild.getInt("member_count");
         members = new TLongObjectHashMap<>(expectedMemberCount);
         removedMembers = new TLongHashSet();
-        JSONArray memberArray = partialGuild.getJSONArray("members");
-        if (memberArray.length() < expectedMemberCount && !requestedChunk)
+        // the members are only kept as MemberData, a sync or create payload provides them again
+        JSONArray memberArray = (JSONArray) partialGuild.remove("members");
+        if (memberArray == null)
+            memberArray = new JSONArray();
+        if (getController().getJDA().getMemberLoader().isLazy())
+        {
+            // members are loaded on demand, build the guild with the members of the payload
+            for (Object o : memberArray)
+            {
+                MemberData member = MemberData.fromJson((JSONObject) o);
+                members.put(member.getUserId(), member);
+            }
+            completeSetup();
+        }
+        else if (memberArray.length() < expectedMemberCount && !requestedChunk)
         {
             updateStatus(GuildSetupController.Status.CHUNKING);
             getController().addGuildForChunking(id, join);
@@ -0,0 +1,339 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.handle;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.WebSocketCode;
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.Member;
+import net.dv8tion.jda.core.entities.impl.GuildImpl;
+import net.dv8tion.jda.core.entities.impl.GuildVoiceStateImpl;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.entities.impl.MemberImpl;
+import net.dv8tion.jda.core.entities.impl.UserImpl;
+import net.dv8tion.jda.core.utils.JDALogger;
+import net.dv8tion.jda.core.utils.cache.MemberCachePolicy;
+import net.dv8tion.jda.core.utils.cache.UpstreamReference;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link net.dv8tion.jda.core.utils.cache.MemberCachePolicy MemberCachePolicy} of one JDA instance.
+ * <br>Requests missing members in batches and evicts members of guilds that exceed the policy.
+ *
+ * <p>Except for the requests, which are sent from the gateway pool, this is only used by the handlers
+ * on the thread that reads the gateway.
+ */
+public class MemberLoader
+{
+    public static final Logger LOG = JDALogger.getLog(MemberLoader.class);
+    /** The maximum amount of user ids in one member chunk request */
+    public static final int MAX_USER_IDS = 100;
+    /** The time requests are collected before they are sent */
+    protected static final long FLUSH_DELAY = 100;
+
+    private final UpstreamReference<JDAImpl> api;
+    // guild id -> user ids, guarded by itself
+    private final TLongObjectMap<TLongSet> pending = new TLongObjectHashMap<>();
+    // guild id -> time of the last idle check
+    private final TLongLongMap lastSweep = new TLongLongHashMap();
+    private boolean flushScheduled = false;
+    private volatile MemberCachePolicy policy = MemberCachePolicy.ALL;
+
+    public MemberLoader(JDAImpl api)
+    {
+        this.api = new UpstreamReference<>(api);
+    }
+
+    public JDAImpl getJDA()
+    {
+        return api.get();
+    }
+
+    public MemberCachePolicy getPolicy()
+    {
+        return policy;
+    }
+
+    public void setPolicy(MemberCachePolicy policy)
+    {
+        this.policy = policy == null ? MemberCachePolicy.ALL : policy;
+    }
+
+    public boolean isLazy()
+    {
+        return policy.isLazy();
+    }
+
+    /**
+     * Requests the member of the provided user, if members are loaded lazily.
+     * <br>The request is sent together with the other requests of the next {@value #FLUSH_DELAY} milliseconds.
+     * Events which wait for this member should be cached with {@link EventCache.Type#MEMBER}
+     * or {@link EventCache.Type#USER}, they are replayed once the member is received.
+     *
+     * @param guildId
+     *        The id of the guild
+     * @param userId
+     *        The id of the user
+     */
+    public void request(long guildId, long userId)
+    {
+        if (!isLazy())
+            return;
+        synchronized (pending)
+        {
+            TLongSet users = pending.get(guildId);
+            if (users == null)
+                pending.put(guildId, users = new TLongHashSet());
+            users.add(userId);
+            if (!flushScheduled)
+            {
+                flushScheduled = true;
+                getJDA().getGatewayPool().schedule(this::flush, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Marks the provided member as active, this decides which members are evicted first.
+     *
+     * @param member
+     *        The member, may be null
+     */
+    public void touch(Member member)
+    {
+        if (member != null && policy.isEvicting())
+            ((MemberImpl) member).setLastActivity(System.currentTimeMillis());
+    }
+
+    /**
+     * Evicts members of the provided guild if it exceeds the max size or the idle check is due.
+     *
+     * @param guild
+     *        The guild which gained members
+     */
+    public void checkEviction(GuildImpl guild)
+    {
+        final MemberCachePolicy policy = this.policy;
+        if (!policy.isLazy() || !policy.isEvicting())
+            return;
+        final long now = System.currentTimeMillis();
+        final boolean overSize = guild.getMembersMap().size() > policy.getMaxSize();
+        // idle members are checked twice per timeout
+        final boolean sweep = policy.getIdleTimeout() > 0 && now - lastSweep.get(guild.getIdLong()) >= policy.getIdleTimeout() / 2;
+        if (overSize || sweep)
+            evict(guild, policy, now);
+    }
+
+    /**
+     * Evicts the member of the provided user, if the policy evicts members that go offline.
+     *
+     * @param  guild
+     *         The guild of the member
+     * @param  userId
+     *         The id of the user, which is offline
+     *
+     * @return True, if the member was evicted
+     */
+    public boolean evictOffline(GuildImpl guild, long userId)
+    {
+        if (!policy.isEvictingOffline())
+            return false;
+        MemberImpl member = (MemberImpl) guild.getMembersMap().get(userId);
+        if (member == null || !isEvictable(member, getJDA().getSelfUser().getIdLong()))
+            return false;
+        guild.getMembersMap().remove(userId);
+        TLongSet userIds = new TLongHashSet();
+        userIds.add(userId);
+        removeUsers(userIds);
+        return true;
+    }
+
+    /**
+     * Evicts idle members of all guilds whose idle check is due.
+     * <br>Called on every heartbeat acknowledgement, so the idle timeout is also enforced in guilds without new members.
+     */
+    public void sweepIdle()
+    {
+        final MemberCachePolicy policy = this.policy;
+        if (!policy.isLazy() || policy.getIdleTimeout() <= 0)
+            return;
+        final long now = System.currentTimeMillis();
+        for (Guild guild : getJDA().getGuildMap().valueCollection())
+        {
+            if (now - lastSweep.get(guild.getIdLong()) >= policy.getIdleTimeout() / 2)
+                evict((GuildImpl) guild, policy, now);
+        }
+    }
+
+    public void clearCache()
+    {
+        synchronized (pending)
+        {
+            pending.clear();
+        }
+        lastSweep.clear();
+    }
+
+    protected void flush()
+    {
+        final TLongObjectMap<TLongSet> requests;
+        synchronized (pending)
+        {
+            flushScheduled = false;
+            if (pending.isEmpty())
+                return;
+            requests = new TLongObjectHashMap<>(pending);
+            pending.clear();
+        }
+
+        requests.forEachEntry((guildId, users) ->
+        {
+            LOG.debug("Requesting {} members of guild {}", users.size(), guildId);
+            for (TLongIterator it = users.iterator(); it.hasNext();)
+            {
+                JSONArray userIds = new JSONArray();
+                while (it.hasNext() && userIds.length() < MAX_USER_IDS)
+                    userIds.put(it.next());
+                sendRequest(guildId, userIds);
+            }
+            return true;
+        });
+    }
+
+    protected void sendRequest(long guildId, JSONArray userIds)
+    {
+        getJDA().getClient().chunkOrSyncRequest(
+            new JSONObject()
+                .put("op", WebSocketCode.MEMBER_CHUNK_REQUEST)
+                .put("d", new JSONObject()
+                    .put("guild_id", guildId)
+                    .put("user_ids", userIds)
+                    .put("limit", 0)));
+    }
+
+    protected void evict(GuildImpl guild, MemberCachePolicy policy, long now)
+    {
+        final long selfId = getJDA().getSelfUser().getIdLong();
+        final long idleTimeout = policy.getIdleTimeout();
+        final TLongObjectMap<Member> members = guild.getMembersMap();
+        List<MemberImpl> idle = new ArrayList<>();
+        List<MemberImpl> candidates = new ArrayList<>();
+        for (Member m : members.valueCollection())
+        {
+            MemberImpl member = (MemberImpl) m;
+            if (!isEvictable(member, selfId))
+                continue;
+            if (idleTimeout > 0 && now - member.getLastActivity() > idleTimeout)
+                idle.add(member);
+            else
+                candidates.add(member);
+        }
+        if (idleTimeout > 0)
+            lastSweep.put(guild.getIdLong(), now);
+
+        final int size = members.size();
+        TLongSet userIds = new TLongHashSet();
+        for (MemberImpl member : idle)
+            remove(members, member, userIds);
+        if (members.size() > policy.getMaxSize())
+        {
+            // evict a tenth more than necessary, so this does not happen for every new member
+            final int target = policy.getMaxSize() - policy.getMaxSize() / 10;
+            final int count = Math.min(members.size() - target, candidates.size());
+            candidates.sort(Comparator.comparingLong(MemberImpl::getLastActivity));
+            for (MemberImpl member : candidates.subList(0, count))
+                remove(members, member, userIds);
+        }
+        removeUsers(userIds);
+        LOG.trace("Evicted members of guild {}, size {} -> {}", guild.getId(), size, members.size());
+    }
+
+    protected boolean isEvictable(MemberImpl member, long selfId)
+    {
+        final long userId = member.getUser().getIdLong();
+        final GuildVoiceStateImpl voiceState = member.getCachedVoiceState();
+        return userId != selfId && userId != member.getGuild().getOwnerIdLong() && (voiceState == null || !voiceState.inVoiceChannel());
+    }
+
+    protected void remove(TLongObjectMap<Member> members, MemberImpl member, TLongSet userIds)
+    {
+        final long userId = member.getUser().getIdLong();
+        members.remove(userId);
+        userIds.add(userId);
+    }
+
+    /**
+     * Removes the provided users from the user cache, unless they are still members of a guild or have a private channel.
+     * <br>All users are checked in one pass over the guilds, each guild costs at most the smaller of
+     * its member count and the amount of remaining users.
+     *
+     * @param userIds
+     *        The ids of the users that lost a member, this set is modified
+     */
+    protected void removeUsers(TLongSet userIds)
+    {
+        final JDAImpl api = getJDA();
+        for (Guild guild : api.getGuildMap().valueCollection())
+        {
+            if (userIds.isEmpty())
+                return;
+            TLongObjectMap<Member> members = ((GuildImpl) guild).getMembersMap();
+            if (members.size() < userIds.size())
+            {
+                members.forEachKey(userId ->
+                {
+                    userIds.remove(userId);
+                    return true;
+                });
+            }
+            else
+            {
+                for (TLongIterator it = userIds.iterator(); it.hasNext();)
+                {
+                    if (members.containsKey(it.next()))
+                        it.remove();
+                }
+            }
+        }
+
+        for (TLongIterator it = userIds.iterator(); it.hasNext();)
+        {
+            final long userId = it.next();
+            // the user stays cached while it is used by a private channel or a friend
+            UserImpl user = (UserImpl) api.getUserMap().get(userId);
+            if (user == null || user.hasPrivateChannel())
+                continue;
+            if (api.getAccountType() == AccountType.CLIENT && api.asClient().getFriendById(userId) != null)
+                continue;
+            api.getUserMap().remove(userId);
+        }
+    }
+}
@@ -75,6 +75,8 @@ public class MessageCreateHandler extends SocketHandler
                 {
                     final long authorId = content.getJSONObject("author").getLong("id");
                     getJDA().getEventCache().cache(EventCache.Type.USER, authorId, responseNumber, allContent, this::handle);
+                    if (!content.isNull("guild_id"))
+                        getJDA().getMemberLoader().request(content.getLong("guild_id"), authorId);
                     EventCache.LOG.debug("Received a message for a user that JDA does not currently have cached");
                     return null;
                 }
@@ -19,11 +19,11 @@ import net.dv8tion.jda.client.JDAClient;
 import net.dv8tion.jda.client.entities.impl.FriendImpl;
 import net.dv8tion.jda.core.AccountType;
 import net.dv8tion.jda.core.OnlineStatus;
-import net.dv8tion.jda.core.entities.EntityBuilder;
 import net.dv8tion.jda.core.entities.Game;
 import net.dv8tion.jda.core.entities.impl.GuildImpl;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.entities.impl.MemberImpl;
+import net.dv8tion.jda.core.entities.impl.PresenceData;
 import net.dv8tion.jda.core.entities.impl.UserImpl;
 import net.dv8tion.jda.core.events.user.update.*;
 import net.dv8tion.jda.core.utils.cache.CacheFlag;
@@ -81,49 +81,46 @@ public class PresenceUpdateHandler extends SocketHandler
                 {
                     String oldUsername = user.getName();
                     user.setName(name);
-                    getJDA().getEventManager().handle(
-                        new UserUpdateNameEvent(
-                            getJDA(), responseNumber,
-                            user, oldUsername));
+                    if (getJDA().getEventManager().isInterested(UserUpdateNameEvent.class))
+                        getJDA().getEventManager().handle(
+                            new UserUpdateNameEvent(
+                                getJDA(), responseNumber,
+                                user, oldUsername));
                 }
                 if (!user.getDiscriminator().equals(discriminator))
                 {
                     String oldDiscriminator = user.getDiscriminator();
                     user.setDiscriminator(discriminator);
-                    getJDA().getEventManager().handle(
-                        new UserUpdateDiscriminatorEvent(
-                            getJDA(), responseNumber,
-                            user, oldDiscriminator));
+                    if (getJDA().getEventManager().isInterested(UserUpdateDiscriminatorEvent.class))
+                        getJDA().getEventManager().handle(
+                            new UserUpdateDiscriminatorEvent(
+                                getJDA(), responseNumber,
+                                user, oldDiscriminator));
                 }
                 if (!Objects.equals(avatarId, oldAvatar))
                 {
                     String oldAvatarId = user.getAvatarId();
                     user.setAvatarId(avatarId);
-                    getJDA().getEventManager().handle(
-                        new UserUpdateAvatarEvent(
-                            getJDA(), responseNumber,
-                            user, oldAvatarId));
+                    if (getJDA().getEventManager().isInterested(UserUpdateAvatarEvent.class))
+                        getJDA().getEventManager().handle(
+                            new UserUpdateAvatarEvent(
+                                getJDA(), responseNumber,
+                                user, oldAvatarId));
                 }
             }
 
             //Now that we've update the User's info, lets see if we need to set the specific Presence information.
             // This is stored in the Member or Relation objects.
-            final JSONObject game = !getJDA().isCacheFlagSet(CacheFlag.GAME) || content.isNull("game") ? null : content.optJSONObject("game");
-            Game nextGame = null;
-            boolean parsedGame = false;
-            try
-            {
-                nextGame = game == null ? null : EntityBuilder.createGame(game);
-                parsedGame = true;
-            }
-            catch (Exception ex)
-            {
-                if (EntityBuilder.LOG.isDebugEnabled())
-                    EntityBuilder.LOG.warn("Encountered exception trying to parse a presence! UserID: {} JSON: {}", userId, game, ex);
-                else
-                    EntityBuilder.LOG.warn("Encountered exception trying to parse a presence! UserID: {} Message: {} Enable debug for details", userId, ex.getMessage());
-            }
             OnlineStatus status = OnlineStatus.fromKey(content.getString("status"));
+            if (guild != null && status == OnlineStatus.OFFLINE && getJDA().getMemberLoader().evictOffline(guild, userId))
+                return null;
+            final boolean cacheGame = getJDA().isCacheFlagSet(CacheFlag.GAME);
+            final boolean cacheStatus = getJDA().isCacheFlagSet(CacheFlag.ONLINE_STATUS);
+            if (!cacheGame && !cacheStatus)
+                return null; // presences are not cached, there is nothing to parse
+            final PresenceData presence = getJDA().getEntityBuilder().createPresenceData(userId, content);
+            final Game nextGame = presence.getGame();
+            final boolean parsedGame = presence.hasGame();
 
             //If we are in a Guild, then we will use Member.
             // If we aren't we'll be dealing with the Relation system.
@@ -142,30 +139,32 @@ public class PresenceUpdateHandler extends SocketHandler
                     //Cache the presence and return to finish up.
                     if (status != OnlineStatus.OFFLINE)
                     {
-                        guild.getCachedPresenceMap().put(userId, content);
+                        cachePresence(guild, userId, presence);
                         return null;
                     }
                 }
                 else
                 {
                     //The member is already cached, so modify the presence values and fire events as needed.
-                    if (!member.getOnlineStatus().equals(status))
+                    if (cacheStatus && !member.getOnlineStatus().equals(status))
                     {
                         OnlineStatus oldStatus = member.getOnlineStatus();
                         member.setOnlineStatus(status);
-                        getJDA().getEventManager().handle(
-                            new UserUpdateOnlineStatusEvent(
-                                getJDA(), responseNumber,
-                                user, guild, oldStatus));
+                        if (getJDA().getEventManager().isInterested(UserUpdateOnlineStatusEvent.class))
+                            getJDA().getEventManager().handle(
+                                new UserUpdateOnlineStatusEvent(
+                                    getJDA(), responseNumber,
+                                    user, guild, oldStatus));
                     }
                     if (parsedGame && !Objects.equals(member.getGame(), nextGame))
                     {
                         Game oldGame = member.getGame();
                         member.setGame(nextGame);
-                        getJDA().getEventManager().handle(
-                            new UserUpdateGameEvent(
-                                getJDA(), responseNumber,
-                                user, guild, oldGame));
+                        if (getJDA().getEventManager().isInterested(UserUpdateGameEvent.class))
+                            getJDA().getEventManager().handle(
+                                new UserUpdateGameEvent(
+                                    getJDA(), responseNumber,
+                                    user, guild, oldGame));
                     }
                 }
             }
@@ -179,23 +178,25 @@ public class PresenceUpdateHandler extends SocketHandler
 
                 if (friend != null)
                 {
-                    if (!friend.getOnlineStatus().equals(status))
+                    if (cacheStatus && !friend.getOnlineStatus().equals(status))
                     {
                         OnlineStatus oldStatus = friend.getOnlineStatus();
                         friend.setOnlineStatus(status);
-                        getJDA().getEventManager().handle(
-                            new UserUpdateOnlineStatusEvent(
-                                getJDA(), responseNumber,
-                                user, null, oldStatus));
+                        if (getJDA().getEventManager().isInterested(UserUpdateOnlineStatusEvent.class))
+                            getJDA().getEventManager().handle(
+                                new UserUpdateOnlineStatusEvent(
+                                    getJDA(), responseNumber,
+                                    user, null, oldStatus));
                     }
                     if (parsedGame && !Objects.equals(friend.getGame(), nextGame))
                     {
                         Game oldGame = friend.getGame();
                         friend.setGame(nextGame);
-                        getJDA().getEventManager().handle(
-                            new UserUpdateGameEvent(
-                                getJDA(), responseNumber,
-                                user, null, oldGame));
+                        if (getJDA().getEventManager().isInterested(UserUpdateGameEvent.class))
+                            getJDA().getEventManager().handle(
+                                new UserUpdateGameEvent(
+                                    getJDA(), responseNumber,
+                                    user, null, oldGame));
                     }
                 }
             }
@@ -214,9 +215,17 @@ public class PresenceUpdateHandler extends SocketHandler
             OnlineStatus status = OnlineStatus.fromKey(content.getString("status"));
 
             //If this was for a Guild, cache it in the Guild for later use in GUILD_MEMBER_ADD
-            if (status != OnlineStatus.OFFLINE && guild != null)
-                guild.getCachedPresenceMap().put(userId, content);
+            if (status != OnlineStatus.OFFLINE && guild != null
+                && (getJDA().isCacheFlagSet(CacheFlag.GAME) || getJDA().isCacheFlagSet(CacheFlag.ONLINE_STATUS)))
+                cachePresence(guild, userId, getJDA().getEntityBuilder().createPresenceData(userId, content));
         }
         return null;
     }
+
+    private void cachePresence(GuildImpl guild, long userId, PresenceData presence)
+    {
+        if (!guild.cachePresence(userId, presence))
+            EventCache.LOG.debug("Dropped presence for uncached member, guild already holds {} presences. GuildId: {} UserId: {} Dropped: {}",
+                GuildImpl.MAX_CACHED_PRESENCES, guild.getId(), userId, guild.getDroppedPresenceCount());
+    }
 }
@@ -45,6 +45,18 @@ public abstract class SocketHandler
         return api.get();
     }
 
+    /**
+     * Whether payloads for this handler can be dropped without being parsed.
+     * <br>The {@link net.dv8tion.jda.core.requests.WebSocketClient WebSocketClient} checks this
+     * before materializing the json tree of a dispatch.
+     *
+     * @return True, if this handler has no effect on the cache or event system
+     */
+    public boolean isSkippable()
+    {
+        return false;
+    }
+
     /**
      * Handles a given data-json of the Event handled by this Handler.
      * @param content
@@ -61,6 +73,12 @@ public abstract class SocketHandler
             super(api);
         }
 
+        @Override
+        public boolean isSkippable()
+        {
+            return true;
+        }
+
         @Override
         protected Long handleInternally(JSONObject content)
         {
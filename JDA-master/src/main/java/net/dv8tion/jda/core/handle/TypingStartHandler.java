@@ -37,9 +37,18 @@ public class TypingStartHandler extends SocketHandler
         super(api);
     }
 
+    @Override
+    public boolean isSkippable()
+    {
+        // typing does not touch the cache, without a listener there is nothing to do
+        return !getJDA().getEventManager().isInterested(UserTypingEvent.class);
+    }
+
     @Override
     protected Long handleInternally(JSONObject content)
     {
+        if (isSkippable())
+            return null;
         if (!content.isNull("guild_id"))
         {
             long guildId = content.getLong("guild_id");
@@ -26,6 +26,7 @@ import net.dv8tion.jda.client.events.call.voice.CallVoiceLeaveEvent;
 import net.dv8tion.jda.client.events.call.voice.CallVoiceSelfDeafenEvent;
 import net.dv8tion.jda.client.events.call.voice.CallVoiceSelfMuteEvent;
 import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.impl.GuildImpl;
 import net.dv8tion.jda.core.entities.impl.GuildVoiceStateImpl;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.entities.impl.MemberImpl;
@@ -87,6 +88,10 @@ public class VoiceStateUpdateHandler extends SocketHandler
         }
 
         MemberImpl member = (MemberImpl) guild.getMemberById(userId);
+        if (member == null && content.has("member") && getJDA().getMemberLoader().isLazy())
+            member = (MemberImpl) getJDA().getEntityBuilder().createMember((GuildImpl) guild, content.getJSONObject("member"));
+        else
+            getJDA().getMemberLoader().touch(member);
         if (member == null)
         {
             //Caching of this might not be valid. It is possible that we received this
@@ -101,11 +106,12 @@ public class VoiceStateUpdateHandler extends SocketHandler
             // GUILD_MEMBER_ADD and VOICE_STATE_UPDATE. I'll take some bad-data events over an invalid cache.
             long idHash = guildId ^ userId;
             getJDA().getEventCache().cache(EventCache.Type.MEMBER, idHash, responseNumber, allContent, this::handle);
+            getJDA().getMemberLoader().request(guildId, userId);
             EventCache.LOG.debug("Received VOICE_STATE_UPDATE for a Member that has yet to be cached. HASH_ID: {} JSON: {}", idHash, content);
             return;
         }
 
-        GuildVoiceStateImpl vState = (GuildVoiceStateImpl) member.getVoiceState();
+        GuildVoiceStateImpl vState = member.getOrCreateVoiceState();
         if (vState == null)
             return;
         vState.setSessionId(sessionId); //Cant really see a reason for an event for this
@@ -195,6 +201,7 @@ public class VoiceStateUpdateHandler extends SocketHandler
             getJDA().getEventManager().handle(new GuildVoiceMuteEvent(getJDA(), responseNumber, member));
         if (wasDeaf != vState.isDeafened())
             getJDA().getEventManager().handle(new GuildVoiceDeafenEvent(getJDA(), responseNumber, member));
+        member.releaseVoiceState();
     }
 
     private void handleCallVoiceState(JSONObject content)
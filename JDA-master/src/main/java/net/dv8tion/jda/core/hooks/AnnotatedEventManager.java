@@ -18,10 +18,14 @@ package net.dv8tion.jda.core.hooks;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.events.Event;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation for {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager}
@@ -47,97 +51,152 @@ import java.util.*;
  */
 public class AnnotatedEventManager implements IEventManager
 {
-    private final Set<Object> listeners = new HashSet<>();
-    private final Map<Class<? extends Event>, Map<Object, List<Method>>> methods = new HashMap<>();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Event.class);
+
+    private final Map<Object, List<Invoker>> listeners = new LinkedHashMap<>();
+    private volatile DispatchTable table = new DispatchTable(Collections.emptyMap());
 
     @Override
-    public void register(Object listener)
+    public synchronized void register(Object listener)
     {
-        if (listeners.add(listener))
+        if (!listeners.containsKey(listener))
         {
+            listeners.put(listener, compile(listener));
             updateMethods();
         }
     }
 
     @Override
-    public void unregister(Object listener)
+    public synchronized void unregister(Object listener)
     {
-        if (listeners.remove(listener))
+        if (listeners.remove(listener) != null)
         {
             updateMethods();
         }
     }
 
     @Override
-    public List<Object> getRegisteredListeners()
+    public synchronized List<Object> getRegisteredListeners()
+    {
+        return Collections.unmodifiableList(new LinkedList<>(listeners.keySet()));
+    }
+
+    @Override
+    public boolean isInterested(Class<? extends Event> type)
     {
-        return Collections.unmodifiableList(new LinkedList<>(listeners));
+        return table.get(type).length > 0;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void handle(Event event)
     {
-        Class<? extends Event> eventClass = event.getClass();
-        do
+        for (Invoker invoker : table.get(event.getClass()))
         {
-            Map<Object, List<Method>> listeners = methods.get(eventClass);
-            if (listeners != null)
+            try
             {
-                listeners.entrySet().forEach(e -> e.getValue().forEach(method ->
-                {
-                    try
-                    {
-                        method.setAccessible(true);
-                        method.invoke(e.getKey(), event);
-                    }
-                    catch (IllegalAccessException | InvocationTargetException e1)
-                    {
-                        JDAImpl.LOG.error("Couldn't access annotated eventlistener method", e1);
-                    }
-                    catch (Throwable throwable)
-                    {
-                        JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
-                    }
-                }));
+                invoker.handle.invokeExact(event);
+            }
+            catch (Throwable throwable)
+            {
+                JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
             }
-            eventClass = eventClass == Event.class ? null : (Class<? extends Event>) eventClass.getSuperclass();
         }
-        while (eventClass != null);
     }
 
-    private void updateMethods()
+    private List<Invoker> compile(Object listener)
     {
-        methods.clear();
-        for (Object listener : listeners)
+        boolean isClass = listener instanceof Class;
+        Class<?> c = isClass ? (Class) listener : listener.getClass();
+        Method[] allMethods = c.getDeclaredMethods();
+        List<Invoker> invokers = new ArrayList<>();
+        for (Method m : allMethods)
         {
-            boolean isClass = listener instanceof Class;
-            Class<?> c = isClass ? (Class) listener : listener.getClass();
-            Method[] allMethods = c.getDeclaredMethods();
-            for (Method m : allMethods)
+            if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
             {
-                if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
+                continue;
+            }
+            Class<?>[] pType  = m.getParameterTypes();
+            if (pType.length == 1 && Event.class.isAssignableFrom(pType[0]))
+            {
+                @SuppressWarnings("unchecked")
+                Class<? extends Event> eventClass = (Class<? extends Event>) pType[0];
+                try
                 {
-                    continue;
+                    m.setAccessible(true);
+                    MethodHandle handle = MethodHandles.lookup().unreflect(m);
+                    if (!Modifier.isStatic(m.getModifiers()))
+                        handle = handle.bindTo(listener);
+                    invokers.add(new Invoker(eventClass, handle.asType(INVOKER_TYPE)));
                 }
-                Class<?>[] pType  = m.getParameterTypes();
-                if (pType.length == 1 && Event.class.isAssignableFrom(pType[0]))
+                catch (IllegalAccessException | RuntimeException e)
                 {
-                    @SuppressWarnings("unchecked")
-                    Class<? extends Event> eventClass = (Class<? extends Event>) pType[0];
-                    if (!methods.containsKey(eventClass))
-                    {
-                        methods.put(eventClass, new HashMap<>());
-                    }
-
-                    if (!methods.get(eventClass).containsKey(listener))
-                    {
-                        methods.get(eventClass).put(listener, new ArrayList<>());
-                    }
-
-                    methods.get(eventClass).get(listener).add(m);
+                    JDAImpl.LOG.error("Couldn't access annotated eventlistener method", e);
                 }
             }
         }
+        return invokers;
+    }
+
+    // called with the lock held, the new table is published in one write
+    private void updateMethods()
+    {
+        Map<Class<? extends Event>, List<Invoker>> methods = new HashMap<>();
+        for (List<Invoker> invokers : listeners.values())
+        {
+            for (Invoker invoker : invokers)
+                methods.computeIfAbsent(invoker.eventClass, k -> new ArrayList<>()).add(invoker);
+        }
+        table = new DispatchTable(methods);
+    }
+
+    private static class Invoker
+    {
+        private final Class<? extends Event> eventClass;
+        private final MethodHandle handle;
+
+        private Invoker(Class<? extends Event> eventClass, MethodHandle handle)
+        {
+            this.eventClass = eventClass;
+            this.handle = handle;
+        }
+    }
+
+    private static class DispatchTable
+    {
+        private static final Invoker[] EMPTY = new Invoker[0];
+
+        private final Map<Class<? extends Event>, List<Invoker>> methods;
+        // flattened invokers including superclasses, filled on the first event of each class
+        private final ConcurrentMap<Class<?>, Invoker[]> flattened = new ConcurrentHashMap<>();
+
+        private DispatchTable(Map<Class<? extends Event>, List<Invoker>> methods)
+        {
+            this.methods = methods;
+        }
+
+        private Invoker[] get(Class<? extends Event> type)
+        {
+            Invoker[] invokers = flattened.get(type);
+            if (invokers == null)
+                invokers = flattened.computeIfAbsent(type, this::flatten);
+            return invokers;
+        }
+
+        private Invoker[] flatten(Class<?> type)
+        {
+            if (methods.isEmpty())
+                return EMPTY;
+            List<Invoker> all = new ArrayList<>();
+            Class<?> eventClass = type;
+            do
+            {
+                List<Invoker> invokers = methods.get(eventClass);
+                if (invokers != null)
+                    all.addAll(invokers);
+                eventClass = eventClass == Event.class ? null : eventClass.getSuperclass();
+            }
+            while (eventClass != null);
+            return all.isEmpty() ? EMPTY : all.toArray(EMPTY);
+        }
     }
 }
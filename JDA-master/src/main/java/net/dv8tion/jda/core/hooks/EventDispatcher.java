@@ -0,0 +1,504 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.entities.Guild;
+import net.dv8tion.jda.core.entities.MessageChannel;
+import net.dv8tion.jda.core.entities.TextChannel;
+import net.dv8tion.jda.core.events.Event;
+import net.dv8tion.jda.core.events.channel.category.GenericCategoryEvent;
+import net.dv8tion.jda.core.events.channel.text.GenericTextChannelEvent;
+import net.dv8tion.jda.core.events.channel.voice.GenericVoiceChannelEvent;
+import net.dv8tion.jda.core.events.emote.GenericEmoteEvent;
+import net.dv8tion.jda.core.events.guild.GenericGuildEvent;
+import net.dv8tion.jda.core.events.message.GenericMessageEvent;
+import net.dv8tion.jda.core.events.role.GenericRoleEvent;
+import net.dv8tion.jda.core.events.user.UserTypingEvent;
+import net.dv8tion.jda.core.events.user.update.GenericUserPresenceEvent;
+import net.dv8tion.jda.core.utils.Checks;
+import net.dv8tion.jda.core.utils.JDALogger;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves event handling off the WebSocket read thread.
+ *
+ * <p>Events are distributed over a fixed amount of lanes, each backed by a bounded queue and a single thread.
+ * The lane of an event is chosen by the id of the {@link net.dv8tion.jda.core.entities.Guild Guild} it belongs to,
+ * so events of one guild are always handled in the order they were received while different guilds are
+ * handled in parallel. Events without a guild, such as private messages, are keyed by their channel.
+ * Lifecycle events like the {@link net.dv8tion.jda.core.events.ReadyEvent ReadyEvent} use the first lane.
+ * <br>Note that there is no ordering guarantee between events of different guilds.
+ *
+ * <p>The cache is still updated on the read thread, the dispatcher only decouples the
+ * {@link net.dv8tion.jda.core.hooks.IEventManager IEventManager}. Listeners may therefore observe a cache state that
+ * is newer than the event they are handling.
+ *
+ * <p>A single dispatcher can be shared by multiple JDA instances, for instance all shards of a
+ * {@link net.dv8tion.jda.bot.sharding.ShardManager ShardManager}.
+ *
+ * @see net.dv8tion.jda.core.JDABuilder#setEventDispatcher(EventDispatcher)
+ * @see net.dv8tion.jda.bot.sharding.DefaultShardManagerBuilder#setEventDispatcher(EventDispatcher)
+ */
+public class EventDispatcher
+{
+    public static final Logger LOG = JDALogger.getLog(EventDispatcher.class);
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    /** Multiple of the queue capacity a lane can spill to, further events are handled by the dispatching thread */
+    public static final int SPILL_LIMIT_FACTOR = 4;
+
+    protected final Lane[] lanes;
+    protected final int queueCapacity;
+    protected final int spillLimit;
+    protected final BackpressurePolicy policy;
+
+    protected final AtomicLong dispatched = new AtomicLong();
+    protected final AtomicLong dropped = new AtomicLong();
+    protected final AtomicLong spilled = new AtomicLong();
+    protected final AtomicLong inlined = new AtomicLong();
+    protected volatile boolean shutdown = false;
+
+    /**
+     * Creates a new EventDispatcher with the {@link #DEFAULT_QUEUE_CAPACITY default capacity}
+     * and the {@link BackpressurePolicy#BLOCK BLOCK} policy.
+     *
+     * @param  lanes
+     *         The amount of lanes, each lane is handled by its own thread
+     *
+     * @throws IllegalArgumentException
+     *         If the amount of lanes is not positive
+     */
+    public EventDispatcher(int lanes)
+    {
+        this(lanes, DEFAULT_QUEUE_CAPACITY, BackpressurePolicy.BLOCK, null);
+    }
+
+    /**
+     * Creates a new EventDispatcher.
+     *
+     * @param  lanes
+     *         The amount of lanes, each lane is handled by its own thread
+     * @param  queueCapacity
+     *         The amount of events each lane can hold before the policy is applied
+     * @param  policy
+     *         The {@link BackpressurePolicy} to apply once a lane is full
+     * @param  threadFactory
+     *         The factory used to create the lane threads, or {@code null} to use daemon threads
+     *
+     * @throws IllegalArgumentException
+     *         If the amount of lanes or capacity are not positive or the policy is null
+     */
+    public EventDispatcher(int lanes, int queueCapacity, BackpressurePolicy policy, ThreadFactory threadFactory)
+    {
+        Checks.positive(lanes, "Lanes");
+        Checks.positive(queueCapacity, "Queue capacity");
+        Checks.notNull(policy, "Policy");
+        this.queueCapacity = queueCapacity;
+        this.spillLimit = (int) Math.min(Integer.MAX_VALUE, (long) queueCapacity * SPILL_LIMIT_FACTOR);
+        this.policy = policy;
+        this.lanes = new Lane[lanes];
+        ThreadFactory factory = threadFactory == null ? new LaneThreadFactory() : threadFactory;
+        for (int i = 0; i < lanes; i++)
+            this.lanes[i] = new Lane(factory);
+        for (Lane lane : this.lanes)
+            lane.thread.start();
+    }
+
+    /**
+     * Queues the event for the provided manager.
+     * <br>If this dispatcher has been shutdown the event is handled on the current thread.
+     *
+     * @param manager
+     *        The manager that should handle the event
+     * @param event
+     *        The event
+     */
+    public void dispatch(IEventManager manager, Event event)
+    {
+        if (shutdown)
+        {
+            handle(manager, event);
+            return;
+        }
+        Lane lane = lanes[getLane(event)];
+        if (!lane.offer(manager, event))
+            handle(manager, event);
+    }
+
+    /**
+     * Stops accepting new events and terminates the lane threads once all queued events have been handled.
+     * <br>Events dispatched after this call are handled on the calling thread.
+     */
+    public void shutdown()
+    {
+        shutdown = true;
+        for (Lane lane : lanes)
+            lane.wakeUp();
+    }
+
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    public BackpressurePolicy getPolicy()
+    {
+        return policy;
+    }
+
+    public int getQueueCapacity()
+    {
+        return queueCapacity;
+    }
+
+    public int getLaneCount()
+    {
+        return lanes.length;
+    }
+
+    /**
+     * The current amount of queued events in all lanes
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth()
+    {
+        int depth = 0;
+        for (Lane lane : lanes)
+            depth += lane.size;
+        return depth;
+    }
+
+    /**
+     * The current amount of queued events in the specified lane
+     *
+     * @param  lane
+     *         The lane index
+     *
+     * @return The queue depth of that lane
+     */
+    public int getQueueDepth(int lane)
+    {
+        Checks.notNegative(lane, "Lane");
+        Checks.check(lane < lanes.length, "Lane must be lower than %d", lanes.length);
+        return lanes[lane].size;
+    }
+
+    /**
+     * The highest queue depth any lane has reached
+     *
+     * @return The maximum queue depth
+     */
+    public int getMaxQueueDepth()
+    {
+        int max = 0;
+        for (Lane lane : lanes)
+            max = Math.max(max, lane.maxSize);
+        return max;
+    }
+
+    /**
+     * The amount of events that have been handled by the lanes
+     *
+     * @return The amount of dispatched events
+     */
+    public long getDispatchedCount()
+    {
+        return dispatched.get();
+    }
+
+    /**
+     * The amount of events that were discarded by the {@link BackpressurePolicy#DROP_EPHEMERAL DROP_EPHEMERAL} policy
+     *
+     * @return The amount of dropped events
+     */
+    public long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * The amount of events that were queued beyond the capacity of their lane
+     *
+     * @return The amount of spilled events
+     */
+    public long getSpilledCount()
+    {
+        return spilled.get();
+    }
+
+    /**
+     * The amount of events that were handled by the dispatching thread,
+     * because their lane was already spilled to {@value #SPILL_LIMIT_FACTOR} times its capacity
+     *
+     * @return The amount of inlined events
+     */
+    public long getInlinedCount()
+    {
+        return inlined.get();
+    }
+
+    protected int getLane(Event event)
+    {
+        if (lanes.length == 1)
+            return 0;
+        long key = getKey(event);
+        // snowflakes are sequential, mix the bits to avoid clustering
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 32) % lanes.length);
+    }
+
+    protected long getKey(Event event)
+    {
+        Guild guild = null;
+        if (event instanceof GenericGuildEvent)
+            guild = ((GenericGuildEvent) event).getGuild();
+        else if (event instanceof GenericMessageEvent)
+            return getKey(((GenericMessageEvent) event).getChannel());
+        else if (event instanceof GenericTextChannelEvent)
+            guild = ((GenericTextChannelEvent) event).getGuild();
+        else if (event instanceof GenericVoiceChannelEvent)
+            guild = ((GenericVoiceChannelEvent) event).getGuild();
+        else if (event instanceof GenericCategoryEvent)
+            guild = ((GenericCategoryEvent) event).getGuild();
+        else if (event instanceof GenericRoleEvent)
+            guild = ((GenericRoleEvent) event).getGuild();
+        else if (event instanceof GenericEmoteEvent)
+            guild = ((GenericEmoteEvent) event).getGuild();
+        else if (event instanceof GenericUserPresenceEvent)
+            guild = ((GenericUserPresenceEvent<?>) event).getGuild();
+        else if (event instanceof UserTypingEvent)
+            return getKey(((UserTypingEvent) event).getChannel());
+        return guild == null ? 0 : guild.getIdLong();
+    }
+
+    protected long getKey(MessageChannel channel)
+    {
+        if (channel instanceof TextChannel)
+            return ((TextChannel) channel).getGuild().getIdLong();
+        return channel == null ? 0 : channel.getIdLong();
+    }
+
+    protected boolean isEphemeral(Event event)
+    {
+        return event instanceof UserTypingEvent || event instanceof GenericUserPresenceEvent;
+    }
+
+    protected void handle(IEventManager manager, Event event)
+    {
+        try
+        {
+            manager.handle(event);
+        }
+        catch (Throwable throwable)
+        {
+            LOG.error("The EventManager had an uncaught exception", throwable);
+        }
+    }
+
+    /**
+     * Decides what happens to events that arrive at a full lane.
+     */
+    public enum BackpressurePolicy
+    {
+        /**
+         * The dispatching thread, usually the WebSocket read thread, waits until the lane has room again.
+         */
+        BLOCK,
+        /**
+         * Typing and presence events are dropped, all other events wait like with {@link #BLOCK}.
+         */
+        DROP_EPHEMERAL,
+        /**
+         * Events are queued beyond the capacity, the dispatching thread never waits.
+         * <br>A lane spills to at most {@value EventDispatcher#SPILL_LIMIT_FACTOR} times its capacity, after that
+         * events are handled by the dispatching thread and lose their ordering relative to the queued events of their lane.
+         * <br>This should be combined with monitoring of {@link EventDispatcher#getSpilledCount()}
+         * and {@link EventDispatcher#getInlinedCount()}.
+         *
+         * <p>Events dispatched by a listener running on a lane always use this policy for their own lane,
+         * since the lane could never make room while its thread waits.
+         */
+        SPILL
+    }
+
+    protected class Lane implements Runnable
+    {
+        protected final ReentrantLock lock = new ReentrantLock();
+        protected final Condition notEmpty = lock.newCondition();
+        protected final Condition notFull = lock.newCondition();
+        protected final ArrayDeque<Object> queue = new ArrayDeque<>();
+        protected volatile int size;
+        protected volatile int maxSize;
+        // set once the thread of this lane terminated, for any reason
+        protected volatile boolean stopped = false;
+        protected final Thread thread;
+
+        protected Lane(ThreadFactory factory)
+        {
+            this.thread = factory.newThread(this);
+        }
+
+        // returns false if the event has to be handled by the caller
+        protected boolean offer(IEventManager manager, Event event)
+        {
+            lock.lock();
+            try
+            {
+                if (stopped)
+                    return false;
+                if (size >= queueCapacity)
+                {
+                    // A lane blocking on itself would never recover
+                    BackpressurePolicy policy = Thread.currentThread() == thread ? BackpressurePolicy.SPILL : EventDispatcher.this.policy;
+                    switch (policy)
+                    {
+                        case DROP_EPHEMERAL:
+                            if (isEphemeral(event))
+                            {
+                                dropped.incrementAndGet();
+                                LOG.trace("Dropped {} due to full lane", event.getClass().getSimpleName());
+                                return true;
+                            }
+                            if (!awaitCapacity())
+                                return false;
+                            break;
+                        case BLOCK:
+                            if (!awaitCapacity())
+                                return false;
+                            break;
+                        case SPILL:
+                            if (size >= spillLimit)
+                            {
+                                inlined.incrementAndGet();
+                                LOG.trace("Handling {} on the dispatching thread due to spilled lane", event.getClass().getSimpleName());
+                                return false;
+                            }
+                            spilled.incrementAndGet();
+                            break;
+                    }
+                }
+                queue.add(manager);
+                queue.add(event);
+                size++;
+                if (size > maxSize)
+                    maxSize = size;
+                notEmpty.signal();
+                return true;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        // has to be called while holding the lock, returns false if the dispatcher was shutdown or the lane stopped
+        protected boolean awaitCapacity() throws InterruptedException
+        {
+            while (size >= queueCapacity && !shutdown && !stopped)
+                notFull.await();
+            return !shutdown && !stopped;
+        }
+
+        protected void wakeUp()
+        {
+            lock.lock();
+            try
+            {
+                notEmpty.signalAll();
+                notFull.signalAll();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while (true)
+                {
+                    IEventManager manager;
+                    Event event;
+                    lock.lock();
+                    try
+                    {
+                        while (size == 0)
+                        {
+                            if (shutdown)
+                                return;
+                            notEmpty.await();
+                        }
+                        manager = (IEventManager) queue.poll();
+                        event = (Event) queue.poll();
+                        size--;
+                        notFull.signal();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        // only shutdown stops a lane, the gateway thread might be waiting for it
+                        LOG.debug("Event lane was interrupted, continuing");
+                        continue;
+                    }
+                    finally
+                    {
+                        lock.unlock();
+                    }
+                    handle(manager, event);
+                    dispatched.incrementAndGet();
+                    // a listener might have left the interrupt flag set, which must not affect the next listener
+                    Thread.interrupted();
+                }
+            }
+            finally
+            {
+                // releases dispatching threads waiting for capacity, they handle their events themselves
+                stopped = true;
+                wakeUp();
+            }
+        }
+    }
+
+    private static class LaneThreadFactory implements ThreadFactory
+    {
+        private static final AtomicInteger dispatcherCount = new AtomicInteger(1);
+        private final String identifier = "JDA EventDispatcher " + dispatcherCount.getAndIncrement();
+        private final AtomicInteger threadCount = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread t = new Thread(r, identifier + " - Lane " + threadCount.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -78,4 +78,20 @@ public interface IEventManager
      *         that have already been registered
      */
     List<Object> getRegisteredListeners();
+
+    /**
+     * Whether any of the registered listeners would receive an event of the provided type.
+     * <br>JDA uses this to skip building events that would not be handled by anyone.
+     *
+     * <p>The default implementation always returns {@code true}.
+     *
+     * @param  type
+     *         The event class
+     *
+     * @return True, if an event of this type may be handled by a listener
+     */
+    default boolean isInterested(Class<? extends Event> type)
+    {
+        return true;
+    }
 }
@@ -18,9 +18,11 @@ package net.dv8tion.jda.core.hooks;
 import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.events.Event;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -32,6 +34,10 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <br>An adapter implementation is {@link net.dv8tion.jda.core.hooks.ListenerAdapter ListenerAdapter} which
  * provides methods for each individual {@link net.dv8tion.jda.core.events.Event}.
  *
+ * <p>Events are only passed to the listeners that can handle them. For a {@link net.dv8tion.jda.core.hooks.ListenerAdapter ListenerAdapter}
+ * these are the events of the {@code onXxx} methods it overrides, any other listener receives all events.
+ * The listeners for each event class are looked up once and then reused until the registered listeners change.
+ *
  * <p><b>This is the default IEventManager used by JDA</b>
  *
  * @see net.dv8tion.jda.core.hooks.AnnotatedEventManager
@@ -40,6 +46,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class InterfacedEventManager implements IEventManager
 {
     private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile RoutingTable table = new RoutingTable(Collections.emptyList());
 
     public InterfacedEventManager()
     {
@@ -59,13 +66,21 @@ public class InterfacedEventManager implements IEventManager
         {
             throw new IllegalArgumentException("Listener must implement EventListener");
         }
-        listeners.add(((EventListener) listener));
+        synchronized (listeners)
+        {
+            listeners.add(((EventListener) listener));
+            updateRoutes();
+        }
     }
 
     @Override
     public void unregister(Object listener)
     {
-        listeners.remove(listener);
+        synchronized (listeners)
+        {
+            if (listeners.remove(listener))
+                updateRoutes();
+        }
     }
 
     @Override
@@ -74,10 +89,16 @@ public class InterfacedEventManager implements IEventManager
         return Collections.unmodifiableList(new LinkedList<>(listeners));
     }
 
+    @Override
+    public boolean isInterested(Class<? extends Event> type)
+    {
+        return table.get(type).length > 0;
+    }
+
     @Override
     public void handle(Event event)
     {
-        for (EventListener listener : listeners)
+        for (EventListener listener : table.get(event.getClass()))
         {
             try
             {
@@ -89,4 +110,96 @@ public class InterfacedEventManager implements IEventManager
             }
         }
     }
+
+    // called with the lock held, the new table is published in one write
+    private void updateRoutes()
+    {
+        List<Route> routes = new ArrayList<>(listeners.size());
+        for (EventListener listener : listeners)
+            routes.add(new Route(listener, getSubscriptions(listener)));
+        table = new RoutingTable(routes);
+    }
+
+    /**
+     * The event types a listener wants to receive.
+     * <br>ListenerAdapter implementations only receive the events of the methods they override,
+     * everything else receives all events.
+     */
+    private static Set<Class<?>> getSubscriptions(EventListener listener)
+    {
+        if (!(listener instanceof ListenerAdapter))
+            return Collections.singleton(Event.class);
+        Set<Class<?>> types = new HashSet<>();
+        for (Class<?> c = listener.getClass(); c != ListenerAdapter.class; c = c.getSuperclass())
+        {
+            for (Method method : c.getDeclaredMethods())
+            {
+                if (method.isSynthetic() || Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1)
+                    continue;
+                try
+                {
+                    Method adapterMethod = ListenerAdapter.class.getMethod(method.getName(), method.getParameterTypes());
+                    if (adapterMethod.getDeclaringClass() == ListenerAdapter.class)
+                        types.add(method.getParameterTypes()[0]);
+                }
+                catch (NoSuchMethodException ignored) {}
+            }
+        }
+        return types;
+    }
+
+    private static class Route
+    {
+        private final EventListener listener;
+        private final Set<Class<?>> types;
+
+        private Route(EventListener listener, Set<Class<?>> types)
+        {
+            this.listener = listener;
+            this.types = types;
+        }
+
+        private boolean accepts(Class<?> eventClass)
+        {
+            for (Class<?> type : types)
+            {
+                if (type.isAssignableFrom(eventClass))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private static class RoutingTable
+    {
+        private static final EventListener[] EMPTY = new EventListener[0];
+
+        private final List<Route> routes;
+        // listeners for each concrete event class, filled on the first lookup of each class
+        private final ConcurrentMap<Class<?>, EventListener[]> resolved = new ConcurrentHashMap<>();
+
+        private RoutingTable(List<Route> routes)
+        {
+            this.routes = routes;
+        }
+
+        private EventListener[] get(Class<? extends Event> type)
+        {
+            EventListener[] targets = resolved.get(type);
+            if (targets == null)
+                targets = resolved.computeIfAbsent(type, this::resolve);
+            return targets;
+        }
+
+        private EventListener[] resolve(Class<?> type)
+        {
+            List<EventListener> targets = new ArrayList<>();
+            for (Route route : routes)
+            {
+                if (route.accepts(type))
+                    targets.add(route.listener);
+            }
+            return targets.isEmpty() ? EMPTY : targets.toArray(EMPTY);
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+/**
+ * Token bucket for the 120 messages per 60 seconds limit of the main gateway.
+ *
+ * <p>Every send takes a token which only becomes available again 60 seconds later.
+ * Unlike a counter that is reset periodically this holds for any 60 second window,
+ * and it can tell exactly when the next token frees up.
+ *
+ * <p>Each {@link Priority} may only use tokens up to its budget. Lower priorities leave a reserve
+ * so heartbeats and identification can always go through.
+ */
+public class GatewaySendLimiter
+{
+    public static final int LIMIT = 120;
+    public static final long WINDOW = 60000;
+
+    // ring buffer of the times at which the tokens of the current window were taken
+    protected final long[] sent = new long[LIMIT];
+    protected int head = 0;
+    protected int count = 0;
+
+    /**
+     * Takes a token for the provided priority if one is available.
+     *
+     * @param  priority
+     *         The priority of the message
+     * @param  now
+     *         The current time in milliseconds
+     *
+     * @return {@code 0} if a token was taken, otherwise the milliseconds until one is available
+     */
+    public synchronized long tryAcquire(Priority priority, long now)
+    {
+        expire(now);
+        if (count < priority.budget)
+        {
+            sent[(head + count) % LIMIT] = now;
+            count++;
+            return 0;
+        }
+        // the token that has to expire to bring us below the budget
+        long takenAt = sent[(head + count - priority.budget) % LIMIT];
+        return Math.max(1, takenAt + WINDOW - now);
+    }
+
+    /**
+     * The amount of tokens taken in the current window
+     *
+     * @return The amount of messages sent in the last 60 seconds
+     */
+    public synchronized int getUsed()
+    {
+        expire(System.currentTimeMillis());
+        return count;
+    }
+
+    /**
+     * Resets all tokens, the limit starts fresh with every connection.
+     */
+    public synchronized void reset()
+    {
+        head = 0;
+        count = 0;
+    }
+
+    protected void expire(long now)
+    {
+        while (count > 0 && sent[head] + WINDOW <= now)
+        {
+            head = (head + 1) % LIMIT;
+            count--;
+        }
+    }
+
+    /**
+     * Priorities of gateway messages, in the order they are sent by the sending thread.
+     */
+    public enum Priority
+    {
+        HEARTBEAT(119),
+        IDENTIFY(119),
+        VOICE_STATE(116),
+        CHUNK(116),
+        PRESENCE(116);
+
+        //technically we could go to 120, but we aren't going to chance it
+        private final int budget;
+
+        Priority(int budget)
+        {
+            this.budget = budget;
+        }
+
+        public int getBudget()
+        {
+            return budget;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel which runs the heartbeats of any number of gateway connections on a single thread.
+ *
+ * <p>Timeouts are hashed into {@value #WHEEL_SIZE} slots of {@value #TICK} milliseconds. The worker thread
+ * only looks at one slot per tick, so scheduling and expiring a timeout is constant time regardless of
+ * how many shards are connected. Tasks run on the worker thread and must not block.
+ *
+ * <p>The worker parks while no timeouts are scheduled.
+ */
+public class HeartbeatTimer
+{
+    public static final long TICK = 50;
+    public static final int WHEEL_SIZE = 1024;
+
+    protected static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK);
+    protected static final int MASK = WHEEL_SIZE - 1;
+
+    // only accessed by the worker thread
+    protected final Timeout[] wheel = new Timeout[WHEEL_SIZE];
+    protected long tick = 0;
+
+    protected final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    protected final AtomicInteger scheduled = new AtomicInteger(0);
+    protected final long startTime = System.nanoTime();
+    protected final Thread worker;
+    protected volatile boolean shutdown = false;
+
+    public HeartbeatTimer(String name)
+    {
+        worker = new Thread(this::run, name);
+        // heartbeats have to be sent in time, even under load
+        worker.setPriority(Thread.MAX_PRIORITY);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules the task to run once after the provided delay.
+     *
+     * @param  task
+     *         The task, which must not block
+     * @param  delay
+     *         The delay in milliseconds, rounded up to the next tick
+     *
+     * @throws RejectedExecutionException
+     *         If this timer has been shutdown
+     *
+     * @return The timeout which can be used to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay)
+    {
+        if (shutdown)
+            throw new RejectedExecutionException("HeartbeatTimer has been shutdown");
+        long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(task, (deadline + TICK_NANOS - 1) / TICK_NANOS);
+        pending.add(timeout);
+        if (scheduled.getAndIncrement() == 0)
+            LockSupport.unpark(worker);
+        return timeout;
+    }
+
+    /**
+     * The amount of timeouts that have not expired yet, this may include cancelled timeouts.
+     *
+     * @return The amount of scheduled timeouts
+     */
+    public int getScheduledCount()
+    {
+        return scheduled.get();
+    }
+
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    public void shutdown()
+    {
+        shutdown = true;
+        LockSupport.unpark(worker);
+    }
+
+    protected void run()
+    {
+        while (!shutdown)
+        {
+            if (scheduled.get() == 0)
+            {
+                LockSupport.park(this);
+                // skip the ticks we slept through, there was nothing in the wheel
+                tick = Math.max(tick, currentTick());
+                continue;
+            }
+
+            // deadlines are rounded up to the tick, so a slot is due as soon as its tick starts
+            long wait = startTime + tick * TICK_NANOS - System.nanoTime();
+            if (wait > 0)
+            {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+
+            transferPending();
+            expire((int) (tick & MASK));
+            tick++;
+        }
+    }
+
+    protected long currentTick()
+    {
+        return (System.nanoTime() - startTime) / TICK_NANOS;
+    }
+
+    protected void transferPending()
+    {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null)
+        {
+            if (timeout.cancelled)
+            {
+                scheduled.decrementAndGet();
+                continue;
+            }
+            long target = Math.max(timeout.deadlineTick, tick);
+            timeout.rounds = (target - tick) / WHEEL_SIZE;
+            int slot = (int) (target & MASK);
+            timeout.next = wheel[slot];
+            wheel[slot] = timeout;
+        }
+    }
+
+    protected void expire(int slot)
+    {
+        Timeout previous = null;
+        Timeout timeout = wheel[slot];
+        while (timeout != null)
+        {
+            Timeout next = timeout.next;
+            if (timeout.cancelled || timeout.rounds <= 0)
+            {
+                if (previous == null)
+                    wheel[slot] = next;
+                else
+                    previous.next = next;
+                timeout.next = null;
+                scheduled.decrementAndGet();
+                if (!timeout.cancelled)
+                    timeout.run();
+            }
+            else
+            {
+                timeout.rounds--;
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+    public static class Timeout
+    {
+        protected final Runnable task;
+        protected final long deadlineTick;
+        protected volatile boolean cancelled = false;
+        // only accessed by the worker thread
+        protected long rounds;
+        protected Timeout next;
+
+        protected Timeout(Runnable task, long deadlineTick)
+        {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public void cancel()
+        {
+            cancelled = true;
+        }
+
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        protected void run()
+        {
+            try
+            {
+                task.run();
+            }
+            catch (Throwable t)
+            {
+                WebSocketClient.LOG.error("Encountered error in heartbeat task", t);
+            }
+        }
+    }
+}
@@ -17,14 +17,13 @@
 package net.dv8tion.jda.core.requests;
 
 import net.dv8tion.jda.core.requests.ratelimit.IBucket;
+import net.dv8tion.jda.core.utils.Checks;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class RateLimiter
 {
@@ -34,6 +33,8 @@ public abstract class RateLimiter
     protected volatile boolean isShutdown = false;
     protected final ConcurrentHashMap<String, IBucket> buckets = new ConcurrentHashMap<>();
     protected final ConcurrentLinkedQueue<IBucket> submittedBuckets = new ConcurrentLinkedQueue<>();
+    protected final AtomicLong evictedBuckets = new AtomicLong();
+    protected volatile int maxBuckets = Integer.MAX_VALUE;
 
     protected RateLimiter(Requester requester)
     {
@@ -93,6 +94,66 @@ public abstract class RateLimiter
         }
     }
 
+    /**
+     * The amount of buckets currently held by this RateLimiter
+     *
+     * @return The bucket count
+     */
+    public int getBucketCount()
+    {
+        return buckets.size();
+    }
+
+    /**
+     * The amount of requests waiting in the queue of each bucket.
+     * <br>Buckets without queued requests are not included.
+     *
+     * @return Immutable map of the rate-limit route to the queue size
+     */
+    public Map<String, Integer> getQueuedRequestCounts()
+    {
+        Map<String, Integer> counts = new HashMap<>();
+        for (IBucket bucket : buckets.values())
+        {
+            int size = bucket.getRequests().size();
+            if (size > 0)
+                counts.put(bucket.getRoute(), size);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * The total amount of buckets that have been removed because they were idle
+     *
+     * @return The eviction count
+     */
+    public long getEvictedBucketCount()
+    {
+        return evictedBuckets.get();
+    }
+
+    public int getMaxBuckets()
+    {
+        return maxBuckets;
+    }
+
+    /**
+     * Sets the amount of buckets this RateLimiter should hold at most.
+     * <br>This is a soft limit, when it is exceeded idle buckets are removed even if their
+     * rate-limit did not reset yet. Buckets with queued requests are never removed.
+     *
+     * @param  maxBuckets
+     *         The maximum amount of buckets
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is less than 1
+     */
+    public void setMaxBuckets(int maxBuckets)
+    {
+        Checks.check(maxBuckets > 0, "Max buckets must be at least 1");
+        this.maxBuckets = maxBuckets;
+    }
+
     protected void shutdown()
     {
         isShutdown = true;
@@ -24,6 +24,7 @@ import net.dv8tion.jda.core.requests.ratelimit.BotRateLimiter;
 import net.dv8tion.jda.core.requests.ratelimit.ClientRateLimiter;
 import net.dv8tion.jda.core.utils.JDALogger;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -40,6 +41,9 @@ import java.util.LinkedHashSet;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.zip.GZIPInputStream;
 
 public class Requester
@@ -61,6 +65,7 @@ public class Requester
     private ConcurrentMap<String, String> contextMap = null;
 
     private volatile boolean retryOnTimeout = false;
+    private volatile boolean async = false;
 
     public Requester(JDA api)
     {
@@ -144,35 +149,8 @@ public class Requester
             return retryAfter;
         }
 
-        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
-
         String url = DISCORD_API_PREFIX + route.getCompiledRoute();
-        builder.url(url);
-
-        String method = apiRequest.getRoute().getMethod().toString();
-        RequestBody body = apiRequest.getBody();
-
-        if (body == null && HttpMethod.requiresRequestBody(method))
-            body = EMPTY_BODY;
-
-        builder.method(method, body)
-               .header("user-agent", USER_AGENT)
-               .header("accept-encoding", "gzip");
-
-        //adding token to all requests to the discord api or cdn pages
-        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
-        if (url.startsWith(DISCORD_API_PREFIX) && api.getToken() != null)
-            builder.header("authorization", api.getToken());
-
-        // Apply custom headers like X-Audit-Log-Reason
-        // If customHeaders is null this does nothing
-        if (apiRequest.getHeaders() != null)
-        {
-            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
-                builder.addHeader(header.getKey(), header.getValue());
-        }
-
-        okhttp3.Request request = builder.build();
+        okhttp3.Request request = createRequest(apiRequest);
 
         Set<String> rays = new LinkedHashSet<>();
         okhttp3.Response[] responses = new okhttp3.Response[4];
@@ -253,6 +231,68 @@ public class Requester
         }
     }
 
+    protected okhttp3.Request createRequest(Request<?> apiRequest)
+    {
+        Route.CompiledRoute route = apiRequest.getRoute();
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
+
+        String url = DISCORD_API_PREFIX + route.getCompiledRoute();
+        builder.url(url);
+
+        String method = apiRequest.getRoute().getMethod().toString();
+        RequestBody body = apiRequest.getBody();
+
+        if (body == null && HttpMethod.requiresRequestBody(method))
+            body = EMPTY_BODY;
+
+        builder.method(method, body)
+               .header("user-agent", USER_AGENT)
+               .header("accept-encoding", "gzip");
+
+        //adding token to all requests to the discord api or cdn pages
+        //we can check for startsWith(DISCORD_API_PREFIX) because the cdn endpoints don't need any kind of authorization
+        if (url.startsWith(DISCORD_API_PREFIX) && api.getToken() != null)
+            builder.header("authorization", api.getToken());
+
+        // Apply custom headers like X-Audit-Log-Reason
+        // If customHeaders is null this does nothing
+        if (apiRequest.getHeaders() != null)
+        {
+            for (Entry<String, String> header : apiRequest.getHeaders().entrySet())
+                builder.addHeader(header.getKey(), header.getValue());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Asynchronous version of {@link #execute(Request, boolean, boolean)}.
+     * <br>The call is enqueued with the OkHttp dispatcher, no thread is blocked while waiting for the response
+     * and server errors are retried on the rate-limit pool instead of sleeping.
+     *
+     * @param  apiRequest
+     *         The API request that needs to be sent
+     * @param  handleOnRatelimit
+     *         Whether to forward rate-limits, false if rate limit handling should take over
+     * @param  callback
+     *         Receives the value {@link #execute(Request, boolean, boolean)} would have returned,
+     *         once the request has been handled
+     */
+    public void executeAsync(Request<?> apiRequest, boolean handleOnRatelimit, Consumer<? super Long> callback)
+    {
+        Route.CompiledRoute route = apiRequest.getRoute();
+        Long retryAfter = rateLimiter.getRateLimit(route);
+        if (retryAfter != null)
+        {
+            if (handleOnRatelimit)
+                apiRequest.handleResponse(new Response(retryAfter, Collections.emptySet()));
+            callback.accept(retryAfter);
+            return;
+        }
+
+        new AsyncCall(apiRequest, createRequest(apiRequest), handleOnRatelimit, callback).enqueue();
+    }
+
     public OkHttpClient getHttpClient()
     {
         return this.httpClient;
@@ -268,6 +308,23 @@ public class Requester
         this.retryOnTimeout = retryOnTimeout;
     }
 
+    /**
+     * Whether queued requests should be sent with {@link #executeAsync(Request, boolean, Consumer)}.
+     * <br>Requests that are executed directly, like {@link RestAction#complete()}, are always blocking.
+     *
+     * @param async
+     *        True, to send queued requests asynchronously
+     */
+    public void setAsync(boolean async)
+    {
+        this.async = async;
+    }
+
+    public boolean isAsync()
+    {
+        return async;
+    }
+
     public void shutdown()
     {
         rateLimiter.shutdown();
@@ -295,4 +352,123 @@ public class Requester
             return new GZIPInputStream(response.body().byteStream());
         return response.body().byteStream();
     }
+    private class AsyncCall implements Callback
+    {
+        private final Request<?> apiRequest;
+        private final okhttp3.Request request;
+        private final boolean handleOnRatelimit;
+        private final Consumer<? super Long> callback;
+        private final Set<String> rays = new LinkedHashSet<>();
+        private int attempt = 0;
+        private boolean retried = false;
+
+        private AsyncCall(Request<?> apiRequest, okhttp3.Request request, boolean handleOnRatelimit, Consumer<? super Long> callback)
+        {
+            this.apiRequest = apiRequest;
+            this.request = request;
+            this.handleOnRatelimit = handleOnRatelimit;
+            this.callback = callback;
+        }
+
+        private void enqueue()
+        {
+            httpClient.newCall(request).enqueue(this);
+        }
+
+        @Override
+        public void onResponse(Call call, okhttp3.Response response)
+        {
+            setContext();
+            Long retryAfter = null;
+            try
+            {
+                String cfRay = response.header("CF-RAY");
+                if (cfRay != null)
+                    rays.add(cfRay);
+
+                if (response.code() >= 500)
+                {
+                    attempt++;
+                    if (attempt < 3 && retry(response.code()))
+                        return;
+                    //Epic failure from other end. Attempted 3 times.
+                    apiRequest.handleResponse(new Response(response, -1, rays));
+                }
+                else
+                {
+                    retryAfter = rateLimiter.handleResponse(apiRequest.getRoute(), response);
+                    if (!rays.isEmpty())
+                        LOG.debug("Received response with following cf-rays: {}", rays);
+
+                    if (retryAfter == null)
+                        apiRequest.handleResponse(new Response(response, -1, rays));
+                    else if (handleOnRatelimit)
+                        apiRequest.handleResponse(new Response(response, retryAfter, rays));
+                }
+            }
+            catch (Exception e)
+            {
+                LOG.error("There was an exception while executing a REST request", e);
+                apiRequest.handleResponse(new Response(response, e, rays));
+            }
+            finally
+            {
+                response.close();
+            }
+            complete(retryAfter);
+        }
+
+        private boolean retry(int code)
+        {
+            LOG.debug("Requesting {} -> {} returned status {}... retrying (attempt {})",
+                    apiRequest.getRoute().getMethod(),
+                    request.url(), code, attempt);
+            try
+            {
+                // wait on the scheduler instead of blocking a thread
+                api.getRateLimitPool().schedule(this::enqueue, 50 * attempt, TimeUnit.MILLISECONDS);
+                return true;
+            }
+            catch (RejectedExecutionException e)
+            {
+                LOG.debug("Caught RejectedExecutionException when retrying a failed request. The requester is probably shutdown, thus, this can be ignored.");
+                return false;
+            }
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e)
+        {
+            setContext();
+            if (e instanceof SocketTimeoutException)
+            {
+                if (retryOnTimeout && !retried)
+                {
+                    retried = true;
+                    attempt = 0;
+                    enqueue();
+                    return;
+                }
+                LOG.error("Requester timed out while executing a request", e);
+            }
+            else
+            {
+                LOG.error("There was an exception while executing a REST request", e);
+            }
+            apiRequest.handleResponse(new Response(null, e, rays));
+            complete(null);
+        }
+
+        private void complete(Long retryAfter)
+        {
+            try
+            {
+                callback.accept(retryAfter);
+            }
+            catch (Throwable t)
+            {
+                LOG.error("Requester system encountered an internal error", t);
+            }
+        }
+    }
 }
@@ -48,23 +48,22 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.lang.ref.SoftReference;
 import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.zip.DataFormatException;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterOutputStream;
 
 public class WebSocketClient extends WebSocketAdapter implements WebSocketListener
 {
@@ -85,26 +84,37 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     public WebSocket socket;
     protected String sessionId = null;
     protected final Object readLock = new Object();
-    protected Inflater zlibContext = new Inflater();
-    protected ByteArrayOutputStream readBuffer;
-    //this is a SoftReference in order to allow this resource to be freed to prevent resources starvation
-    protected SoftReference<ByteArrayOutputStream> decompressBuffer;
-
-    protected volatile Thread keepAliveThread;
+    protected final ZlibDecompressor decompressor = new ZlibDecompressor();
+
+    protected volatile HeartbeatTimer.Timeout keepAliveTimeout;
+    // incremented for every new heartbeat chain, ticks of older chains are dropped. Guarded by keepAliveLock
+    protected final Object keepAliveLock = new Object();
+    protected int keepAliveGeneration = 0;
+    protected volatile boolean heartbeatAcked = true;
+    protected final AtomicLong zombieConnections = new AtomicLong();
     protected boolean initiating;
 
     protected int reconnectTimeoutS = 2;
-    protected long heartbeatStartTime;
+    protected volatile long heartbeatStartTime;
 
     //GuildId, <TimeOfNextAttempt, ConnectionStage, AudioConnection>
     protected final TLongObjectMap<ConnectionRequest> queuedAudioConnections = MiscUtil.newLongMap();
     protected final ReentrantLock audioQueueLock = new ReentrantLock();
+    /** Milliseconds after which the send task checks the audio queue again, if it was locked by another thread */
+    protected static final long AUDIO_LOCK_RETRY = 10;
 
     protected final Queue<String> chunkSyncQueue = new ConcurrentLinkedQueue<>();
     protected final Queue<String> ratelimitQueue = new ConcurrentLinkedQueue<>();
-    protected volatile Thread ratelimitThread = null;
-    protected volatile long ratelimitResetTime;
-    protected final AtomicInteger messagesSent = new AtomicInteger(0);
+    protected final AtomicReference<String> pendingHeartbeat = new AtomicReference<>();
+    protected final GatewaySendLimiter sendLimiter = new GatewaySendLimiter();
+    // guarded by sendLock
+    protected final Object sendLock = new Object();
+    protected ScheduledFuture<?> sendFuture;
+    protected boolean sendRunning = false;
+    protected boolean sendSignaled = false;
+    protected boolean sendingStopped = true;
+    // earliest attempt of a queued audio request that was not due yet, guarded by audioQueueLock
+    protected long nextAudioAttempt = Long.MAX_VALUE;
 
     protected volatile boolean shutdown = false;
     protected boolean shouldReconnect;
@@ -166,16 +176,15 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             traces.add(String.valueOf(o));
     }
 
-    protected void allocateBuffer(byte[] binary) throws IOException
-    {
-        this.readBuffer = new ByteArrayOutputStream(binary.length * 2);
-        this.readBuffer.write(binary);
-    }
-
-    protected void extendBuffer(byte[] binary) throws IOException
+    /**
+     * The zlib-stream decompressor of this connection.
+     * <br>Provides the transport compression statistics of this shard.
+     *
+     * @return The decompressor
+     */
+    public ZlibDecompressor getDecompressor()
     {
-        if (this.readBuffer != null)
-            this.readBuffer.write(binary);
+        return decompressor;
     }
 
     public void setAutoReconnect(boolean reconnect)
@@ -194,6 +203,8 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         {
             initiating = false;
             processingReady = false;
+            // audio requests are held back until we are ready
+            wakeSender();
             if (firstInit)
             {
                 firstInit = false;
@@ -237,39 +248,29 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         events.forEach(this::onDispatch);
     }
 
+    public void handleSerialized(List<String> events)
+    {
+        events.forEach(event -> onDispatch(new JSONObject(event)));
+    }
+
     public void send(String message)
     {
         ratelimitQueue.add(message);
+        wakeSender();
     }
 
     public void chunkOrSyncRequest(JSONObject request)
     {
         chunkSyncQueue.add(request.toString());
+        wakeSender();
     }
 
-    protected boolean send(String message, boolean skipQueue)
+    protected boolean send(String message, GatewaySendLimiter.Priority priority)
     {
         if (!connected)
             return false;
 
-        long now = System.currentTimeMillis();
-
-        if (this.ratelimitResetTime <= now)
-        {
-            this.messagesSent.set(0);
-            this.ratelimitResetTime = now + 60000;//60 seconds
-            this.printedRateLimitMessage = false;
-        }
-
-        //Allows 115 messages to be sent before limiting.
-        if (this.messagesSent.get() <= 115 || (skipQueue && this.messagesSent.get() <= 119))   //technically we could go to 120, but we aren't going to chance it
-        {
-            LOG.trace("<- {}", message);
-            socket.sendText(message);
-            this.messagesSent.getAndIncrement();
-            return true;
-        }
-        else
+        if (sendLimiter.tryAcquire(priority, System.currentTimeMillis()) > 0)
         {
             if (!printedRateLimitMessage)
             {
@@ -279,118 +280,239 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             }
             return false;
         }
+
+        LOG.trace("<- {}", message);
+        socket.sendText(message);
+        return true;
+    }
+
+    /**
+     * Signals the send task that new messages are queued or that its state changed.
+     */
+    protected void wakeSender()
+    {
+        synchronized (sendLock)
+        {
+            if (sendingStopped)
+                return;
+            if (sendRunning)
+            {
+                // the running task checks again before it is rescheduled
+                sendSignaled = true;
+                return;
+            }
+            ScheduledFuture<?> future = sendFuture;
+            if (future != null && !future.isDone())
+            {
+                if (future.getDelay(TimeUnit.MILLISECONDS) <= 0 || !future.cancel(false))
+                    return;
+            }
+            scheduleSend(0);
+        }
+    }
+
+    protected void startSending()
+    {
+        synchronized (sendLock)
+        {
+            sendingStopped = false;
+        }
+        wakeSender();
+    }
+
+    protected void stopSending()
+    {
+        synchronized (sendLock)
+        {
+            sendingStopped = true;
+            if (sendFuture != null)
+                sendFuture.cancel(false);
+            sendFuture = null;
+        }
+    }
+
+    // has to be called while holding the sendLock
+    protected void scheduleSend(long delay)
+    {
+        try
+        {
+            sendFuture = api.getGatewayPool().schedule(this::processSendQueue, delay, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            LOG.debug("Gateway pool rejected the send task. Most likely JDA is shutting down.");
+        }
     }
 
-    protected void setupSendingThread()
+    protected void processSendQueue()
     {
-        ratelimitThread = new Thread(() ->
+        synchronized (sendLock)
+        {
+            // a cancelled task might have started anyway
+            if (sendRunning)
+            {
+                sendSignaled = true;
+                return;
+            }
+            sendRunning = true;
+            sendSignaled = false;
+        }
+
+        long delay = -1;
+        try
         {
             api.setContext();
-            boolean needRatelimit;
-            boolean attemptedToSend;
-            while (!Thread.currentThread().isInterrupted())
+            do
             {
-                try
-                {
-                    //Make sure that we don't send any packets before sending auth info.
-                    if (!sentAuthInfo)
-                    {
-                        Thread.sleep(500);
-                        continue;
-                    }
-                    attemptedToSend = false;
-                    needRatelimit = false;
-                    audioQueueLock.lockInterruptibly();
+                delay = sendNext();
+            }
+            while (delay == 0);
+        }
+        catch (Throwable t)
+        {
+            handleCallbackError(socket, t);
+            // don't spin on a persistent failure
+            delay = 1000;
+        }
 
-                    ConnectionRequest audioRequest = getNextAudioConnectRequest();
-                    String chunkOrSyncRequest = chunkSyncQueue.peek();
+        synchronized (sendLock)
+        {
+            sendRunning = false;
+            sendFuture = null;
+            if (sendSignaled)
+                delay = 0;
+            //Only run again once a token is available, new messages wake us up
+            if (delay >= 0 && !sendingStopped)
+                scheduleSend(delay);
+        }
+    }
 
-                    //if lock isn't needed we already unlock here
-                    if (audioRequest == null || chunkOrSyncRequest != null)
-                        maybeUnlock();
-                    if (chunkOrSyncRequest != null)
-                    {
-                        needRatelimit = !send(chunkOrSyncRequest, false);
-                        if (!needRatelimit)
-                            chunkSyncQueue.remove();
+    /**
+     * Sends the next queued message with the highest priority.
+     * <br>This never blocks, if the audio queue is locked by another thread it is skipped and checked again later.
+     *
+     * @return {@code 0} if a message was sent, the milliseconds until the next message can be sent,
+     *         or {@code -1} if the task should wait for a signal
+     */
+    protected long sendNext()
+    {
+        if (!connected)
+            return -1;
 
-                        attemptedToSend = true;
-                    }
-                    else if (audioRequest != null)
-                    {
-                        long channel = audioRequest.getChannelId();
-                        Guild guild = api.getGuildById(audioRequest.getGuildIdLong());
-                        if (guild == null)
-                        {
-                            // race condition on guild delete, avoid NPE on DISCONNECT requests
-                            queuedAudioConnections.remove(audioRequest.getGuildIdLong());
-
-                            maybeUnlock();
-                            continue;
-                        }
-                        ConnectionStage stage = audioRequest.getStage();
-                        AudioManager audioManager = guild.getAudioManager();
-                        JSONObject packet;
-                        switch (stage)
-                        {
-                            case RECONNECT:
-                            case DISCONNECT:
-                                packet = newVoiceClose(audioRequest.getGuildIdLong());
-                                break;
-                            default:
-                            case CONNECT:
-                                packet = newVoiceOpen(audioManager, channel, guild.getIdLong());
-                        }
-                        needRatelimit = !send(packet.toString(), false);
-                        if (!needRatelimit)
-                        {
-                            //If we didn't get RateLimited, Next request attempt will be 2 seconds from now
-                            // we remove it in VoiceStateUpdateHandler once we hear that it has updated our status
-                            // in 2 seconds we will attempt again in case we did not receive an update
-                            audioRequest.setNextAttemptEpoch(System.currentTimeMillis() + 2000);
-                            //If we are already in the correct state according to voice state
-                            // we will not receive a VOICE_STATE_UPDATE that would remove it
-                            // thus we update it here
-                            final GuildVoiceState voiceState = guild.getSelfMember().getVoiceState();
-                            updateAudioConnection0(guild.getIdLong(), voiceState.getChannel());
-                        }
-                        maybeUnlock();
-                        attemptedToSend = true;
-                    }
-                    else
-                    {
-                        String message = ratelimitQueue.peek();
-                        if (message != null)
-                        {
-                            needRatelimit = !send(message, false);
-                            if (!needRatelimit)
-                                ratelimitQueue.remove();
-                            attemptedToSend = true;
-                        }
-                    }
+        String heartbeat = pendingHeartbeat.getAndSet(null);
+        if (heartbeat != null)
+        {
+            long delay = sendLimiter.tryAcquire(GatewaySendLimiter.Priority.HEARTBEAT, System.currentTimeMillis());
+            if (delay > 0)
+            {
+                // a newer heartbeat replaces this one
+                pendingHeartbeat.compareAndSet(null, heartbeat);
+                return delay;
+            }
+            LOG.trace("<- {}", heartbeat);
+            socket.sendText(heartbeat);
+            return 0;
+        }
 
-                    if (needRatelimit || !attemptedToSend)
-                        Thread.sleep(1000);
-                }
-                catch (InterruptedException ignored)
-                {
-                    LOG.debug("Main WS send thread interrupted. Most likely JDA is disconnecting the websocket.");
-                    break;
-                }
-                finally
+        //Make sure that we don't send any packets before sending auth info.
+        if (!sentAuthInfo)
+            return -1;
+
+        // the send task may share its thread with other shards, it must not wait for the lock
+        final long nextAudio;
+        if (audioQueueLock.tryLock())
+        {
+            try
+            {
+                ConnectionRequest audioRequest = getNextAudioConnectRequest();
+                if (audioRequest != null)
                 {
-                    // on any exception that might cause this lock to not release
-                    maybeUnlock();
+                    long delay = sendLimiter.tryAcquire(GatewaySendLimiter.Priority.VOICE_STATE, System.currentTimeMillis());
+                    if (delay > 0)
+                        return delay;
+                    sendAudioRequest(audioRequest);
+                    return 0;
                 }
+                nextAudio = nextAudioAttempt;
             }
-        });
-        ratelimitThread.setUncaughtExceptionHandler((thread, throwable) ->
+            finally
+            {
+                // never keep the lock while the caller waits for the delay
+                maybeUnlock();
+            }
+        }
+        else
         {
-            handleCallbackError(socket, throwable);
-            setupSendingThread();
-        });
-        ratelimitThread.setName(api.getIdentifierString() + " MainWS-Sending Thread");
-        ratelimitThread.start();
+            // the audio queue is being modified, check it again shortly
+            nextAudio = System.currentTimeMillis() + AUDIO_LOCK_RETRY;
+        }
+
+        String chunkOrSyncRequest = chunkSyncQueue.peek();
+        if (chunkOrSyncRequest != null)
+        {
+            long delay = sendLimiter.tryAcquire(GatewaySendLimiter.Priority.CHUNK, System.currentTimeMillis());
+            if (delay > 0)
+                return delay;
+            LOG.trace("<- {}", chunkOrSyncRequest);
+            socket.sendText(chunkOrSyncRequest);
+            chunkSyncQueue.remove();
+            return 0;
+        }
+
+        String message = ratelimitQueue.peek();
+        if (message != null)
+        {
+            long delay = sendLimiter.tryAcquire(GatewaySendLimiter.Priority.PRESENCE, System.currentTimeMillis());
+            if (delay > 0)
+                return delay;
+            LOG.trace("<- {}", message);
+            socket.sendText(message);
+            ratelimitQueue.remove();
+            return 0;
+        }
+
+        // retry audio requests that did not receive an update in time
+        if (nextAudio != Long.MAX_VALUE)
+            return Math.max(1, nextAudio - System.currentTimeMillis());
+        return -1;
+    }
+
+    // has to be called while holding the audioQueueLock
+    protected void sendAudioRequest(ConnectionRequest audioRequest)
+    {
+        long channel = audioRequest.getChannelId();
+        Guild guild = api.getGuildById(audioRequest.getGuildIdLong());
+        if (guild == null)
+        {
+            // race condition on guild delete, avoid NPE on DISCONNECT requests
+            queuedAudioConnections.remove(audioRequest.getGuildIdLong());
+            return;
+        }
+        ConnectionStage stage = audioRequest.getStage();
+        AudioManager audioManager = guild.getAudioManager();
+        JSONObject packet;
+        switch (stage)
+        {
+            case RECONNECT:
+            case DISCONNECT:
+                packet = newVoiceClose(audioRequest.getGuildIdLong());
+                break;
+            default:
+            case CONNECT:
+                packet = newVoiceOpen(audioManager, channel, guild.getIdLong());
+        }
+        String message = packet.toString();
+        LOG.trace("<- {}", message);
+        socket.sendText(message);
+        //Next request attempt will be 2 seconds from now
+        // we remove it in VoiceStateUpdateHandler once we hear that it has updated our status
+        // in 2 seconds we will attempt again in case we did not receive an update
+        audioRequest.setNextAttemptEpoch(System.currentTimeMillis() + 2000);
+        //If we are already in the correct state according to voice state
+        // we will not receive a VOICE_STATE_UPDATE that would remove it
+        // thus we update it here
+        final GuildVoiceState voiceState = guild.getSelfMember().getVoiceState();
+        updateAudioConnection0(guild.getIdLong(), voiceState.getChannel());
     }
 
     protected JSONObject newVoiceClose(long guildId)
@@ -458,7 +580,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         if (compression)
         {
             url += "&compress=zlib-stream";
-            decompressBuffer = newDecompressBuffer();
+            synchronized (readLock)
+            {
+                decompressor.reset();
+            }
         }
 
         try
@@ -500,8 +625,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         }
         connected = true;
         reconnectTimeoutS = 2;
-        messagesSent.set(0);
-        ratelimitResetTime = System.currentTimeMillis() + 60000;
+        sendLimiter.reset();
+        pendingHeartbeat.set(null);
+        printedRateLimitMessage = false;
+        wakeSender();
         if (sessionId == null)
             sendIdentify();
         else
@@ -521,10 +648,14 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         // as apparently discord doesn't understand what "graceful disconnect" means
         boolean isInvalidate = false;
 
-        if (keepAliveThread != null)
+        synchronized (keepAliveLock)
         {
-            keepAliveThread.interrupt();
-            keepAliveThread = null;
+            keepAliveGeneration++;
+            if (keepAliveTimeout != null)
+            {
+                keepAliveTimeout.cancel();
+                keepAliveTimeout = null;
+            }
         }
         if (serverCloseFrame != null)
         {
@@ -550,8 +681,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         boolean closeCodeIsReconnect = closeCode == null || closeCode.isReconnect();
         if (!shouldReconnect || !closeCodeIsReconnect) //we should not reconnect
         {
-            if (ratelimitThread != null)
-                ratelimitThread.interrupt();
+            stopSending();
 
             if (!closeCodeIsReconnect)
             {
@@ -569,10 +699,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             //reset our zlib decompression tools
             synchronized (readLock)
             {
-                zlibContext = new Inflater();
-                if (decompressBuffer != null)
-                    decompressBuffer.clear();
-                readBuffer = null;
+                decompressor.reset();
             }
             if (isInvalidate)
                 invalidate(); // 1000 means our session is dropped so we cannot resume
@@ -692,36 +819,66 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             previousContext.forEach(MDC::put);
     }
 
-    protected void setupKeepAlive(long timeout)
+    protected void setupKeepAlive(long interval)
     {
-        keepAliveThread = new Thread(() ->
+        synchronized (keepAliveLock)
         {
+            // cancelling does not stop a tick that is already running, the new generation makes it stop
+            final int generation = ++keepAliveGeneration;
+            if (keepAliveTimeout != null)
+                keepAliveTimeout.cancel();
+            heartbeatAcked = true;
+            //The first heartbeat is jittered, this keeps shards that connected at the same time from beating in sync
+            long jitter = (long) (interval * ThreadLocalRandom.current().nextDouble());
+            scheduleKeepAlive(interval, System.currentTimeMillis() + jitter, generation);
+        }
+    }
+
+    // has to be called while holding the keepAliveLock
+    protected void scheduleKeepAlive(long interval, long deadline, int generation)
+    {
+        try
+        {
+            keepAliveTimeout = api.getHeartbeatTimer().schedule(() -> heartbeat(interval, deadline, generation), deadline - System.currentTimeMillis());
+        }
+        catch (RejectedExecutionException e)
+        {
+            LOG.debug("Heartbeat timer rejected the keep-alive task. Most likely JDA is shutting down.");
+        }
+    }
+
+    protected void heartbeat(long interval, long deadline, int generation)
+    {
+        synchronized (keepAliveLock)
+        {
+            // a HELLO or disconnect replaced this chain while the tick was waiting
+            if (generation != keepAliveGeneration || !connected)
+                return;
             api.setContext();
-            while (connected)
+            if (!heartbeatAcked)
             {
-                try
-                {
-                    sendKeepAlive();
-
-                    //Sleep for heartbeat interval
-                    Thread.sleep(timeout);
-                }
-                catch (InterruptedException ex)
-                {
-                    //connection got cut... terminating keepAliveThread
-                    break;
-                }
+                //We did not hear back since the last heartbeat, the connection is dead even though the socket is open
+                LOG.warn("Did not receive a heartbeat acknowledgement within {} ms. Closing zombie connection to reconnect...", interval);
+                zombieConnections.incrementAndGet();
+                //Any close code other than 1000 keeps the session, so we can resume
+                socket.disconnect(4000, "ZOMBIE_CONNECTION", 1000);
+                return;
             }
-        });
-        keepAliveThread.setUncaughtExceptionHandler((thread, throwable) ->
-        {
-            handleCallbackError(socket, throwable);
-            setupKeepAlive(timeout);
-        });
-        keepAliveThread.setName(api.getIdentifierString() + " MainWS-KeepAlive Thread");
-        keepAliveThread.setPriority(Thread.MAX_PRIORITY);
-        keepAliveThread.setDaemon(true);
-        keepAliveThread.start();
+            heartbeatAcked = false;
+            sendKeepAlive();
+            //Fixed deadlines keep the jittered phase, even if a tick was late
+            scheduleKeepAlive(interval, deadline + interval, generation);
+        }
+    }
+
+    /**
+     * The amount of connections that were closed because heartbeats were not acknowledged
+     *
+     * @return The zombie connection count
+     */
+    public long getZombieConnectionCount()
+    {
+        return zombieConnections.get();
     }
 
     protected void sendKeepAlive()
@@ -732,8 +889,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     .put("d", api.getResponseTotal()
                 ).toString();
 
-        if (!send(keepAlivePacket, true))
-            ratelimitQueue.add(keepAlivePacket);
+        if (!send(keepAlivePacket, GatewaySendLimiter.Priority.HEARTBEAT))
+        {
+            pendingHeartbeat.set(keepAlivePacket);
+            wakeSender();
+        }
         heartbeatStartTime = System.currentTimeMillis();
     }
 
@@ -766,9 +926,10 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     .put(shardInfo.getShardId())
                     .put(shardInfo.getShardTotal()));
         }
-        send(identify.toString(), true);
+        send(identify.toString(), GatewaySendLimiter.Priority.IDENTIFY);
         handleIdentifyRateLimit = true;
         sentAuthInfo = true;
+        wakeSender();
         api.setStatus(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
     }
 
@@ -781,7 +942,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 .put("session_id", sessionId)
                 .put("token", getToken())
                 .put("seq", api.getResponseTotal()));
-        send(resume.toString(), true);
+        send(resume.toString(), GatewaySendLimiter.Priority.IDENTIFY);
         //sentAuthInfo = true; set on RESUMED response as this could fail
         api.setStatus(JDA.Status.AWAITING_LOGIN_CONFIRMATION);
     }
@@ -802,6 +963,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         api.getFakePrivateChannelMap().clear();
         api.getEventCache().clear();
         api.getGuildSetupController().clearCache();
+        api.getMemberLoader().clearCache();
 
         if (api.getAccountType() == AccountType.CLIENT)
         {
@@ -922,7 +1084,12 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 break;
             case WebSocketCode.HEARTBEAT_ACK:
                 LOG.trace("Got Heartbeat Ack (OP 11).");
-                api.setPing(System.currentTimeMillis() - heartbeatStartTime);
+                long latency = System.currentTimeMillis() - heartbeatStartTime;
+                heartbeatAcked = true;
+                api.setPing(latency);
+                api.getHeartbeatLatency().record(latency);
+                // acknowledgements arrive regularly even in quiet shards
+                api.getMemberLoader().sweepIdle();
                 break;
             default:
                 LOG.debug("Got unknown op-code: {} with content: {}", opCode, content);
@@ -973,6 +1140,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                     break;
                 case "RESUMED":
                     sentAuthInfo = true;
+                    wakeSender();
                     if (!processingReady)
                     {
                         initiating = false;
@@ -1013,79 +1181,61 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
     @Override
     public void onTextMessage(WebSocket websocket, String message)
     {
-        handleEvent(new JSONObject(message));
+        JSONObject json = readPayload(WebSocketPayload.fromText(message));
+        if (json != null)
+            handleEvent(json);
     }
 
     @Override
-    public void onBinaryMessage(WebSocket websocket, byte[] binary) throws IOException, DataFormatException
+    public void onBinaryMessage(WebSocket websocket, byte[] binary) throws DataFormatException
     {
         JSONObject json;
         synchronized (readLock)
         {
-            if (!onBufferMessage(binary))
+            //Thanks to ShadowLordAlpha and Shredder121 for code and debugging.
+            WebSocketPayload payload = decompressor.decompress(binary);
+            if (payload == null)
                 return;
-            json = handleBinary(binary);
+            // The payload is a view of the shared decompression buffer
+            // so it has to be materialized before the next frame can be inflated
+            json = readPayload(payload);
         }
-        handleEvent(json);
+        if (json != null)
+            handleEvent(json);
     }
 
-    protected boolean onBufferMessage(byte[] binary) throws IOException
-    {
-        if (binary.length >= 4 && getInt(binary, binary.length - 4) == ZLIB_SUFFIX)
-        {
-            extendBuffer(binary);
-            return true;
-        }
-
-        if (readBuffer != null)
-            extendBuffer(binary);
-        else
-            allocateBuffer(binary);
-
-        return false;
-    }
-
-    protected JSONObject handleBinary(byte[] binary) throws DataFormatException, UnsupportedEncodingException
+    /**
+     * Materializes the provided payload unless it can be skipped entirely.
+     *
+     * @param  payload
+     *         The payload to read
+     *
+     * @return The full json payload, or {@code null} if it was skipped
+     */
+    protected JSONObject readPayload(WebSocketPayload payload)
     {
-        //Thanks to ShadowLordAlpha and Shredder121 for code and debugging.
-        //Get the compressed message and inflate it
-        //We use the same buffer here to optimize gc use
-        ByteArrayOutputStream decompressBuffer = getDecompressBuffer();
-        try (InflaterOutputStream decompressor = new InflaterOutputStream(decompressBuffer, zlibContext))
-        {
-            if (readBuffer != null)
-                readBuffer.writeTo(decompressor);
-            else
-                decompressor.write(binary);
-        }
-        catch (IOException e)
-        {
-            decompressBuffer.reset();
-            throw (DataFormatException) new DataFormatException("Malformed").initCause(e);
-        }
-        finally { readBuffer = null; }
+        if (!isSkippable(payload))
+            return payload.toJson();
 
-        String jsonString = decompressBuffer.toString("UTF-8");
-        decompressBuffer.reset();
-        return new JSONObject(jsonString);
-    }
-
-    protected ByteArrayOutputStream getDecompressBuffer()
-    {
-        if (decompressBuffer == null)
-            decompressBuffer = newDecompressBuffer();
-        ByteArrayOutputStream buffer = decompressBuffer.get();
-        if (buffer == null)
-            decompressBuffer = new SoftReference<>(buffer = new ByteArrayOutputStream(1024));
-        return buffer;
+        final long sequence = payload.getSequence();
+        if (sequence >= 0)
+            api.setResponseTotal((int) sequence);
+        LOG.trace("Skipped {} payload with {} bytes", payload.getType(), payload.length());
+        if (sequence >= 0 && sequence % EventCache.TIMEOUT_AMOUNT == 0)
+            api.getEventCache().timeout(sequence);
+        return null;
     }
 
-    protected static int getInt(byte[] sink, int offset)
+    protected boolean isSkippable(WebSocketPayload payload)
     {
-        return sink[offset + 3] & 0xFF
-            | (sink[offset + 2] & 0xFF) << 8
-            | (sink[offset + 1] & 0xFF) << 16
-            | (sink[offset    ] & 0xFF) << 24;
+        if (payload.getOpCode() != WebSocketCode.DISPATCH)
+            return false;
+        final String type = payload.getType();
+        // PRESENCES_REPLACE is converted to PRESENCE_UPDATE in onDispatch
+        if (type == null || type.equals("PRESENCES_REPLACE"))
+            return false;
+        SocketHandler handler = handlers.get(type);
+        return handler != null && handler.isSkippable();
     }
 
     @Override
@@ -1186,6 +1336,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             // in all cases, update to this channel
             request.setChannel(channel);
         });
+        wakeSender();
     }
 
     public void queueAudioConnect(VoiceChannel channel)
@@ -1210,6 +1361,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
             // in all cases, update to this channel
             request.setChannel(channel);
         });
+        wakeSender();
     }
 
     public void queueAudioDisconnect(Guild guild)
@@ -1230,6 +1382,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 request.setStage(ConnectionStage.DISCONNECT);
             }
         });
+        wakeSender();
     }
 
     public ConnectionRequest removeAudioConnection(long guildId)
@@ -1269,6 +1422,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
                 case RECONNECT:
                     request.setStage(ConnectionStage.CONNECT);
                     request.setNextAttemptEpoch(System.currentTimeMillis());
+                    wakeSender();
                 default:
                     return null;
             }
@@ -1289,13 +1443,9 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
 //        return queuedAudioConnections;
 //    }
 
-    private SoftReference<ByteArrayOutputStream> newDecompressBuffer()
-    {
-        return new SoftReference<>(new ByteArrayOutputStream(1024));
-    }
-
     protected ConnectionRequest getNextAudioConnectRequest()
     {
+        nextAudioAttempt = Long.MAX_VALUE;
         //Don't try to setup audio connections before JDA has finished loading.
         if (!isReady())
             return null;
@@ -1306,7 +1456,11 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         {
             it.advance();
             ConnectionRequest audioRequest = it.value();
-            if (audioRequest.getNextAttemptEpoch() < now)
+            if (audioRequest.getNextAttemptEpoch() >= now)
+            {
+                nextAudioAttempt = Math.min(nextAudioAttempt, audioRequest.getNextAttemptEpoch());
+            }
+            else
             {
                 Guild guild = api.getGuildById(audioRequest.getGuildIdLong());
                 if (guild == null)
@@ -1448,7 +1602,7 @@ public class WebSocketClient extends WebSocketAdapter implements WebSocketListen
         {
             if (shutdown)
                 return;
-            setupSendingThread();
+            startSending();
             connect();
             if (isLast)
                 return;
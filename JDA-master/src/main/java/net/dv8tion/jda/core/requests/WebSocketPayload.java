@@ -0,0 +1,332 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lazily materialized view of a single gateway payload.
+ *
+ * <p>The top-level {@code op}, {@code s} and {@code t} fields are pulled from the raw text
+ * without building the org.json tree. The full {@link JSONObject} is only created once
+ * {@link #toJson()} is called, which allows the {@link WebSocketClient} to drop payloads
+ * that nobody handles before paying for the parse.
+ *
+ * <p>Views created with {@link #fromUtf8(byte[], int)} reference the backing array directly.
+ * They are only valid until that array is reused for the next frame.
+ */
+public abstract class WebSocketPayload
+{
+    protected final int length;
+    protected int opCode = -1;
+    protected long sequence = -1;
+    protected String type;
+    protected JSONObject json;
+
+    protected WebSocketPayload(int length)
+    {
+        this.length = length;
+    }
+
+    public static WebSocketPayload fromText(String text)
+    {
+        WebSocketPayload payload = new TextPayload(text);
+        payload.readHeader();
+        return payload;
+    }
+
+    public static WebSocketPayload fromUtf8(byte[] data, int length)
+    {
+        WebSocketPayload payload = new Utf8Payload(data, length);
+        payload.readHeader();
+        return payload;
+    }
+
+    public int getOpCode()
+    {
+        return opCode;
+    }
+
+    /**
+     * The sequence number of this payload
+     *
+     * @return The sequence, or {@code -1} if {@code s} was null or missing
+     */
+    public long getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * The dispatch type of this payload
+     *
+     * @return The type, or {@code null} if {@code t} was null or missing
+     */
+    public String getType()
+    {
+        return type;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public JSONObject toJson()
+    {
+        if (json == null)
+            json = new JSONObject(asString());
+        return json;
+    }
+
+    @Override
+    public String toString()
+    {
+        return asString();
+    }
+
+    protected abstract int charAt(int index);
+
+    protected abstract String substring(int start, int end);
+
+    protected abstract String asString();
+
+    protected void readHeader()
+    {
+        try
+        {
+            if (scanHeader())
+                return;
+        }
+        catch (IndexOutOfBoundsException | NumberFormatException ignored) {}
+        // Anything we do not understand is handed to org.json which knows how to produce a proper error
+        readHeader(toJson());
+    }
+
+    protected void readHeader(JSONObject content)
+    {
+        opCode = content.getInt("op");
+        sequence = content.isNull("s") ? -1 : content.getLong("s");
+        type = content.isNull("t") ? null : content.getString("t");
+    }
+
+    private boolean scanHeader()
+    {
+        int i = skipWhitespace(0);
+        if (i >= length || charAt(i) != '{')
+            return false;
+        i++;
+        boolean hasOp = false, hasSequence = false, hasType = false;
+        while (!hasOp || !hasSequence || !hasType)
+        {
+            i = skipWhitespace(i);
+            if (i >= length)
+                return false;
+            int c = charAt(i);
+            if (c == '}')
+                break;
+            if (c == ',')
+            {
+                i++;
+                continue;
+            }
+            if (c != '"')
+                return false;
+            int keyEnd = skipString(i);
+            int keyLength = keyEnd - i - 2;
+            int key = -1;
+            if (keyLength == 1)
+                key = charAt(i + 1) == 'o' ? -1 : charAt(i + 1);
+            else if (keyLength == 2 && charAt(i + 1) == 'o' && charAt(i + 2) == 'p')
+                key = 'o';
+            i = skipWhitespace(keyEnd);
+            if (charAt(i) != ':')
+                return false;
+            i = skipWhitespace(i + 1);
+            switch (key)
+            {
+                case 'o':
+                    int opEnd = skipLiteral(i);
+                    opCode = Integer.parseInt(substring(i, opEnd));
+                    hasOp = true;
+                    i = opEnd;
+                    break;
+                case 's':
+                    int sequenceEnd = skipLiteral(i);
+                    sequence = isNull(i) ? -1 : Long.parseLong(substring(i, sequenceEnd));
+                    hasSequence = true;
+                    i = sequenceEnd;
+                    break;
+                case 't':
+                    if (isNull(i))
+                    {
+                        type = null;
+                        i = skipLiteral(i);
+                    }
+                    else
+                    {
+                        if (charAt(i) != '"')
+                            return false;
+                        int typeEnd = skipString(i);
+                        type = substring(i + 1, typeEnd - 1);
+                        // escaped types never happen in practice, leave them to org.json
+                        if (type.indexOf('\\') >= 0)
+                            return false;
+                        i = typeEnd;
+                    }
+                    hasType = true;
+                    break;
+                default:
+                    i = skipValue(i);
+            }
+        }
+        return hasOp;
+    }
+
+    private boolean isNull(int i)
+    {
+        return charAt(i) == 'n';
+    }
+
+    private int skipWhitespace(int i)
+    {
+        while (i < length)
+        {
+            int c = charAt(i);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                break;
+            i++;
+        }
+        return i;
+    }
+
+    // returns the index after the closing quote
+    private int skipString(int i)
+    {
+        i++;
+        while (true)
+        {
+            int c = charAt(i++);
+            if (c == '\\')
+                i++;
+            else if (c == '"')
+                return i;
+        }
+    }
+
+    private int skipLiteral(int i)
+    {
+        while (i < length)
+        {
+            int c = charAt(i);
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t')
+                break;
+            i++;
+        }
+        return i;
+    }
+
+    private int skipValue(int i)
+    {
+        int c = charAt(i);
+        if (c == '"')
+            return skipString(i);
+        if (c != '{' && c != '[')
+            return skipLiteral(i);
+        int depth = 0;
+        do
+        {
+            c = charAt(i);
+            if (c == '"')
+            {
+                i = skipString(i);
+                continue;
+            }
+            if (c == '{' || c == '[')
+                depth++;
+            else if (c == '}' || c == ']')
+                depth--;
+            i++;
+        }
+        while (depth > 0);
+        return i;
+    }
+
+    private static class TextPayload extends WebSocketPayload
+    {
+        private final String text;
+
+        private TextPayload(String text)
+        {
+            super(text.length());
+            this.text = text;
+        }
+
+        @Override
+        protected int charAt(int index)
+        {
+            return text.charAt(index);
+        }
+
+        @Override
+        protected String substring(int start, int end)
+        {
+            return text.substring(start, end);
+        }
+
+        @Override
+        protected String asString()
+        {
+            return text;
+        }
+    }
+
+    private static class Utf8Payload extends WebSocketPayload
+    {
+        // All structural characters are ASCII and never occur inside multi-byte UTF-8 sequences,
+        // so the header can be scanned on the raw bytes without decoding them first
+        private final byte[] data;
+
+        private Utf8Payload(byte[] data, int length)
+        {
+            super(length);
+            this.data = data;
+        }
+
+        @Override
+        protected int charAt(int index)
+        {
+            if (index >= length)
+                throw new IndexOutOfBoundsException();
+            return data[index] & 0xFF;
+        }
+
+        @Override
+        protected String substring(int start, int end)
+        {
+            return new String(data, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected String asString()
+        {
+            return substring(0, length);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.requests;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompressor for the {@code zlib-stream} transport compression of the main gateway.
+ *
+ * <p>The shared zlib context is driven directly, without stream wrappers. Partial frames
+ * are collected in a reusable array and single-frame payloads are inflated straight from the
+ * frame. The output array is reused for every payload and is sized from the observed
+ * payload sizes. It grows for outliers such as a large GUILD_CREATE and shrinks back
+ * once those stop showing up.
+ *
+ * <p>This class is not thread-safe, all calls have to be guarded by the caller.
+ * The statistics may be read from any thread.
+ */
+public class ZlibDecompressor
+{
+    // Number of payloads that are sampled before the output buffer is resized
+    protected static final int SAMPLE_SIZE = 128;
+    protected static final int MIN_BUFFER_SIZE = 1024;
+    // Percentile of the sampled sizes the output buffer should be able to hold without growing
+    protected static final double TARGET_PERCENTILE = 0.95;
+
+    protected Inflater inflater = new Inflater();
+    protected byte[] readBuffer;
+    protected int readLength = 0;
+    protected byte[] decompressBuffer = new byte[MIN_BUFFER_SIZE];
+
+    protected final int[] samples = new int[SAMPLE_SIZE];
+    protected int sampleIndex = 0;
+
+    protected volatile long framesIn = 0;
+    protected volatile long payloadsOut = 0;
+    protected volatile long bytesIn = 0;
+    protected volatile long bytesOut = 0;
+    protected volatile long inflateTime = 0;
+
+    /**
+     * Adds the provided frame to the current payload and inflates it once the frame
+     * completes a payload.
+     *
+     * <p>The returned payload references the internal output buffer and is only
+     * valid until the next call to this method.
+     *
+     * @param  frame
+     *         The binary frame received from the gateway
+     *
+     * @throws DataFormatException
+     *         If the frame could not be inflated
+     *
+     * @return The completed payload, or {@code null} if more frames are required
+     */
+    public WebSocketPayload decompress(byte[] frame) throws DataFormatException
+    {
+        framesIn++;
+        bytesIn += frame.length;
+        if (!isFlush(frame))
+        {
+            buffer(frame);
+            return null;
+        }
+
+        final long start = System.nanoTime();
+        int size;
+        try
+        {
+            if (readLength > 0)
+            {
+                buffer(frame);
+                size = inflate(readBuffer, readLength);
+            }
+            else
+            {
+                size = inflate(frame, frame.length);
+            }
+        }
+        finally
+        {
+            readLength = 0;
+            inflateTime += System.nanoTime() - start;
+        }
+
+        payloadsOut++;
+        bytesOut += size;
+        // the view keeps the current buffer even if sampling decides to shrink it
+        WebSocketPayload payload = WebSocketPayload.fromUtf8(decompressBuffer, size);
+        sample(size);
+        return payload;
+    }
+
+    /**
+     * Resets the zlib context and drops any partially received payload.
+     * <br>Has to be called for every new connection.
+     */
+    public void reset()
+    {
+        inflater.reset();
+        readLength = 0;
+    }
+
+    public long getFramesIn()
+    {
+        return framesIn;
+    }
+
+    public long getPayloadsOut()
+    {
+        return payloadsOut;
+    }
+
+    public long getBytesIn()
+    {
+        return bytesIn;
+    }
+
+    public long getBytesOut()
+    {
+        return bytesOut;
+    }
+
+    /**
+     * Total time spent inflating payloads
+     *
+     * @return The time in nanoseconds
+     */
+    public long getInflateTime()
+    {
+        return inflateTime;
+    }
+
+    /**
+     * The current capacity of the reused output buffer
+     *
+     * @return The capacity in bytes
+     */
+    public int getBufferSize()
+    {
+        return decompressBuffer.length;
+    }
+
+    protected boolean isFlush(byte[] frame)
+    {
+        final int offset = frame.length - 4;
+        return offset >= 0
+            && (frame[offset + 3] & 0xFF
+            | (frame[offset + 2] & 0xFF) << 8
+            | (frame[offset + 1] & 0xFF) << 16
+            | (frame[offset    ] & 0xFF) << 24) == WebSocketClient.ZLIB_SUFFIX;
+    }
+
+    protected void buffer(byte[] frame)
+    {
+        final int required = readLength + frame.length;
+        if (readBuffer == null)
+            readBuffer = new byte[Math.max(required, MIN_BUFFER_SIZE)];
+        else if (readBuffer.length < required)
+            readBuffer = Arrays.copyOf(readBuffer, Math.max(required, readBuffer.length << 1));
+        System.arraycopy(frame, 0, readBuffer, readLength, frame.length);
+        readLength = required;
+    }
+
+    protected int inflate(byte[] input, int length) throws DataFormatException
+    {
+        inflater.setInput(input, 0, length);
+        byte[] buffer = decompressBuffer;
+        int size = 0;
+        int read;
+        do
+        {
+            if (size == buffer.length)
+                decompressBuffer = buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            read = inflater.inflate(buffer, size, buffer.length - size);
+            if (read == 0 && inflater.needsDictionary())
+                throw new DataFormatException("Malformed: dictionary required");
+            size += read;
+        }
+        // A full buffer might hide pending output, so we only stop once zlib had room to spare
+        while (size == buffer.length || (read > 0 && !inflater.needsInput()));
+        return size;
+    }
+
+    protected void sample(int size)
+    {
+        samples[sampleIndex++] = size;
+        if (sampleIndex < SAMPLE_SIZE)
+            return;
+        sampleIndex = 0;
+
+        int[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int target = sorted[(int) (TARGET_PERCENTILE * (SAMPLE_SIZE - 1))];
+        // round up to the next power of two
+        target = Math.max(MIN_BUFFER_SIZE, Integer.highestOneBit(Math.max(1, target - 1)) << 1);
+        // only shrink when the buffer is far too large, growing happens on demand
+        if (decompressBuffer.length > target << 1)
+            decompressBuffer = new byte[target];
+        if (readBuffer != null && readBuffer.length > target << 1)
+            readBuffer = null;
+    }
+}
@@ -31,18 +31,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BotRateLimiter extends RateLimiter
 {
     private static final String RESET_HEADER = "X-RateLimit-Reset";
     private static final String LIMIT_HEADER = "X-RateLimit-Limit";
     private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    // Interval in which buckets are checked for expiry
+    private static final long CLEANUP_INTERVAL = TimeUnit.SECONDS.toMillis(30);
     protected volatile Long timeOffset = null;
+    protected ScheduledFuture<?> cleanupTask;
+    protected final AtomicBoolean forcedCleanup = new AtomicBoolean(false);
 
     public BotRateLimiter(Requester requester)
     {
@@ -62,10 +71,30 @@ public class BotRateLimiter extends RateLimiter
     @Override
     protected void queueRequest(Request request)
     {
-        Bucket bucket = getBucket(request.getRoute());
-        synchronized (bucket)
+        while (true)
+        {
+            Bucket bucket = getBucket(request.getRoute());
+            synchronized (bucket)
+            {
+                // the bucket might have been evicted after we retrieved it, it is already removed
+                //  from the map at that point so the next try creates a new one
+                if (!bucket.evicted)
+                {
+                    bucket.addToQueue(request);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void shutdown()
+    {
+        super.shutdown();
+        synchronized (buckets)
         {
-            bucket.addToQueue(request);
+            if (cleanupTask != null)
+                cleanupTask.cancel(false);
         }
     }
 
@@ -132,12 +161,96 @@ public class BotRateLimiter extends RateLimiter
                     Route baseRoute = route.getBaseRoute();
                     bucket = new Bucket(rateLimitRoute, baseRoute.getRatelimit(), baseRoute.isMissingHeaders());
                     buckets.put(rateLimitRoute, bucket);
+                    onBucketCreated();
                 }
             }
         }
         return bucket;
     }
 
+    private void onBucketCreated()
+    {
+        try
+        {
+            if (cleanupTask == null && !isShutdown)
+            {
+                cleanupTask = requester.getJDA().getRateLimitPool().scheduleWithFixedDelay(
+                    () -> cleanup(false), CLEANUP_INTERVAL, CLEANUP_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+            // Don't wait for the next interval when the limit is exceeded, only one forced run at a time though
+            if (buckets.size() > maxBuckets && forcedCleanup.compareAndSet(false, true))
+                requester.getJDA().getRateLimitPool().execute(() -> cleanup(true));
+        }
+        catch (RejectedExecutionException e)
+        {
+            Requester.LOG.debug("Caught RejectedExecutionException when scheduling the bucket cleanup. The requester is probably shutdown, thus, this can be ignored.");
+        }
+    }
+
+    /**
+     * Removes buckets that have no queued requests and are not submitted for processing.
+     * <br>Usually only buckets with an elapsed reset time are removed, those no longer carry any rate-limit information.
+     * When the bucket count exceeds {@link #getMaxBuckets()} the least recently used idle buckets are removed
+     * as well, their rate-limit is then rediscovered with the next request.
+     *
+     * @param forced
+     *        Whether this run was triggered by exceeding the maximum bucket count
+     */
+    protected void cleanup(boolean forced)
+    {
+        try
+        {
+            long now = getNow();
+            List<Bucket> candidates = new ArrayList<>();
+            for (IBucket b : buckets.values())
+            {
+                Bucket bucket = (Bucket) b;
+                if (bucket.resetTime > now || !evict(bucket))
+                    candidates.add(bucket);
+            }
+
+            int excess = buckets.size() - maxBuckets;
+            if (excess <= 0)
+                return;
+            candidates.sort(Comparator.comparingLong(bucket -> bucket.lastUsed));
+            for (Iterator<Bucket> it = candidates.iterator(); excess > 0 && it.hasNext(); )
+            {
+                if (evict(it.next()))
+                    excess--;
+            }
+            if (excess > 0)
+                Requester.LOG.debug("Could not reduce rate-limit buckets below the limit of {}, {} buckets are still in use", maxBuckets, buckets.size());
+        }
+        catch (Throwable t)
+        {
+            Requester.LOG.error("Encountered error while cleaning up rate-limit buckets", t);
+        }
+        finally
+        {
+            if (forced)
+                forcedCleanup.set(false);
+        }
+    }
+
+    private boolean evict(Bucket bucket)
+    {
+        synchronized (bucket)
+        {
+            if (bucket.evicted || !bucket.requests.isEmpty())
+                return false;
+            synchronized (submittedBuckets)
+            {
+                if (submittedBuckets.contains(bucket))
+                    return false;
+                bucket.evicted = true;
+            }
+            // removed while holding the bucket, a request that sees it evicted always finds a new bucket
+            if (buckets.remove(bucket.route, bucket))
+                evictedBuckets.incrementAndGet();
+        }
+        return true;
+    }
+
     public long getNow()
     {
         return System.currentTimeMillis() + getTimeOffset();
@@ -169,6 +282,7 @@ public class BotRateLimiter extends RateLimiter
     private void updateBucket(Bucket bucket, Headers headers, long retryAfter)
     {
         int headerCount = 0;
+        bucket.lastUsed = System.currentTimeMillis();
         if (retryAfter > 0)
         {
             bucket.resetTime = getNow() + retryAfter;
@@ -240,6 +354,8 @@ public class BotRateLimiter extends RateLimiter
         volatile long resetTime = 0;
         volatile int routeUsageRemaining = 1;    //These are default values to only allow 1 request until we have properly
         volatile int routeUsageLimit = 1;        // ratelimit information.
+        volatile long lastUsed = System.currentTimeMillis();
+        boolean evicted = false;                 // guarded by this bucket
 
         public Bucket(String route, RateLimit rateLimit, boolean missingHeaders)
         {
@@ -255,6 +371,7 @@ public class BotRateLimiter extends RateLimiter
 
         void addToQueue(Request request)
         {
+            lastUsed = System.currentTimeMillis();
             requests.add(request);
             submitForProcessing();
         }
@@ -341,6 +458,11 @@ public class BotRateLimiter extends RateLimiter
                             request = it.next();
                             if (isSkipped(it, request))
                                 continue;
+                            if (requester.isAsync())
+                            {
+                                executeAsync(request);
+                                return; // the response callback continues with the next request
+                            }
                             Long retryAfter = requester.execute(request);
                             if (retryAfter != null)
                                 break;
@@ -356,21 +478,7 @@ public class BotRateLimiter extends RateLimiter
                         }
                     }
 
-                    synchronized (submittedBuckets)
-                    {
-                        submittedBuckets.remove(this);
-                        if (!requests.isEmpty())
-                        {
-                            try
-                            {
-                                this.submitForProcessing();
-                            }
-                            catch (RejectedExecutionException e)
-                            {
-                                Requester.LOG.debug("Caught RejectedExecutionException when re-queuing a ratelimited request. The requester is probably shutdown, thus, this can be ignored.");
-                            }
-                        }
-                    }
+                    resubmit();
                 }
             }
             catch (Throwable err)
@@ -384,6 +492,36 @@ public class BotRateLimiter extends RateLimiter
             }
         }
 
+        // only one request of a bucket is in flight at a time, this keeps the order of the queue
+        void executeAsync(Request request)
+        {
+            requester.executeAsync(request, false, retryAfter ->
+            {
+                if (retryAfter == null)
+                    requests.remove(request);
+                resubmit();
+            });
+        }
+
+        void resubmit()
+        {
+            synchronized (submittedBuckets)
+            {
+                submittedBuckets.remove(this);
+                if (!requests.isEmpty())
+                {
+                    try
+                    {
+                        this.submitForProcessing();
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        Requester.LOG.debug("Caught RejectedExecutionException when re-queuing a ratelimited request. The requester is probably shutdown, thus, this can be ignored.");
+                    }
+                }
+            }
+        }
+
         @Override
         public RateLimit getRatelimit()
         {
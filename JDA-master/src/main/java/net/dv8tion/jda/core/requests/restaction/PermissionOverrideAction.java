@@ -23,11 +23,13 @@ import net.dv8tion.jda.core.entities.Member;
 import net.dv8tion.jda.core.entities.PermissionOverride;
 import net.dv8tion.jda.core.entities.Role;
 import net.dv8tion.jda.core.entities.impl.AbstractChannelImpl;
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
 import net.dv8tion.jda.core.entities.impl.PermissionOverrideImpl;
 import net.dv8tion.jda.core.requests.Request;
 import net.dv8tion.jda.core.requests.Response;
 import net.dv8tion.jda.core.requests.Route;
 import net.dv8tion.jda.core.utils.Checks;
+import net.dv8tion.jda.core.utils.cache.CacheFlag;
 import okhttp3.RequestBody;
 import org.json.JSONObject;
 
@@ -462,7 +464,9 @@ public class PermissionOverrideAction extends AuditableRestAction<PermissionOver
         override.setAllow(object.getLong("allow"));
         override.setDeny(object.getLong("deny"));
 
-        ((AbstractChannelImpl<?>) channel).getOverrideMap().put(id, override);
+        JDAImpl api = (JDAImpl) getJDA();
+        if (!isMember || api.isCacheFlagSet(CacheFlag.MEMBER_OVERRIDES) || id == api.getSelfUser().getIdLong())
+            ((AbstractChannelImpl<?>) channel).getOverrideMap().put(id, override);
 
         request.onSuccess(override);
     }
@@ -0,0 +1,135 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of latencies in milliseconds.
+ * <br>Values are counted in buckets with power of two boundaries, bucket {@code i} holds values
+ * below {@code 2^i} milliseconds and the last bucket holds everything above.
+ *
+ * <p>This is used to track the heartbeat latency of the main gateway, see {@link net.dv8tion.jda.core.JDA#getPing()}
+ * for the latest value.
+ */
+public class LatencyHistogram
+{
+    public static final int BUCKETS = 18;
+
+    protected final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    protected final AtomicLong count = new AtomicLong();
+    protected final AtomicLong sum = new AtomicLong();
+    protected final AtomicLong max = new AtomicLong();
+
+    /**
+     * Adds the provided latency to this histogram, negative values are ignored.
+     *
+     * @param millis
+     *        The latency in milliseconds
+     */
+    public void record(long millis)
+    {
+        if (millis < 0)
+            return;
+        counts.incrementAndGet(getBucket(millis));
+        count.incrementAndGet();
+        sum.addAndGet(millis);
+        max.accumulateAndGet(millis, Math::max);
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * The mean of all recorded latencies
+     *
+     * @return The mean in milliseconds, or {@code 0} if nothing was recorded
+     */
+    public double getMean()
+    {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    /**
+     * The upper bound of the bucket which holds the provided percentile.
+     * <br>For instance {@code getPercentile(0.99)} returns a value that 99% of the recorded latencies are below.
+     *
+     * @param  percentile
+     *         The percentile, between 0 and 1
+     *
+     * @throws IllegalArgumentException
+     *         If the percentile is not between 0 and 1
+     *
+     * @return The upper bound in milliseconds, or {@code 0} if nothing was recorded
+     */
+    public long getPercentile(double percentile)
+    {
+        Checks.check(percentile >= 0 && percentile <= 1, "Percentile must be between 0 and 1");
+        long[] snapshot = getCounts();
+        long total = 0;
+        for (long c : snapshot)
+            total += c;
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS - 1; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0)
+                return 1L << i;
+        }
+        return getMax();
+    }
+
+    /**
+     * Snapshot of the bucket counts
+     *
+     * @return Array with the count of each bucket
+     */
+    public long[] getCounts()
+    {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            snapshot[i] = counts.get(i);
+        return snapshot;
+    }
+
+    public void reset()
+    {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    protected static int getBucket(long millis)
+    {
+        // 0 -> 0, 1 -> 1, 2..3 -> 2, 4..7 -> 3, ...
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+}
@@ -276,6 +276,10 @@ public class PermissionUtil
      * <br>Example: If a member has the {@link net.dv8tion.jda.core.Permission#ADMINISTRATOR} permission, they will be able to
      * {@link net.dv8tion.jda.core.Permission#MESSAGE_WRITE} in every channel.
      *
+     * <p>Member overrides are only known for the self member while
+     * {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled,
+     * the result for other members only reflects their roles and role overrides.
+     *
      * @param  member
      *         The {@link net.dv8tion.jda.core.entities.Member Member} whose permissions are being checked.
      * @param  channel
@@ -351,6 +355,8 @@ public class PermissionUtil
      * {@link net.dv8tion.jda.core.Permission#getPermissions(long) Permission.getPermissions(long)} to easily get a list of all
      * {@link net.dv8tion.jda.core.Permission Permissions} that this member can use in this {@link net.dv8tion.jda.core.entities.Channel Channel}.
      * <br>This functions very similarly to how {@link net.dv8tion.jda.core.entities.Role#getPermissionsRaw() Role.getPermissionsRaw()}.
+     * <br>Inaccurate for members other than the self member while
+     * {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled.
      *
      * @param  channel
      *         The {@link net.dv8tion.jda.core.entities.Channel Channel} being checked.
@@ -499,6 +505,8 @@ public class PermissionUtil
      * grant other permissions in this value.
      * <p>This factor in all {@link net.dv8tion.jda.core.entities.PermissionOverride PermissionOverrides} that affect this member
      * and only grants the ones that are explicitly given.
+     * <br>Member overrides of other members are not cached while
+     * {@link net.dv8tion.jda.core.utils.cache.CacheFlag#MEMBER_OVERRIDES CacheFlag.MEMBER_OVERRIDES} is disabled.
      *
      * @param  channel
      *         The target channel of which to check {@link net.dv8tion.jda.core.entities.PermissionOverride PermissionOverrides}
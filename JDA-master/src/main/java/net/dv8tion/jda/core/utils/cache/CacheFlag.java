@@ -36,5 +36,23 @@ public enum CacheFlag
     /**
      * Enables cache for {@link Guild#getEmoteCache()}
      */
-    EMOTE
+    EMOTE,
+    /**
+     * Enables cache for {@link Member#getOnlineStatus()}
+     * <br>If this and {@link #GAME} are disabled, presence updates are not processed beyond the user information.
+     * Members are {@link net.dv8tion.jda.core.OnlineStatus#OFFLINE OFFLINE} while this is disabled.
+     */
+    ONLINE_STATUS,
+    /**
+     * Enables cache for the {@link net.dv8tion.jda.core.entities.Channel#getMemberPermissionOverrides() member overrides}
+     * of members other than the self member.
+     * <br>Overrides of roles are always cached, as they are required for the permissions of the self member.
+     *
+     * <p><b>While this is disabled, channel permissions of other members are inaccurate.</b>
+     * Their member overrides are missing, so {@link Member#hasPermission(net.dv8tion.jda.core.entities.Channel, net.dv8tion.jda.core.Permission...)}
+     * and {@link net.dv8tion.jda.core.utils.PermissionUtil PermissionUtil} only apply role overrides. A member
+     * can be reported to have a permission that its own override denies, or to lack one that it allows.
+     * Only disable this if channel permissions are checked for the self member alone.
+     */
+    MEMBER_OVERRIDES
 }
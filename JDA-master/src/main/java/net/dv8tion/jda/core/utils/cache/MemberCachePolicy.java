@@ -0,0 +1,196 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.utils.cache;
+
+import net.dv8tion.jda.core.utils.Checks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which {@link net.dv8tion.jda.core.entities.Member Members} are kept in the
+ * {@link net.dv8tion.jda.core.entities.Guild#getMemberCache() member cache} of a guild.
+ *
+ * <p>By default, JDA requests all members of every large guild during startup and keeps them until they leave.
+ * <br>With a {@link #lazy() lazy} policy no members are requested during startup. Guilds only start with the members
+ * that Discord sends in the guild payload, other members are added once they appear in a message, voice state
+ * or member update. Members that JDA needs but did not see yet are requested in batches.
+ * <br>Lazy policies can additionally evict members once a guild holds more than {@link #withMaxSize(int) max size}
+ * members, starting with the least recently active ones, or once a member was not active for the
+ * {@link #withIdleTimeout(long, TimeUnit) idle timeout} or {@link #withOfflineEviction() goes offline}.
+ * The self member, the owner and members connected to a voice channel are never evicted.
+ *
+ * <h2>Example</h2>
+ * <pre><code>
+ * new JDABuilder(AccountType.BOT)
+ *     .setMemberCachePolicy(MemberCachePolicy.lazy().withMaxSize(1000).withIdleTimeout(1, TimeUnit.HOURS))
+ * </code></pre>
+ */
+public final class MemberCachePolicy
+{
+    /**
+     * Requests and caches all members, this is the default.
+     */
+    public static final MemberCachePolicy ALL = new MemberCachePolicy(false, Integer.MAX_VALUE, 0, false);
+
+    private static final MemberCachePolicy LAZY = new MemberCachePolicy(true, Integer.MAX_VALUE, 0, false);
+
+    private final boolean lazy;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final boolean evictOffline;
+
+    private MemberCachePolicy(boolean lazy, int maxSize, long idleTimeout, boolean evictOffline)
+    {
+        this.lazy = lazy;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.evictOffline = evictOffline;
+    }
+
+    /**
+     * Policy which does not request members during startup and keeps every member it has seen.
+     *
+     * @return The lazy policy
+     */
+    public static MemberCachePolicy lazy()
+    {
+        return LAZY;
+    }
+
+    /**
+     * Copy of this policy which keeps at most the provided amount of members per guild.
+     * <br>The cache of a guild can temporarily exceed this limit if not enough members can be evicted.
+     *
+     * @param  maxSize
+     *         The maximum amount of members per guild
+     *
+     * @throws java.lang.IllegalStateException
+     *         If this policy is not lazy
+     * @throws java.lang.IllegalArgumentException
+     *         If the provided size is less than 1
+     *
+     * @return The new policy
+     */
+    public MemberCachePolicy withMaxSize(int maxSize)
+    {
+        if (!lazy)
+            throw new IllegalStateException("Only lazy policies can evict members");
+        Checks.check(maxSize > 0, "Max size must be at least 1");
+        return new MemberCachePolicy(true, maxSize, idleTimeout, evictOffline);
+    }
+
+    /**
+     * Copy of this policy which evicts members once a presence update reports them as
+     * {@link net.dv8tion.jda.core.OnlineStatus#OFFLINE OFFLINE}.
+     * <br>Members are not evicted for lacking a presence, members which were added by a message
+     * and never received a presence update are kept.
+     *
+     * @throws java.lang.IllegalStateException
+     *         If this policy is not lazy
+     *
+     * @return The new policy
+     */
+    public MemberCachePolicy withOfflineEviction()
+    {
+        if (!lazy)
+            throw new IllegalStateException("Only lazy policies can evict members");
+        return new MemberCachePolicy(true, maxSize, idleTimeout, true);
+    }
+
+    /**
+     * Copy of this policy which evicts members which were not active for the provided time.
+     * <br>A member is active when it sends a message, changes its voice state or is updated.
+     * <br>Idle members are checked when a guild gains members and on every heartbeat, so they are evicted
+     * within about half the timeout plus one heartbeat interval.
+     *
+     * @param  timeout
+     *         The idle timeout, or 0 to keep idle members
+     * @param  unit
+     *         The {@link java.util.concurrent.TimeUnit TimeUnit} of the timeout
+     *
+     * @throws java.lang.IllegalStateException
+     *         If this policy is not lazy
+     * @throws java.lang.IllegalArgumentException
+     *         If the timeout is negative or the unit is null
+     *
+     * @return The new policy
+     */
+    public MemberCachePolicy withIdleTimeout(long timeout, TimeUnit unit)
+    {
+        if (!lazy)
+            throw new IllegalStateException("Only lazy policies can evict members");
+        Checks.notNegative(timeout, "Timeout");
+        Checks.notNull(unit, "TimeUnit");
+        return new MemberCachePolicy(true, maxSize, unit.toMillis(timeout), evictOffline);
+    }
+
+    /**
+     * Whether members are loaded on demand instead of during startup.
+     *
+     * @return True, if this policy is lazy
+     */
+    public boolean isLazy()
+    {
+        return lazy;
+    }
+
+    /**
+     * The maximum amount of members kept per guild.
+     *
+     * @return The maximum size, {@link Integer#MAX_VALUE} if unlimited
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * The time after which idle members are evicted, in milliseconds.
+     *
+     * @return The idle timeout, 0 if idle members are kept
+     */
+    public long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    /**
+     * Whether members are evicted when they go offline.
+     *
+     * @return True, if offline members are evicted
+     */
+    public boolean isEvictingOffline()
+    {
+        return evictOffline;
+    }
+
+    /**
+     * Whether this policy evicts members based on their activity.
+     *
+     * @return True, if a max size or idle timeout is configured
+     */
+    public boolean isEvicting()
+    {
+        return maxSize != Integer.MAX_VALUE || idleTimeout > 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MemberCachePolicy{lazy=" + lazy + ", maxSize=" + maxSize + ", idleTimeout=" + idleTimeout + ", evictOffline=" + evictOffline + '}';
+    }
+}
@@ -18,7 +18,6 @@ package net.dv8tion.jda.core.utils.cache.impl;
 
 import gnu.trove.map.TLongObjectMap;
 import net.dv8tion.jda.core.utils.Checks;
-import net.dv8tion.jda.core.utils.MiscUtil;
 import net.dv8tion.jda.core.utils.cache.CacheView;
 import org.apache.commons.collections4.iterators.ObjectArrayIterator;
 
@@ -31,10 +30,24 @@ import java.util.stream.StreamSupport;
 
 public abstract class AbstractCacheView<T> implements CacheView<T>
 {
-    protected final TLongObjectMap<T> elements = MiscUtil.newLongMap();
+    protected final StripedLongObjectMap<T> elements = new StripedLongObjectMap<T>()
+    {
+        @Override
+        protected void onWrite(long key, T previous, T current)
+        {
+            NameIndex<T> index = nameIndex;
+            if (index != null)
+                index.update(key, current);
+            WriteListener<T> listener = writeListener;
+            if (listener != null)
+                listener.onWrite(AbstractCacheView.this, key, previous, current);
+        }
+    };
     protected final T[] emptyArray;
     protected final Function<T, String> nameMapper;
     protected final Class<T> type;
+    protected volatile NameIndex<T> nameIndex;
+    protected volatile WriteListener<T> writeListener;
 
     @SuppressWarnings("unchecked")
     protected AbstractCacheView(Class<T> type, Function<T, String> nameMapper)
@@ -54,6 +67,67 @@ public abstract class AbstractCacheView<T> implements CacheView<T>
         return elements;
     }
 
+    /**
+     * Enables or disables the name index used by {@link #getElementsByName(String, boolean)}.
+     * <br>This should be configured before elements are added to this view.
+     *
+     * @param enabled
+     *        True, to keep an index of the element names
+     */
+    public void setNameIndexEnabled(boolean enabled)
+    {
+        if (!enabled)
+        {
+            nameIndex = null;
+            return;
+        }
+        if (nameMapper == null)
+            throw new UnsupportedOperationException("The contained elements are not assigned with names.");
+        if (nameIndex != null)
+            return;
+        NameIndex<T> index = new NameIndex<>(nameMapper);
+        nameIndex = index;
+        elements.forEachEntry((key, value) ->
+        {
+            index.update(key, value);
+            return true;
+        });
+    }
+
+    public boolean isNameIndexEnabled()
+    {
+        return nameIndex != null;
+    }
+
+    /**
+     * Updates the name index after the name of the element with the provided key changed.
+     *
+     * @param key
+     *        The key of the renamed element
+     */
+    public void updateName(long key)
+    {
+        if (nameIndex != null)
+            elements.refresh(key);
+    }
+
+    /**
+     * Sets the listener which is notified of every change to the elements of this view.
+     * <br>Elements that are already cached are not reported to the listener.
+     *
+     * @param listener
+     *        The listener, or {@code null} to remove the current listener
+     */
+    public void setWriteListener(WriteListener<T> listener)
+    {
+        this.writeListener = listener;
+    }
+
+    public WriteListener<T> getWriteListener()
+    {
+        return writeListener;
+    }
+
     @Override
     public List<T> asList()
     {
@@ -90,6 +164,9 @@ public abstract class AbstractCacheView<T> implements CacheView<T>
             return Collections.emptyList();
         if (nameMapper == null) // no getName method available
             throw new UnsupportedOperationException("The contained elements are not assigned with names.");
+        NameIndex<T> index = nameIndex;
+        if (index != null)
+            return index.get(name, ignoreCase);
 
         List<T> list = new ArrayList<>();
         for (T elem : this)
@@ -133,4 +210,28 @@ public abstract class AbstractCacheView<T> implements CacheView<T>
     {
         return first == second || ignoreCase ? first.equalsIgnoreCase(second) : first.equals(second);
     }
+
+    /**
+     * Listener for the changes to the elements of a cache view, used to maintain indices across multiple views.
+     *
+     * @param <T> The element type
+     */
+    @FunctionalInterface
+    public interface WriteListener<T>
+    {
+        /**
+         * Called after the element of a key changed, while the key is still locked.
+         * <br>Implementations must not access the view again.
+         *
+         * @param view
+         *        The view that changed
+         * @param key
+         *        The changed key
+         * @param previous
+         *        The previous element, or {@code null}
+         * @param current
+         *        The new element, or {@code null} if the key was removed
+         */
+        void onWrite(AbstractCacheView<T> view, long key, T previous, T current);
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.utils.cache.impl;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of a cache view which maps names to the elements that currently carry them.
+ *
+ * <p>Case-insensitive lookups use a folded key which matches exactly the strings
+ * {@link String#equalsIgnoreCase(String)} considers equal.
+ * Buckets are replaced copy-on-write, lookups do not lock.
+ *
+ * @param <T> The element type
+ */
+public class NameIndex<T>
+{
+    protected final Function<T, String> nameMapper;
+    // the name every key was indexed with, guarded by this
+    protected final TLongObjectMap<String> names = new TLongObjectHashMap<>();
+    protected final ConcurrentMap<String, Bucket<T>> exact = new ConcurrentHashMap<>();
+    protected final ConcurrentMap<String, Bucket<T>> folded = new ConcurrentHashMap<>();
+
+    public NameIndex(Function<T, String> nameMapper)
+    {
+        this.nameMapper = nameMapper;
+    }
+
+    /**
+     * Re-indexes the element stored for the provided key.
+     *
+     * @param key
+     *        The key of the element
+     * @param element
+     *        The element now stored for this key, or {@code null} if it was removed
+     */
+    public synchronized void update(long key, T element)
+    {
+        String name = element == null ? null : nameMapper.apply(element);
+        String previous = names.remove(key);
+        if (previous != null)
+        {
+            remove(exact, previous, key);
+            remove(folded, fold(previous), key);
+        }
+        if (name != null)
+        {
+            names.put(key, name);
+            add(exact, name, key, element);
+            add(folded, fold(name), key, element);
+        }
+    }
+
+    public synchronized void clear()
+    {
+        names.clear();
+        exact.clear();
+        folded.clear();
+    }
+
+    public List<T> get(String name, boolean ignoreCase)
+    {
+        Bucket<T> bucket = ignoreCase ? folded.get(fold(name)) : exact.get(name);
+        return bucket == null ? Collections.emptyList() : bucket.list;
+    }
+
+    protected void add(ConcurrentMap<String, Bucket<T>> index, String name, long key, T element)
+    {
+        Bucket<T> bucket = index.get(name);
+        index.put(name, bucket == null ? new Bucket<>(key, element) : bucket.with(key, element));
+    }
+
+    protected void remove(ConcurrentMap<String, Bucket<T>> index, String name, long key)
+    {
+        Bucket<T> bucket = index.get(name);
+        if (bucket == null)
+            return;
+        Bucket<T> next = bucket.without(key);
+        if (next == null)
+            index.remove(name);
+        else
+            index.put(name, next);
+    }
+
+    protected static String fold(String name)
+    {
+        char[] chars = null;
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            char f = Character.toLowerCase(Character.toUpperCase(c));
+            if (c == f)
+                continue;
+            if (chars == null)
+                chars = name.toCharArray();
+            chars[i] = f;
+        }
+        return chars == null ? name : new String(chars);
+    }
+
+    protected static class Bucket<T>
+    {
+        protected final long[] keys;
+        protected final Object[] elements;
+        protected final List<T> list;
+
+        @SuppressWarnings("unchecked")
+        protected Bucket(long[] keys, Object[] elements)
+        {
+            this.keys = keys;
+            this.elements = elements;
+            this.list = Collections.unmodifiableList((List<T>) Arrays.asList(elements));
+        }
+
+        protected Bucket(long key, T element)
+        {
+            this(new long[] { key }, new Object[] { element });
+        }
+
+        protected Bucket<T> with(long key, T element)
+        {
+            long[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+            Object[] elements = Arrays.copyOf(this.elements, this.elements.length + 1);
+            keys[this.keys.length] = key;
+            elements[this.elements.length] = element;
+            return new Bucket<>(keys, elements);
+        }
+
+        protected Bucket<T> without(long key)
+        {
+            int index = -1;
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (keys[i] == key)
+                {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0)
+                return this;
+            if (keys.length == 1)
+                return null;
+            long[] keys = new long[this.keys.length - 1];
+            Object[] elements = new Object[keys.length];
+            System.arraycopy(this.keys, 0, keys, 0, index);
+            System.arraycopy(this.keys, index + 1, keys, index, keys.length - index);
+            System.arraycopy(this.elements, 0, elements, 0, index);
+            System.arraycopy(this.elements, index + 1, elements, index, keys.length - index);
+            return new Bucket<>(keys, elements);
+        }
+    }
+}
@@ -21,14 +21,26 @@ import org.apache.commons.collections4.iterators.ObjectArrayIterator;
 
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Cache view that keeps a sorted snapshot of its elements.
+ *
+ * <p>The snapshot is replaced copy-on-write. It is rebuilt on the first read after an element was added or removed,
+ * or after {@link #invalidate()} was called because the sort key of a cached element changed.
+ * All other reads share the same array.
+ */
 public class SortedSnowflakeCacheView<T extends ISnowflake & Comparable<T>> extends SnowflakeCacheViewImpl<T>
 {
     protected static final int SPLIT_CHARACTERISTICS = Spliterator.IMMUTABLE | Spliterator.ORDERED | Spliterator.NONNULL;
 
     protected final Comparator<T> comparator;
+    protected final AtomicInteger orderVersion = new AtomicInteger();
+    protected volatile Snapshot<T> snapshot;
 
     public SortedSnowflakeCacheView(Class<T> type, Comparator<T> comparator)
     {
@@ -41,48 +53,108 @@ public class SortedSnowflakeCacheView<T extends ISnowflake & Comparable<T>> exte
         this.comparator = comparator;
     }
 
+    /**
+     * Drops the current snapshot, has to be called when the order of a cached element changed
+     * without it being added or removed.
+     */
+    public void invalidate()
+    {
+        orderVersion.incrementAndGet();
+    }
+
     @Override
     public List<T> asList()
     {
-        List<T> list = new ArrayList<>(elements.size());
-        elements.forEachValue(list::add);
-        list.sort(comparator);
-        return Collections.unmodifiableList(list);
+        return getSnapshot().list;
     }
 
     @Override
     public SortedSet<T> asSet()
     {
-        SortedSet<T> set = new TreeSet<>(comparator);
-        elements.forEachValue(set::add);
-        return Collections.unmodifiableSortedSet(set);
+        Snapshot<T> current = getSnapshot();
+        SortedSet<T> set = current.set;
+        if (set == null)
+        {
+            SortedSet<T> tree = new TreeSet<>(comparator);
+            Collections.addAll(tree, current.elements);
+            current.set = set = Collections.unmodifiableSortedSet(tree);
+        }
+        return set;
+    }
+
+    @Override
+    public List<T> getElementsByName(String name, boolean ignoreCase)
+    {
+        List<T> list = super.getElementsByName(name, ignoreCase);
+        if (nameIndex == null || list.size() < 2)
+            return list;
+        // the index keeps insertion order
+        List<T> sorted = new ArrayList<>(list);
+        sorted.sort(comparator);
+        return Collections.unmodifiableList(sorted);
     }
 
     @Override
     public Spliterator<T> spliterator()
     {
-        return Spliterators.spliterator(iterator(), elements.size(), SPLIT_CHARACTERISTICS);
+        return Spliterators.spliterator(getSnapshot().elements, SPLIT_CHARACTERISTICS);
     }
 
     @Override
     public Stream<T> stream()
     {
-        return super.stream().sorted(comparator);
+        return StreamSupport.stream(spliterator(), false);
     }
 
     @Override
     public Stream<T> parallelStream()
     {
-        return super.parallelStream().sorted(comparator);
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action)
+    {
+        for (T element : getSnapshot().elements)
+            action.accept(element);
     }
 
     @Nonnull
     @Override
-    @SuppressWarnings("unchecked")
     public Iterator<T> iterator()
     {
+        return new ObjectArrayIterator<>(getSnapshot().elements);
+    }
+
+    protected Snapshot<T> getSnapshot()
+    {
+        // read the versions before copying, a concurrent change makes the next read rebuild again
+        final long modifications = elements.getModificationCount();
+        final int order = orderVersion.get();
+        Snapshot<T> current = snapshot;
+        if (current != null && current.modifications == modifications && current.order == order)
+            return current;
+
         T[] arr = elements.values(emptyArray);
         Arrays.sort(arr, comparator);
-        return new ObjectArrayIterator<>(arr);
+        snapshot = current = new Snapshot<>(arr, modifications, order);
+        return current;
+    }
+
+    protected static class Snapshot<T>
+    {
+        protected final T[] elements;
+        protected final List<T> list;
+        protected final long modifications;
+        protected final int order;
+        protected volatile SortedSet<T> set;
+
+        protected Snapshot(T[] elements, long modifications, int order)
+        {
+            this.elements = elements;
+            this.list = Collections.unmodifiableList(Arrays.asList(elements));
+            this.modifications = modifications;
+            this.order = order;
+        }
     }
 }
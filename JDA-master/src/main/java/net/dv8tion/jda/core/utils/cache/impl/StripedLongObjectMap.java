@@ -0,0 +1,599 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.utils.cache.impl;
+
+import gnu.trove.function.TObjectFunction;
+import gnu.trove.impl.unmodifiable.TUnmodifiableLongSet;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.procedure.TLongObjectProcedure;
+import gnu.trove.procedure.TLongProcedure;
+import gnu.trove.procedure.TObjectProcedure;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import net.dv8tion.jda.core.utils.Checks;
+import org.apache.commons.collections4.iterators.ObjectArrayIterator;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Thread-safe {@link TLongObjectMap} which splits its entries into independently locked segments.
+ *
+ * <p>A single synchronized map makes every lookup from an event thread wait for the writes of the
+ * WebSocket read thread and for every other reader. Here a key only locks the segment it hashes to,
+ * so concurrent access to different snowflakes rarely touches the same monitor.
+ *
+ * <p>Bulk operations are weakly consistent, they see each segment at a different point in time.
+ * Iterators, {@link #keySet()} and the procedures of the {@code forEach} methods work on a snapshot
+ * taken segment by segment. Procedures are never called while a segment is locked.
+ *
+ * @param <V> The value type
+ */
+public class StripedLongObjectMap<V> implements TLongObjectMap<V>
+{
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    @SuppressWarnings("rawtypes")
+    protected static final AtomicLongFieldUpdater<StripedLongObjectMap> MODIFICATIONS =
+        AtomicLongFieldUpdater.newUpdater(StripedLongObjectMap.class, "modifications");
+
+    protected final Segment<V>[] segments;
+    protected final int shift;
+    protected volatile long modifications = 0;
+
+    public StripedLongObjectMap()
+    {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    public StripedLongObjectMap(int segmentCount)
+    {
+        Checks.check(segmentCount > 0 && Integer.bitCount(segmentCount) == 1, "Segment count must be a positive power of two");
+        this.segments = newSegments(segmentCount);
+        for (int i = 0; i < segmentCount; i++)
+            segments[i] = new Segment<>();
+        this.shift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Segment<V>[] newSegments(int count)
+    {
+        return (Segment<V>[]) new Segment<?>[count];
+    }
+
+    protected Segment<V> segmentFor(long key)
+    {
+        // the low bits of a snowflake are a per-process increment, mix the whole key before picking a segment
+        return shift == 64 ? segments[0] : segments[(int) ((key * 0x9E3779B97F4A7C15L) >>> shift)];
+    }
+
+    /**
+     * Counter which is incremented after every write to this map.
+     * <br>Used to detect whether a snapshot of the values is still current.
+     *
+     * @return The current modification count
+     */
+    public long getModificationCount()
+    {
+        return modifications;
+    }
+
+    protected void modified()
+    {
+        MODIFICATIONS.incrementAndGet(this);
+    }
+
+    /**
+     * Called after the value of a key changed, while the segment of that key is still locked.
+     * <br>Implementations must not access this map again.
+     *
+     * @param key
+     *        The changed key
+     * @param previous
+     *        The previous value, or {@code null}
+     * @param current
+     *        The new value, or {@code null} if the key was removed
+     */
+    protected void onWrite(long key, V previous, V current) {}
+
+    /**
+     * Calls {@link #onWrite(long, Object, Object)} for the current value of the provided key.
+     * <br>Used when a property of the value changed that a subclass derives state from.
+     *
+     * @param key
+     *        The key to refresh
+     */
+    public void refresh(long key)
+    {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment)
+        {
+            V value = segment.map.get(key);
+            if (value != null)
+                onWrite(key, value, value);
+        }
+    }
+
+    @Override
+    public long getNoEntryKey()
+    {
+        return segments[0].map.getNoEntryKey();
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 0;
+        for (Segment<V> segment : segments)
+            size += segment.map.size(); // reads a single int field, no need to lock
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        for (Segment<V> segment : segments)
+        {
+            if (!segment.map.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsKey(long key)
+    {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.map.containsKey(key);
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        for (Segment<V> segment : segments)
+        {
+            synchronized (segment)
+            {
+                if (segment.map.containsValue(value))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V get(long key)
+    {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment)
+        {
+            return segment.map.get(key);
+        }
+    }
+
+    @Override
+    public V put(long key, V value)
+    {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment)
+        {
+            V previous = segment.map.put(key, value);
+            modified();
+            onWrite(key, previous, value);
+            return previous;
+        }
+    }
+
+    @Override
+    public V putIfAbsent(long key, V value)
+    {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment)
+        {
+            V previous = segment.map.putIfAbsent(key, value);
+            if (previous == null)
+            {
+                modified();
+                onWrite(key, null, value);
+            }
+            return previous;
+        }
+    }
+
+    @Override
+    public V remove(long key)
+    {
+        Segment<V> segment = segmentFor(key);
+        synchronized (segment)
+        {
+            V previous = segment.map.remove(key);
+            if (previous != null)
+            {
+                modified();
+                onWrite(key, previous, null);
+            }
+            return previous;
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends Long, ? extends V> map)
+    {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void putAll(TLongObjectMap<? extends V> map)
+    {
+        map.forEachEntry((key, value) ->
+        {
+            put(key, value);
+            return true;
+        });
+    }
+
+    @Override
+    public void clear()
+    {
+        for (Segment<V> segment : segments)
+        {
+            synchronized (segment)
+            {
+                segment.map.forEachEntry((key, value) ->
+                {
+                    onWrite(key, value, null);
+                    return true;
+                });
+                segment.map.clear();
+            }
+        }
+        modified();
+    }
+
+    /**
+     * Snapshot of the keys at the time of this call.
+     *
+     * @return Unmodifiable set of keys
+     */
+    @Override
+    public TLongSet keySet()
+    {
+        return new TUnmodifiableLongSet(new TLongHashSet(keys()));
+    }
+
+    @Override
+    public long[] keys()
+    {
+        return keys(null);
+    }
+
+    @Override
+    public long[] keys(long[] array)
+    {
+        long[][] parts = new long[segments.length][];
+        int size = 0;
+        for (int i = 0; i < segments.length; i++)
+        {
+            synchronized (segments[i])
+            {
+                parts[i] = segments[i].map.keys();
+            }
+            size += parts[i].length;
+        }
+        long[] keys = array == null || array.length < size ? new long[size] : array;
+        int offset = 0;
+        for (long[] part : parts)
+        {
+            System.arraycopy(part, 0, keys, offset, part.length);
+            offset += part.length;
+        }
+        return keys;
+    }
+
+    /**
+     * Read-only view of the values.
+     * <br>Iterating this collection works on a snapshot of the current values.
+     *
+     * @return Read-only collection of values
+     */
+    @Override
+    public Collection<V> valueCollection()
+    {
+        return new AbstractCollection<V>()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<V> iterator()
+            {
+                return new ObjectArrayIterator<>((V[]) values());
+            }
+
+            @Override
+            public int size()
+            {
+                return StripedLongObjectMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                return containsValue(o);
+            }
+        };
+    }
+
+    @Override
+    public Object[] values()
+    {
+        return collectValues(new Object[0]);
+    }
+
+    @Override
+    public V[] values(V[] array)
+    {
+        return collectValues(array);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T> T[] collectValues(T[] array)
+    {
+        List<T[]> parts = new ArrayList<>(segments.length);
+        int size = 0;
+        for (Segment<V> segment : segments)
+        {
+            T[] part;
+            synchronized (segment)
+            {
+                if (segment.map.isEmpty())
+                    continue;
+                part = (T[]) segment.map.values((V[]) Arrays.copyOf(array, 0));
+            }
+            parts.add(part);
+            size += part.length;
+        }
+        T[] values = array.length < size ? Arrays.copyOf(array, size) : array;
+        int offset = 0;
+        for (T[] part : parts)
+        {
+            System.arraycopy(part, 0, values, offset, part.length);
+            offset += part.length;
+        }
+        if (values.length > size)
+            values[size] = null;
+        return values;
+    }
+
+    /**
+     * Iterator over a snapshot of the current entries.
+     * <br>{@link TLongObjectIterator#remove() remove()} and {@link TLongObjectIterator#setValue(Object) setValue(V)}
+     * write through to this map.
+     *
+     * @return Snapshot iterator
+     */
+    @Override
+    public TLongObjectIterator<V> iterator()
+    {
+        return new SnapshotIterator();
+    }
+
+    @Override
+    public boolean forEachKey(TLongProcedure procedure)
+    {
+        for (long key : keys())
+        {
+            if (!procedure.execute(key))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean forEachValue(TObjectProcedure<? super V> procedure)
+    {
+        for (Object value : values())
+        {
+            if (!procedure.execute((V) value))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean forEachEntry(TLongObjectProcedure<? super V> procedure)
+    {
+        for (TLongObjectIterator<V> it = iterator(); it.hasNext();)
+        {
+            it.advance();
+            if (!procedure.execute(it.key(), it.value()))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void transformValues(TObjectFunction<V, V> function)
+    {
+        for (Segment<V> segment : segments)
+        {
+            synchronized (segment)
+            {
+                for (TLongObjectIterator<V> it = segment.map.iterator(); it.hasNext();)
+                {
+                    it.advance();
+                    V previous = it.value();
+                    V value = function.execute(previous);
+                    it.setValue(value);
+                    onWrite(it.key(), previous, value);
+                }
+            }
+        }
+        modified();
+    }
+
+    @Override
+    public boolean retainEntries(TLongObjectProcedure<? super V> procedure)
+    {
+        boolean changed = false;
+        for (Segment<V> segment : segments)
+        {
+            synchronized (segment)
+            {
+                changed |= segment.map.retainEntries((key, value) ->
+                {
+                    if (procedure.execute(key, value))
+                        return true;
+                    onWrite(key, value, null);
+                    return false;
+                });
+            }
+        }
+        if (changed)
+            modified();
+        return changed;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof TLongObjectMap))
+            return false;
+        TLongObjectMap<?> other = (TLongObjectMap<?>) obj;
+        if (other.size() != size())
+            return false;
+        return forEachEntry((key, value) -> other.containsKey(key) && Objects.equals(value, other.get(key)));
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = 0;
+        for (Segment<V> segment : segments)
+        {
+            synchronized (segment)
+            {
+                hash += segment.map.hashCode();
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder("{");
+        forEachEntry((key, value) ->
+        {
+            if (builder.length() > 1)
+                builder.append(", ");
+            builder.append(key).append('=').append(value);
+            return true;
+        });
+        return builder.append('}').toString();
+    }
+
+    protected static class Segment<V>
+    {
+        protected final TLongObjectHashMap<V> map = new TLongObjectHashMap<>();
+    }
+
+    protected class SnapshotIterator implements TLongObjectIterator<V>
+    {
+        protected final long[] keys;
+        protected final Object[] values;
+        protected int size;
+        protected int index = -1;
+
+        protected SnapshotIterator()
+        {
+            int capacity = StripedLongObjectMap.this.size();
+            long[] keys = new long[capacity];
+            Object[] values = new Object[capacity];
+            int size = 0;
+            for (Segment<V> segment : segments)
+            {
+                synchronized (segment)
+                {
+                    int required = size + segment.map.size();
+                    if (required > keys.length)
+                    {
+                        keys = Arrays.copyOf(keys, required);
+                        values = Arrays.copyOf(values, required);
+                    }
+                    for (TLongObjectIterator<V> it = segment.map.iterator(); it.hasNext(); size++)
+                    {
+                        it.advance();
+                        keys[size] = it.key();
+                        values[size] = it.value();
+                    }
+                }
+            }
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return index + 1 < size;
+        }
+
+        @Override
+        public void advance()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            index++;
+        }
+
+        @Override
+        public long key()
+        {
+            return keys[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V value()
+        {
+            return (V) values[index];
+        }
+
+        @Override
+        public V setValue(V value)
+        {
+            values[index] = value;
+            return put(keys[index], value);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (index < 0)
+                throw new IllegalStateException();
+            StripedLongObjectMap.this.remove(keys[index]);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixes one 20ms frame of every speaker with {@link AudioMixer} and with the per-sample iterator loop
+ * the combined executor used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioMixerBenchmark
+{
+    @Param({"2", "5", "10", "25", "50"})
+    public int speakers;
+
+    private final AudioMixer mixer = new AudioMixer();
+    private short[][] frames;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(0x5eed);
+        frames = new short[speakers][AudioMixer.FRAME_LENGTH];
+        for (short[] frame : frames)
+        {
+            for (int i = 0; i < frame.length; i++)
+                frame[i] = (short) random.nextInt(1 << 16);
+        }
+    }
+
+    @Benchmark
+    public short[] mixer()
+    {
+        mixer.clear();
+        for (short[] frame : frames)
+            mixer.add(frame);
+        return mixer.mix();
+    }
+
+    @Benchmark
+    public short[] iterator()
+    {
+        List<short[]> audioParts = new LinkedList<>();
+        for (short[] frame : frames)
+            audioParts.add(frame);
+
+        int audioLength = audioParts.stream().mapToInt(it -> it.length).max().getAsInt();
+        short[] mix = new short[AudioMixer.FRAME_LENGTH];
+        int sample;
+        for (int i = 0; i < audioLength; i++)
+        {
+            sample = 0;
+            for (Iterator<short[]> iterator = audioParts.iterator(); iterator.hasNext(); )
+            {
+                short[] audio = iterator.next();
+                if (i < audio.length)
+                    sample += audio[i];
+                else
+                    iterator.remove();
+            }
+            if (sample > Short.MAX_VALUE)
+                mix[i] = Short.MAX_VALUE;
+            else if (sample < Short.MIN_VALUE)
+                mix[i] = Short.MIN_VALUE;
+            else
+                mix[i] = (short) sample;
+        }
+        return mix;
+    }
+}
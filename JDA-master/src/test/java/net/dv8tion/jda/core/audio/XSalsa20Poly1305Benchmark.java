@@ -0,0 +1,93 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seals and opens voice packets with {@link XSalsa20Poly1305} and with {@link TweetNaclFast.SecretBox}.
+ * <br>The payload sizes cover a silent frame, a typical 20ms opus frame and a large frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XSalsa20Poly1305Benchmark
+{
+    @Param({"3", "160", "1000"})
+    public int length;
+
+    private XSalsa20Poly1305 cipher;
+    private TweetNaclFast.SecretBox box;
+    private byte[] nonce;
+    private byte[] message;
+    private byte[] boxed;
+    private byte[] sealed;
+    private byte[] packet;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(0x5eed);
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        nonce = new byte[AudioCipher.NONCE_LENGTH];
+        random.nextBytes(nonce);
+        message = new byte[length];
+        random.nextBytes(message);
+
+        cipher = new XSalsa20Poly1305(key);
+        box = new TweetNaclFast.SecretBox(key);
+        boxed = box.box(message, nonce);
+        sealed = boxed.clone();
+        packet = new byte[sealed.length];
+    }
+
+    @Benchmark
+    public byte[] sealCipher()
+    {
+        // encrypting the previous output again keeps the work identical without a copy
+        cipher.seal(packet, 0, length, nonce);
+        return packet;
+    }
+
+    @Benchmark
+    public byte[] sealTweetNacl()
+    {
+        return box.box(message, nonce);
+    }
+
+    @Benchmark
+    public boolean openCipher()
+    {
+        // opening works in place, so every invocation starts from a fresh copy of the sealed packet
+        System.arraycopy(sealed, 0, packet, 0, sealed.length);
+        return cipher.open(packet, 0, length, nonce);
+    }
+
+    @Benchmark
+    public byte[] openTweetNacl()
+    {
+        return box.open(boxed, nonce);
+    }
+}
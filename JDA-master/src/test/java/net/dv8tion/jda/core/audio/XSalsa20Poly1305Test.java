@@ -0,0 +1,199 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.audio;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class XSalsa20Poly1305Test
+{
+    // test vector of the NaCl distribution (tests/secretbox.c), used by most secretbox implementations
+    private static final byte[] KEY = bytes(
+        0x1b, 0x27, 0x55, 0x64, 0x73, 0xe9, 0x85, 0xd4, 0x62, 0xcd, 0x51, 0x19, 0x7a, 0x9a, 0x46, 0xc7,
+        0x60, 0x09, 0x54, 0x9e, 0xac, 0x64, 0x74, 0xf2, 0x06, 0xc4, 0xee, 0x08, 0x44, 0xf6, 0x83, 0x89);
+    private static final byte[] NONCE = bytes(
+        0x69, 0x69, 0x6e, 0xe9, 0x55, 0xb6, 0x2b, 0x73, 0xcd, 0x62, 0xbd, 0xa8,
+        0x75, 0xfc, 0x73, 0xd6, 0x82, 0x19, 0xe0, 0x03, 0x6b, 0x7a, 0x0b, 0x37);
+    private static final byte[] MESSAGE = bytes(
+        0xbe, 0x07, 0x5f, 0xc5, 0x3c, 0x81, 0xf2, 0xd5, 0xcf, 0x14, 0x13, 0x16, 0xeb, 0xeb, 0x0c, 0x7b,
+        0x52, 0x28, 0xc5, 0x2a, 0x4c, 0x62, 0xcb, 0xd4, 0x4b, 0x66, 0x84, 0x9b, 0x64, 0x24, 0x4f, 0xfc,
+        0xe5, 0xec, 0xba, 0xaf, 0x33, 0xbd, 0x75, 0x1a, 0x1a, 0xc7, 0x28, 0xd4, 0x5e, 0x6c, 0x61, 0x29,
+        0x6c, 0xdc, 0x3c, 0x01, 0x23, 0x35, 0x61, 0xf4, 0x1d, 0xb6, 0x6c, 0xce, 0x31, 0x4a, 0xdb, 0x31,
+        0x0e, 0x3b, 0xe8, 0x25, 0x0c, 0x46, 0xf0, 0x6d, 0xce, 0xea, 0x3a, 0x7f, 0xa1, 0x34, 0x80, 0x57,
+        0xe2, 0xf6, 0x55, 0x6a, 0xd6, 0xb1, 0x31, 0x8a, 0x02, 0x4a, 0x83, 0x8f, 0x21, 0xaf, 0x1f, 0xde,
+        0x04, 0x89, 0x77, 0xeb, 0x48, 0xf5, 0x9f, 0xfd, 0x49, 0x24, 0xca, 0x1c, 0x60, 0x90, 0x2e, 0x52,
+        0xf0, 0xa0, 0x89, 0xbc, 0x76, 0x89, 0x70, 0x40, 0xe0, 0x82, 0xf9, 0x37, 0x76, 0x38, 0x48, 0x64,
+        0x5e, 0x07, 0x05);
+    // MAC followed by the ciphertext
+    private static final byte[] SEALED = bytes(
+        0xf3, 0xff, 0xc7, 0x70, 0x3f, 0x94, 0x00, 0xe5, 0x2a, 0x7d, 0xfb, 0x4b, 0x3d, 0x33, 0x05, 0xd9,
+        0x8e, 0x99, 0x3b, 0x9f, 0x48, 0x68, 0x12, 0x73, 0xc2, 0x96, 0x50, 0xba, 0x32, 0xfc, 0x76, 0xce,
+        0x48, 0x33, 0x2e, 0xa7, 0x16, 0x4d, 0x96, 0xa4, 0x47, 0x6f, 0xb8, 0xc5, 0x31, 0xa1, 0x18, 0x6a,
+        0xc0, 0xdf, 0xc1, 0x7c, 0x98, 0xdc, 0xe8, 0x7b, 0x4d, 0xa7, 0xf0, 0x11, 0xec, 0x48, 0xc9, 0x72,
+        0x71, 0xd2, 0xc2, 0x0f, 0x9b, 0x92, 0x8f, 0xe2, 0x27, 0x0d, 0x6f, 0xb8, 0x63, 0xd5, 0x17, 0x38,
+        0xb4, 0x8e, 0xee, 0xe3, 0x14, 0xa7, 0xcc, 0x8a, 0xb9, 0x32, 0x16, 0x45, 0x48, 0xe5, 0x26, 0xae,
+        0x90, 0x22, 0x43, 0x68, 0x51, 0x7a, 0xcf, 0xea, 0xbd, 0x6b, 0xb3, 0x73, 0x2b, 0xc0, 0xe9, 0xda,
+        0x99, 0x83, 0x2b, 0x61, 0xca, 0x01, 0xb6, 0xde, 0x56, 0x24, 0x4a, 0x9e, 0x88, 0xd5, 0xf9, 0xb3,
+        0x79, 0x73, 0xf6, 0x22, 0xa4, 0x3d, 0x14, 0xa6, 0x59, 0x9b, 0x1f, 0x65, 0x4c, 0xb4, 0x5a, 0x74,
+        0xe3, 0x55, 0xa5);
+
+    private static final int RANDOM_CASES = 2000;
+
+    @Test
+    public void sealMatchesNaclVector()
+    {
+        byte[] data = new byte[AudioCipher.MAC_LENGTH + MESSAGE.length];
+        System.arraycopy(MESSAGE, 0, data, AudioCipher.MAC_LENGTH, MESSAGE.length);
+        new XSalsa20Poly1305(KEY).seal(data, 0, MESSAGE.length, NONCE);
+        assertArrayEquals(SEALED, data);
+    }
+
+    @Test
+    public void openMatchesNaclVector()
+    {
+        byte[] data = SEALED.clone();
+        assertTrue(new XSalsa20Poly1305(KEY).open(data, 0, MESSAGE.length, NONCE));
+        assertArrayEquals(MESSAGE, Arrays.copyOfRange(data, AudioCipher.MAC_LENGTH, data.length));
+    }
+
+    @Test
+    public void matchesTweetNacl()
+    {
+        Random random = new Random(0x5eed);
+        byte[] key = new byte[32];
+        byte[] nonce = new byte[AudioCipher.NONCE_LENGTH];
+        XSalsa20Poly1305 cipher = null;
+        TweetNaclFast.SecretBox box = null;
+        for (int i = 0; i < RANDOM_CASES; i++)
+        {
+            // one instance handles many packets, so the state has to be reset between them
+            if (i % 100 == 0)
+            {
+                random.nextBytes(key);
+                cipher = new XSalsa20Poly1305(key);
+                box = new TweetNaclFast.SecretBox(key);
+            }
+            random.nextBytes(nonce);
+            byte[] message = new byte[random.nextInt(1500)];
+            random.nextBytes(message);
+            int offset = random.nextInt(32);
+
+            byte[] expected = box.box(message, nonce);
+            byte[] data = new byte[offset + AudioCipher.MAC_LENGTH + message.length + 8];
+            random.nextBytes(data);
+            byte[] surrounding = data.clone();
+            System.arraycopy(message, 0, data, offset + AudioCipher.MAC_LENGTH, message.length);
+
+            cipher.seal(data, offset, message.length, nonce);
+            assertArrayEquals("seal, length " + message.length, expected,
+                Arrays.copyOfRange(data, offset, offset + expected.length));
+            assertSurroundingUnchanged(surrounding, data, offset, expected.length);
+
+            assertTrue("open, length " + message.length, cipher.open(data, offset, message.length, nonce));
+            assertArrayEquals(message, Arrays.copyOfRange(data, offset + AudioCipher.MAC_LENGTH, offset + expected.length));
+            assertArrayEquals(message, box.open(expected, nonce));
+        }
+    }
+
+    @Test
+    public void rejectsTamperedMac()
+    {
+        XSalsa20Poly1305 cipher = new XSalsa20Poly1305(KEY);
+        for (int i = 0; i < AudioCipher.MAC_LENGTH; i++)
+        {
+            byte[] data = SEALED.clone();
+            data[i] ^= 1 << (i % 8);
+            assertFalse(cipher.open(data, 0, MESSAGE.length, NONCE));
+            assertUntouched(SEALED, data, i);
+        }
+    }
+
+    @Test
+    public void rejectsTamperedCiphertext()
+    {
+        XSalsa20Poly1305 cipher = new XSalsa20Poly1305(KEY);
+        for (int i = AudioCipher.MAC_LENGTH; i < SEALED.length; i += 7)
+        {
+            byte[] data = SEALED.clone();
+            data[i] ^= 0x80;
+            assertFalse(cipher.open(data, 0, MESSAGE.length, NONCE));
+            assertUntouched(SEALED, data, i);
+        }
+        // a valid packet still opens after failures
+        assertTrue(cipher.open(SEALED.clone(), 0, MESSAGE.length, NONCE));
+    }
+
+    @Test
+    public void rejectsWrongNonceAndKey()
+    {
+        byte[] nonce = NONCE.clone();
+        nonce[23] ^= 1;
+        assertFalse(new XSalsa20Poly1305(KEY).open(SEALED.clone(), 0, MESSAGE.length, nonce));
+
+        byte[] key = KEY.clone();
+        key[0] ^= 1;
+        assertFalse(new XSalsa20Poly1305(key).open(SEALED.clone(), 0, MESSAGE.length, NONCE));
+    }
+
+    @Test
+    public void bufferOffsetsMatchArray()
+    {
+        byte[] backing = new byte[8 + SEALED.length];
+        System.arraycopy(MESSAGE, 0, backing, 8 + AudioCipher.MAC_LENGTH, MESSAGE.length);
+        ByteBuffer buffer = ByteBuffer.wrap(backing, 4, backing.length - 4).slice();
+
+        XSalsa20Poly1305 cipher = new XSalsa20Poly1305(KEY);
+        cipher.seal(buffer, 4, MESSAGE.length, NONCE);
+        assertArrayEquals(SEALED, Arrays.copyOfRange(backing, 8, backing.length));
+        assertTrue(cipher.open(buffer, 4, MESSAGE.length, NONCE));
+        assertArrayEquals(MESSAGE, Arrays.copyOfRange(backing, 8 + AudioCipher.MAC_LENGTH, backing.length));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortKey()
+    {
+        new XSalsa20Poly1305(new byte[16]);
+    }
+
+    private static void assertSurroundingUnchanged(byte[] before, byte[] after, int offset, int length)
+    {
+        assertArrayEquals(Arrays.copyOfRange(before, 0, offset), Arrays.copyOfRange(after, 0, offset));
+        assertArrayEquals(Arrays.copyOfRange(before, offset + length, before.length),
+            Arrays.copyOfRange(after, offset + length, after.length));
+    }
+
+    // a rejected packet must not be decrypted
+    private static void assertUntouched(byte[] sealed, byte[] data, int tampered)
+    {
+        data[tampered] = sealed[tampered];
+        assertArrayEquals(sealed, data);
+    }
+
+    private static byte[] bytes(int... values)
+    {
+        byte[] array = new byte[values.length];
+        for (int i = 0; i < values.length; i++)
+            array[i] = (byte) values[i];
+        return array;
+    }
+}
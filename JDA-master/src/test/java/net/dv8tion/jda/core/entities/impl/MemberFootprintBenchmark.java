@@ -0,0 +1,138 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.entities.impl;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.core.AccountType;
+import net.dv8tion.jda.core.utils.cache.CacheFlag;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Populates a synthetic guild of {@value #MEMBERS} members and measures the heap retained by the guild,
+ * its members and their users.
+ * <br>The time of the single shot includes garbage collections, the result to look at is the secondary
+ * {@code bytesPerMember} result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MemberFootprintBenchmark
+{
+    public static final int MEMBERS = 100_000;
+    public static final int ROLES = 50;
+
+    @Param({"0", "3", "10"})
+    public int rolesPerMember;
+
+    @Param({"true", "false"})
+    public boolean voiceStates;
+
+    private JDAImpl api;
+    private JSONObject guildJson;
+    private TLongObjectMap<MemberData> members;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint
+    {
+        public long bytesPerMember;
+    }
+
+    @Setup(Level.Trial)
+    public void setupApi()
+    {
+        EnumSet<CacheFlag> flags = EnumSet.of(CacheFlag.GAME, CacheFlag.ONLINE_STATUS);
+        if (voiceStates)
+            flags.add(CacheFlag.VOICE_STATE);
+        api = new JDAImpl(AccountType.BOT, "token", null, null, null, null, null,
+            false, false, false, true, true, false, true, true, 1, 900, null, flags);
+        api.setSelfUser(new SelfUserImpl(1, api));
+        api.getUserMap().put(1, api.getSelfUser());
+
+        JSONArray roles = new JSONArray();
+        for (int i = 0; i < ROLES; i++)
+        {
+            roles.put(new JSONObject()
+                .put("id", 10 + i).put("name", "role " + i).put("position", i).put("permissions", 0).put("color", 0)
+                .put("hoist", false).put("managed", false).put("mentionable", false));
+        }
+        guildJson = new JSONObject()
+            .put("name", "guild").put("owner_id", 1).put("afk_timeout", 300).put("roles", roles)
+            .put("channels", new JSONArray()).put("emojis", new JSONArray())
+            .put("voice_states", new JSONArray()).put("presences", new JSONArray());
+    }
+
+    @Setup(Level.Invocation)
+    public void setupMembers()
+    {
+        members = new TLongObjectHashMap<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++)
+        {
+            // the first member is the currently logged in account, which owns the guild
+            final long userId = i == 0 ? 1 : 1000 + i;
+            JSONArray roles = new JSONArray();
+            for (int r = 0; r < rolesPerMember; r++)
+                roles.put(10 + (i + r * 7) % ROLES);
+            members.put(userId, MemberData.fromJson(new JSONObject()
+                .put("user", new JSONObject().put("id", userId).put("username", "user " + i).put("discriminator", "0001"))
+                .put("nick", i % 4 == 0 ? "nick " + i : JSONObject.NULL)
+                .put("joined_at", "2018-01-01T00:00:00.000+00:00")
+                .put("roles", roles)));
+        }
+    }
+
+    @Benchmark
+    public GuildImpl populate(Footprint footprint)
+    {
+        final long before = usedHeap();
+        GuildImpl guild = api.getEntityBuilder().createGuild(5, guildJson, members);
+        final long after = usedHeap();
+        footprint.bytesPerMember = (after - before) / MEMBERS;
+        return guild;
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear()
+    {
+        members = null;
+        api.getGuildMap().clear();
+        api.getUserMap().retainEntries((id, user) -> id == 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown()
+    {
+        api.shutdownNow();
+    }
+
+    private static long usedHeap()
+    {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.hooks;
+
+import net.dv8tion.jda.core.entities.impl.JDAImpl;
+import net.dv8tion.jda.core.events.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches an event to 1, 10 and 100 annotated listeners with {@link AnnotatedEventManager}
+ * and with the reflective implementation it replaced.
+ * <br>Every listener handles the event itself, a superclass of it, and an unrelated event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotatedEventManagerBenchmark
+{
+    @Param({"1", "10", "100"})
+    public int listeners;
+
+    private final IEventManager compiled = new AnnotatedEventManager();
+    private final IEventManager reflective = new ReflectiveEventManager();
+    private final Event event = new PingEvent();
+
+    @Setup
+    public void setup()
+    {
+        for (int i = 0; i < listeners; i++)
+        {
+            compiled.register(new Listener());
+            reflective.register(new Listener());
+        }
+    }
+
+    @Benchmark
+    public Event compiled()
+    {
+        compiled.handle(event);
+        return event;
+    }
+
+    @Benchmark
+    public Event reflective()
+    {
+        reflective.handle(event);
+        return event;
+    }
+
+    public static class PingEvent extends Event
+    {
+        public PingEvent()
+        {
+            super(null, 0);
+        }
+    }
+
+    public static class PongEvent extends Event
+    {
+        public PongEvent()
+        {
+            super(null, 0);
+        }
+    }
+
+    public static class Listener
+    {
+        private int count;
+
+        @SubscribeEvent
+        public void onPing(PingEvent event)
+        {
+            count++;
+        }
+
+        @SubscribeEvent
+        public void onEvent(Event event)
+        {
+            count++;
+        }
+
+        @SubscribeEvent
+        public void onPong(PongEvent event)
+        {
+            count--;
+        }
+    }
+
+    /**
+     * The previous AnnotatedEventManager, which walks the event class hierarchy and invokes the methods reflectively.
+     */
+    public static class ReflectiveEventManager implements IEventManager
+    {
+        private final Set<Object> listeners = new HashSet<>();
+        private final Map<Class<? extends Event>, Map<Object, List<Method>>> methods = new HashMap<>();
+
+        @Override
+        public void register(Object listener)
+        {
+            if (listeners.add(listener))
+            {
+                updateMethods();
+            }
+        }
+
+        @Override
+        public void unregister(Object listener)
+        {
+            if (listeners.remove(listener))
+            {
+                updateMethods();
+            }
+        }
+
+        @Override
+        public List<Object> getRegisteredListeners()
+        {
+            return Collections.unmodifiableList(new LinkedList<>(listeners));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void handle(Event event)
+        {
+            Class<? extends Event> eventClass = event.getClass();
+            do
+            {
+                Map<Object, List<Method>> listeners = methods.get(eventClass);
+                if (listeners != null)
+                {
+                    listeners.entrySet().forEach(e -> e.getValue().forEach(method ->
+                    {
+                        try
+                        {
+                            method.setAccessible(true);
+                            method.invoke(e.getKey(), event);
+                        }
+                        catch (IllegalAccessException | InvocationTargetException e1)
+                        {
+                            JDAImpl.LOG.error("Couldn't access annotated eventlistener method", e1);
+                        }
+                        catch (Throwable throwable)
+                        {
+                            JDAImpl.LOG.error("One of the EventListeners had an uncaught exception", throwable);
+                        }
+                    }));
+                }
+                eventClass = eventClass == Event.class ? null : (Class<? extends Event>) eventClass.getSuperclass();
+            }
+            while (eventClass != null);
+        }
+
+        private void updateMethods()
+        {
+            methods.clear();
+            for (Object listener : listeners)
+            {
+                boolean isClass = listener instanceof Class;
+                Class<?> c = isClass ? (Class<?>) listener : listener.getClass();
+                Method[] allMethods = c.getDeclaredMethods();
+                for (Method m : allMethods)
+                {
+                    if (!m.isAnnotationPresent(SubscribeEvent.class) || (isClass && !Modifier.isStatic(m.getModifiers())))
+                    {
+                        continue;
+                    }
+                    Class<?>[] pType  = m.getParameterTypes();
+                    if (pType.length == 1 && Event.class.isAssignableFrom(pType[0]))
+                    {
+                        @SuppressWarnings("unchecked")
+                        Class<? extends Event> eventClass = (Class<? extends Event>) pType[0];
+                        methods.computeIfAbsent(eventClass, (k) -> new HashMap<>())
+                               .computeIfAbsent(listener, (k) -> new ArrayList<>())
+                               .add(m);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *     Copyright 2015-2018 Austin Keener & Michael Ritter & Florian Spieß
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.dv8tion.jda.core.utils.cache.impl;
+
+import gnu.trove.impl.sync.TSynchronizedLongObjectMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a cache map from 1 to 32 threads while one thread keeps updating it, like the thread reading the gateway.
+ * <br>Compares {@link StripedLongObjectMap} with the single monitor {@link TSynchronizedLongObjectMap} that backed
+ * the caches before. Every group is one reader count, the score of its {@code read} method is the read latency.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StripedLongObjectMapBenchmark
+{
+    public static final int ENTRIES = 10_000;
+
+    @Param({"striped", "synchronized"})
+    public String map;
+
+    private TLongObjectMap<Object> cache;
+    private long[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        private int index = new Random().nextInt(ENTRIES);
+
+        private long next(long[] keys)
+        {
+            // cheap pseudo random walk, so neighbouring threads do not hit the same keys in lockstep
+            index = (index + 7919) % keys.length;
+            return keys[index];
+        }
+    }
+
+    @Setup
+    public void setup()
+    {
+        cache = map.equals("striped")
+            ? new StripedLongObjectMap<>()
+            : new TSynchronizedLongObjectMap<>(new TLongObjectHashMap<>(), new Object());
+        Random random = new Random(0x5eed);
+        keys = new long[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++)
+        {
+            // snowflakes of the last years
+            keys[i] = (random.nextLong() & 0xFFFFFFFFFFL) << 22 | random.nextInt(1 << 22);
+            cache.put(keys[i], new Object());
+        }
+    }
+
+    private Object read(Cursor cursor)
+    {
+        return cache.get(cursor.next(keys));
+    }
+
+    private Object write(Cursor cursor)
+    {
+        return cache.put(cursor.next(keys), cursor);
+    }
+
+    @Benchmark
+    @Group("readers1")
+    @GroupThreads(1)
+    public Object readers1_read(Cursor cursor)
+    {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readers1")
+    @GroupThreads(1)
+    public Object readers1_write(Cursor cursor)
+    {
+        return write(cursor);
+    }
+
+    @Benchmark
+    @Group("readers2")
+    @GroupThreads(2)
+    public Object readers2_read(Cursor cursor)
+    {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readers2")
+    @GroupThreads(1)
+    public Object readers2_write(Cursor cursor)
+    {
+        return write(cursor);
+    }
+
+    @Benchmark
+    @Group("readers4")
+    @GroupThreads(4)
+    public Object readers4_read(Cursor cursor)
+    {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readers4")
+    @GroupThreads(1)
+    public Object readers4_write(Cursor cursor)
+    {
+        return write(cursor);
+    }
+
+    @Benchmark
+    @Group("readers8")
+    @GroupThreads(8)
+    public Object readers8_read(Cursor cursor)
+    {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readers8")
+    @GroupThreads(1)
+    public Object readers8_write(Cursor cursor)
+    {
+        return write(cursor);
+    }
+
+    @Benchmark
+    @Group("readers16")
+    @GroupThreads(16)
+    public Object readers16_read(Cursor cursor)
+    {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readers16")
+    @GroupThreads(1)
+    public Object readers16_write(Cursor cursor)
+    {
+        return write(cursor);
+    }
+
+    @Benchmark
+    @Group("readers32")
+    @GroupThreads(32)
+    public Object readers32_read(Cursor cursor)
+    {
+        return read(cursor);
+    }
+
+    @Benchmark
+    @Group("readers32")
+    @GroupThreads(1)
+    public Object readers32_write(Cursor cursor)
+    {
+        return write(cursor);
+    }
+}